@@ -0,0 +1,103 @@
+package com.timex.api.archive;
+
+import com.timex.api.cache.ReadCache;
+import com.timex.api.index.ProjectOwnershipIndex;
+import com.timex.api.index.TaskFilterIndex;
+import com.timex.api.index.TaskSearchIndex;
+import com.timex.api.model.Task;
+import com.timex.api.repository.ArchivedTaskRepository;
+import com.timex.api.repository.TaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves completed tasks that have not changed for {@code app.archive.completed-age} from {@code tasks}
+ * into {@code tasks_archive}, one chunk per transaction, so the hot table only holds live work.
+ */
+@Component
+@ConditionalOnProperty(name = "app.archive.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class TaskArchiver {
+
+    private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskFilterIndex taskFilterIndex;
+    private final ProjectOwnershipIndex ownershipIndex;
+    private final ReadCache readCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration completedAge;
+    private final Pageable chunk;
+    private final Counter archivedRows;
+    private final Timer chunkTimer;
+
+    public TaskArchiver(TaskRepository taskRepository, ArchivedTaskRepository archivedTaskRepository,
+            TaskSearchIndex taskSearchIndex, TaskFilterIndex taskFilterIndex,
+            ProjectOwnershipIndex ownershipIndex, ReadCache readCache,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.archive.completed-age:P30D}") Duration completedAge,
+            @Value("${app.archive.chunk-size:1000}") int chunkSize,
+            MeterRegistry meterRegistry) {
+        this.taskRepository = taskRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.taskSearchIndex = taskSearchIndex;
+        this.taskFilterIndex = taskFilterIndex;
+        this.ownershipIndex = ownershipIndex;
+        this.readCache = readCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.completedAge = completedAge;
+        this.chunk = PageRequest.of(0, chunkSize);
+        this.archivedRows = Counter.builder("timex.archive.rows")
+                .description("Completed tasks moved to the archive")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("timex.archive.chunk.duration")
+                .description("Time spent archiving one chunk")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.archive.interval-ms:3600000}",
+            initialDelayString = "${app.archive.interval-ms:3600000}")
+    public int archiveCompletedTasks() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minus(completedAge);
+
+        int total = 0;
+        int moved;
+        do {
+            moved = chunkTimer.record(() -> transactionTemplate.execute(status -> {
+                List<Long> ids = taskRepository.findIdsByStatusUpdatedBefore(Task.Status.COMPLETED, cutoff, chunk);
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                archivedTaskRepository.copyFromTasks(ids, now);
+                // Search, filtering and task ownership only cover the hot table
+                taskSearchIndex.tasksRemoved(ids);
+                taskFilterIndex.tasksRemoved(ids);
+                ownershipIndex.tasksRemoved(ids);
+                readCache.tasksChanged(ids, taskRepository.findProjectIdsByIdIn(ids));
+                return taskRepository.deleteByIdIn(ids);
+            }));
+            archivedRows.increment(moved);
+            total += moved;
+        } while (moved > 0);
+
+        if (total > 0) {
+            log.info("Archived {} tasks completed before {}", total, cutoff);
+        }
+        return total;
+    }
+}
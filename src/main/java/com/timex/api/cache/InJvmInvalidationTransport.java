@@ -0,0 +1,46 @@
+package com.timex.api.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Delivers invalidations between application contexts of the same JVM, such as the instances started
+ * by a multi-node test. Every context connects to one process-wide set of receivers, and a batch is
+ * handed to the other receivers on the sending thread.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.bus.transport", havingValue = "in-jvm")
+public class InJvmInvalidationTransport implements InvalidationTransport {
+
+    private static final Map<String, Consumer<List<InvalidationKey>>> RECEIVERS = new ConcurrentHashMap<>();
+
+    private String node;
+
+    @Override
+    public void connect(String node, Consumer<List<InvalidationKey>> receiver) {
+        this.node = node;
+        RECEIVERS.put(node, receiver);
+    }
+
+    @Override
+    public void send(String node, List<InvalidationKey> keys) {
+        RECEIVERS.forEach((receiverNode, receiver) -> {
+            if (!receiverNode.equals(node)) {
+                receiver.accept(keys);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void disconnect() {
+        if (node != null) {
+            RECEIVERS.remove(node);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.timex.api.cache;
+
+import com.timex.api.index.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Spreads the invalidations of in-process caches and indexes to every instance of the application.
+ * Published keys are applied to the local subscribers once the writing transaction commits, and queued
+ * for the other instances; the queue is a set, so a burst of writes to the same entities is sent once, in batches of
+ * {@code app.cache.bus.batch-size} per flush. Keys received from other instances are only applied.
+ */
+@Component
+@Slf4j
+public class InvalidationBus {
+
+    private final String node = UUID.randomUUID().toString();
+    private final InvalidationTransport transport;
+    private final int batchSize;
+    private final int maxPending;
+    private final List<Consumer<List<InvalidationKey>>> subscribers = new CopyOnWriteArrayList<>();
+    private final List<Consumer<List<InvalidationKey>>> remoteSubscribers = new CopyOnWriteArrayList<>();
+    private final LinkedHashSet<InvalidationKey> pending = new LinkedHashSet<>();
+
+    private final Counter publishedKeys;
+    private final Counter sentKeys;
+    private final Counter sentBatches;
+    private final Counter receivedKeys;
+    private final Counter droppedKeys;
+
+    @Autowired
+    public InvalidationBus(ObjectProvider<InvalidationTransport> transport,
+            @Value("${app.cache.bus.batch-size:256}") int batchSize,
+            @Value("${app.cache.bus.max-pending:100000}") int maxPending,
+            MeterRegistry meterRegistry) {
+        this(transport.getIfAvailable(), batchSize, maxPending, meterRegistry);
+    }
+
+    InvalidationBus(InvalidationTransport transport, int batchSize, int maxPending, MeterRegistry meterRegistry) {
+        this.transport = transport;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+
+        this.publishedKeys = Counter.builder("timex.cache.bus.keys")
+                .tag("direction", "published")
+                .description("Invalidation keys published, sent to and received from other instances")
+                .register(meterRegistry);
+        this.sentKeys = Counter.builder("timex.cache.bus.keys")
+                .tag("direction", "sent")
+                .description("Invalidation keys published, sent to and received from other instances")
+                .register(meterRegistry);
+        this.receivedKeys = Counter.builder("timex.cache.bus.keys")
+                .tag("direction", "received")
+                .description("Invalidation keys published, sent to and received from other instances")
+                .register(meterRegistry);
+        this.sentBatches = Counter.builder("timex.cache.bus.batches")
+                .description("Batches of invalidation keys sent to other instances")
+                .register(meterRegistry);
+        this.droppedKeys = Counter.builder("timex.cache.bus.dropped")
+                .description("Invalidation keys not sent because the queue was full; their entries expire instead")
+                .register(meterRegistry);
+        Gauge.builder("timex.cache.bus.pending", this, InvalidationBus::pendingCount)
+                .description("Invalidation keys waiting to be sent")
+                .register(meterRegistry);
+
+        if (transport != null) {
+            transport.connect(node, this::receive);
+        }
+    }
+
+    public String node() {
+        return node;
+    }
+
+    /**
+     * Registers a cache; it is given every batch of keys, published here or received, and ignores the
+     * kinds it does not hold.
+     */
+    public void subscribe(Consumer<List<InvalidationKey>> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Registers a listener that is only given the keys received from other instances, for state that
+     * local writes already update directly, such as the in-memory indexes. It must not publish again.
+     */
+    public void subscribeRemote(Consumer<List<InvalidationKey>> subscriber) {
+        remoteSubscribers.add(subscriber);
+    }
+
+    public void publish(Collection<InvalidationKey> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        List<InvalidationKey> copy = List.copyOf(keys);
+        AfterCommit.run(() -> {
+            publishedKeys.increment(copy.size());
+            deliver(copy);
+            if (transport != null) {
+                enqueue(copy);
+            }
+        });
+    }
+
+    /**
+     * Sends the queued keys; returns how many were sent.
+     */
+    @Scheduled(fixedDelayString = "${app.cache.bus.flush-ms:100}")
+    public int flush() {
+        if (transport == null) {
+            return 0;
+        }
+
+        int sent = 0;
+        List<InvalidationKey> batch;
+        while (!(batch = nextBatch()).isEmpty()) {
+            try {
+                transport.send(node, batch);
+            } catch (RuntimeException e) {
+                // Kept for the next flush; the other instances serve stale entries until then
+                log.warn("Sending {} cache invalidations failed: {}", batch.size(), e.getMessage());
+                enqueue(batch);
+                break;
+            }
+            sentBatches.increment();
+            sentKeys.increment(batch.size());
+            sent += batch.size();
+        }
+        return sent;
+    }
+
+    private void receive(List<InvalidationKey> keys) {
+        receivedKeys.increment(keys.size());
+        deliver(keys);
+        for (Consumer<List<InvalidationKey>> subscriber : remoteSubscribers) {
+            subscriber.accept(keys);
+        }
+    }
+
+    private void deliver(List<InvalidationKey> keys) {
+        for (Consumer<List<InvalidationKey>> subscriber : subscribers) {
+            subscriber.accept(keys);
+        }
+    }
+
+    private void enqueue(List<InvalidationKey> keys) {
+        synchronized (pending) {
+            for (InvalidationKey key : keys) {
+                if (pending.size() < maxPending || pending.contains(key)) {
+                    pending.add(key);
+                } else {
+                    droppedKeys.increment();
+                }
+            }
+        }
+    }
+
+    private List<InvalidationKey> nextBatch() {
+        synchronized (pending) {
+            List<InvalidationKey> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            Iterator<InvalidationKey> iterator = pending.iterator();
+            while (batch.size() < batchSize && iterator.hasNext()) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+            return batch;
+        }
+    }
+
+    private int pendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+}
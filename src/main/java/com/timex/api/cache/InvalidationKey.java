@@ -0,0 +1,93 @@
+package com.timex.api.cache;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * One thing a write made stale, as published on the {@link InvalidationBus}: a cached entry, a group of
+ * entries, a user whose token version changed, an account that took a username or email, or a row held
+ * by an in-memory index. Keys are small and compare by value, so the bus can coalesce repeated writes to
+ * the same entity.
+ */
+@Value
+public class InvalidationKey {
+
+    public enum Kind {
+        /** A project response, by project id */
+        PROJECT('p'),
+        /** A detailed project response, by project id */
+        DETAILED_PROJECT('d'),
+        /** A task response, by task id */
+        TASK('t'),
+        /** The task responses of a project, by project id */
+        PROJECT_TASKS('g'),
+        /** The project responses of an owner, by user id */
+        OWNER_PROJECTS('o'),
+        /** The token version of a user, by user id */
+        USER('u'),
+        /** The username and email of an account, by user id */
+        ACCOUNT('a'),
+        /** The indexed attributes of a task, such as its project, status and text, by task id */
+        TASK_ROW('r'),
+        /** The owner of a project, by project id */
+        PROJECT_OWNER('w');
+
+        private final char code;
+
+        Kind(char code) {
+            this.code = code;
+        }
+
+        private static Kind of(char code) {
+            for (Kind kind : values()) {
+                if (kind.code == code) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException("Unknown invalidation kind '" + code + "'");
+        }
+    }
+
+    Kind kind;
+    long id;
+
+    public static InvalidationKey of(Kind kind, long id) {
+        return new InvalidationKey(kind, id);
+    }
+
+    public static List<InvalidationKey> of(Kind kind, Collection<Long> ids) {
+        List<InvalidationKey> keys = new ArrayList<>(ids.size());
+        ids.forEach(id -> keys.add(new InvalidationKey(kind, id)));
+        return keys;
+    }
+
+    /**
+     * Ids of the keys of {@code kind} among {@code keys}.
+     */
+    public static List<Long> idsOf(Kind kind, Collection<InvalidationKey> keys) {
+        List<Long> ids = new ArrayList<>();
+        for (InvalidationKey key : keys) {
+            if (key.kind == kind) {
+                ids.add(key.id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Compact form used by transports, such as {@code t42}.
+     */
+    public String encode() {
+        return kind.code + Long.toString(id);
+    }
+
+    public static InvalidationKey decode(String encoded) {
+        if (encoded.length() < 2) {
+            throw new IllegalArgumentException("Invalid invalidation key '" + encoded + "'");
+        }
+        return new InvalidationKey(Kind.of(encoded.charAt(0)), Long.parseLong(encoded.substring(1)));
+    }
+}
@@ -0,0 +1,18 @@
+package com.timex.api.cache;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Carries batches of invalidation keys between the instances of the application. Chosen with
+ * {@code app.cache.bus.transport}; without a transport the {@link InvalidationBus} stays local.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Registers the instance; {@code receiver} is given the batches sent by every other instance.
+     */
+    void connect(String node, Consumer<List<InvalidationKey>> receiver);
+
+    void send(String node, List<InvalidationKey> keys);
+}
@@ -0,0 +1,148 @@
+package com.timex.api.cache;
+
+import com.timex.api.model.CacheInvalidation;
+import com.timex.api.repository.CacheInvalidationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Sends invalidations through the {@code cache_invalidations} table of the shared database, so it
+ * needs nothing but the datasource. Every instance polls for the rows past the last id it has seen.
+ * Ids are handed out before their rows commit, so a row may appear after a higher one was read: polling
+ * stops at a gap in the ids until the row behind it is older than {@code app.cache.bus.gap-wait}, after
+ * which the missing id is taken to be rolled back. Rows older than {@code app.cache.bus.retention}
+ * are purged.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.bus.transport", havingValue = "jdbc", matchIfMissing = true)
+@Slf4j
+public class JdbcInvalidationTransport implements InvalidationTransport {
+
+    private final CacheInvalidationRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration gapWait;
+    private final Duration retention;
+    private final Pageable page;
+
+    private String node;
+    private Consumer<List<InvalidationKey>> receiver;
+    private long lastId = -1;
+
+    public JdbcInvalidationTransport(CacheInvalidationRepository repository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.cache.bus.gap-wait:PT5S}") Duration gapWait,
+            @Value("${app.cache.bus.retention:PT10M}") Duration retention,
+            @Value("${app.cache.bus.poll-size:100}") int pollSize) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.gapWait = gapWait;
+        this.retention = retention;
+        this.page = PageRequest.of(0, pollSize);
+    }
+
+    @Override
+    public void connect(String node, Consumer<List<InvalidationKey>> receiver) {
+        this.node = node;
+        this.receiver = receiver;
+    }
+
+    /**
+     * Inserts the keys as one row, or several when they do not fit into one.
+     */
+    @Override
+    public void send(String node, List<InvalidationKey> keys) {
+        LocalDateTime now = LocalDateTime.now();
+        List<CacheInvalidation> rows = new ArrayList<>();
+        StringBuilder encoded = new StringBuilder();
+        for (InvalidationKey key : keys) {
+            String next = key.encode();
+            if (encoded.length() > 0 && encoded.length() + 1 + next.length() > CacheInvalidation.MAX_KEYS_LENGTH) {
+                rows.add(row(node, encoded.toString(), now));
+                encoded.setLength(0);
+            }
+            if (encoded.length() > 0) {
+                encoded.append(',');
+            }
+            encoded.append(next);
+        }
+        if (encoded.length() > 0) {
+            rows.add(row(node, encoded.toString(), now));
+        }
+        repository.saveAll(rows);
+    }
+
+    /**
+     * Hands the rows of the other instances that committed since the last poll to the receiver; returns
+     * how many rows were read.
+     */
+    @Scheduled(fixedDelayString = "${app.cache.bus.poll-ms:500}")
+    public synchronized int poll() {
+        if (receiver == null) {
+            return 0;
+        }
+        if (lastId < 0) {
+            // Caches start empty, so only what is written from now on matters
+            lastId = repository.findMaxId();
+            return 0;
+        }
+
+        LocalDateTime gapCutoff = LocalDateTime.now().minus(gapWait);
+        int read = 0;
+        List<CacheInvalidation> rows;
+        do {
+            rows = repository.findAfter(lastId, page);
+            for (CacheInvalidation row : rows) {
+                // An empty table at the first poll gives no id to count on from
+                if (lastId > 0 && row.getId() != lastId + 1 && row.getCreatedAt().isAfter(gapCutoff)) {
+                    return read;
+                }
+                lastId = row.getId();
+                read++;
+                if (!row.getSender().equals(node)) {
+                    receiver.accept(decode(row.getKeys()));
+                }
+            }
+        } while (rows.size() == page.getPageSize());
+        return read;
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.bus.purge-ms:60000}")
+    public int purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        Integer purged = transactionTemplate.execute(status -> repository.deleteCreatedBefore(cutoff));
+        if (purged != null && purged > 0) {
+            log.debug("Purged {} cache invalidations sent before {}", purged, cutoff);
+        }
+        return purged == null ? 0 : purged;
+    }
+
+    private static CacheInvalidation row(String node, String keys, LocalDateTime createdAt) {
+        return CacheInvalidation.builder()
+                .sender(node)
+                .keys(keys)
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private static List<InvalidationKey> decode(String keys) {
+        String[] parts = keys.split(",");
+        List<InvalidationKey> decoded = new ArrayList<>(parts.length);
+        for (String part : parts) {
+            decoded.add(InvalidationKey.decode(part));
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,167 @@
+package com.timex.api.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.timex.api.dto.ProjectDto;
+import com.timex.api.dto.TaskDto;
+import com.timex.api.cache.InvalidationKey.Kind;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Caches of the project and task detail responses, and the rules for which writes make which entries
+ * stale. Callers authorize first, then read through {@link #projects()}, {@link #detailedProjects()} or
+ * {@link #tasks()}; project entries are grouped by owner and task entries by project.
+ * Invalidations go through the {@link InvalidationBus}, which applies them once the writing transaction
+ * commits and passes them on to the other instances.
+ */
+@Component
+public class ReadCache {
+
+    private final ResponseCache<ProjectDto.Response> projects;
+    private final ResponseCache<ProjectDto.DetailedResponse> detailedProjects;
+    private final ResponseCache<TaskDto.Response> tasks;
+    private final InvalidationBus invalidationBus;
+
+    public ReadCache(
+            @Value("${app.cache.max-entries:10000}") int maxEntries,
+            @Value("${app.cache.detailed-max-entries:1000}") int detailedMaxEntries,
+            @Value("${app.cache.max-value-bytes:1048576}") int maxValueBytes,
+            @Value("${app.cache.ttl:PT5M}") Duration ttl,
+            InvalidationBus invalidationBus,
+            MeterRegistry meterRegistry) {
+        // Its own mapper: the bytes never leave the cache, so they do not follow the HTTP settings
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Clock clock = Clock.systemUTC();
+        this.projects = new ResponseCache<>("projects", ProjectDto.Response.class, objectMapper, maxEntries,
+                maxValueBytes, ttl, clock, meterRegistry);
+        this.detailedProjects = new ResponseCache<>("projects.detailed", ProjectDto.DetailedResponse.class,
+                objectMapper, detailedMaxEntries, maxValueBytes, ttl, clock, meterRegistry);
+        this.tasks = new ResponseCache<>("tasks", TaskDto.Response.class, objectMapper, maxEntries, maxValueBytes,
+                ttl, clock, meterRegistry);
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(this::invalidate);
+    }
+
+    public ResponseCache<ProjectDto.Response> projects() {
+        return projects;
+    }
+
+    public ResponseCache<ProjectDto.DetailedResponse> detailedProjects() {
+        return detailedProjects;
+    }
+
+    public ResponseCache<TaskDto.Response> tasks() {
+        return tasks;
+    }
+
+    /**
+     * The project was updated; when it was renamed, the responses of its tasks, which carry the name, are
+     * stale too.
+     */
+    public void projectChanged(Long projectId, boolean renamed) {
+        List<InvalidationKey> keys = new ArrayList<>(3);
+        keys.add(InvalidationKey.of(Kind.PROJECT, projectId));
+        keys.add(InvalidationKey.of(Kind.DETAILED_PROJECT, projectId));
+        if (renamed) {
+            keys.add(InvalidationKey.of(Kind.PROJECT_TASKS, projectId));
+        }
+        invalidationBus.publish(keys);
+    }
+
+    /**
+     * The projects are gone; their tasks are removed through {@link #tasksRemoved}.
+     */
+    public void projectsRemoved(Collection<Long> projectIds) {
+        List<InvalidationKey> keys = new ArrayList<>(projectIds.size() * 2);
+        for (Long projectId : projectIds) {
+            keys.add(InvalidationKey.of(Kind.PROJECT, projectId));
+            keys.add(InvalidationKey.of(Kind.DETAILED_PROJECT, projectId));
+        }
+        invalidationBus.publish(keys);
+    }
+
+    /**
+     * The user was renamed, which shows in the responses of all of their projects.
+     */
+    public void ownerChanged(Long userId) {
+        invalidationBus.publish(List.of(InvalidationKey.of(Kind.OWNER_PROJECTS, userId)));
+    }
+
+    /**
+     * The tasks were created, changed, moved or deleted; {@code projectIds} must include every project
+     * they were in before or are in now, whose detailed responses list them.
+     */
+    public void tasksChanged(Collection<Long> taskIds, Collection<Long> projectIds) {
+        List<InvalidationKey> keys = new ArrayList<>(taskIds.size() + projectIds.size());
+        for (Long taskId : taskIds) {
+            keys.add(InvalidationKey.of(Kind.TASK, taskId));
+        }
+        for (Long projectId : projectIds) {
+            keys.add(InvalidationKey.of(Kind.DETAILED_PROJECT, projectId));
+        }
+        invalidationBus.publish(keys);
+    }
+
+    /**
+     * Any task of the project may have changed.
+     */
+    public void tasksOfProjectChanged(Long projectId) {
+        invalidationBus.publish(List.of(
+                InvalidationKey.of(Kind.PROJECT_TASKS, projectId),
+                InvalidationKey.of(Kind.DETAILED_PROJECT, projectId)));
+    }
+
+    /**
+     * Tasks of the first project were moved to the second one.
+     */
+    public void tasksMoved(Long fromProjectId, Long toProjectId) {
+        invalidationBus.publish(List.of(
+                InvalidationKey.of(Kind.PROJECT_TASKS, fromProjectId),
+                InvalidationKey.of(Kind.DETAILED_PROJECT, fromProjectId),
+                InvalidationKey.of(Kind.DETAILED_PROJECT, toProjectId)));
+    }
+
+    /**
+     * Tasks deleted along with their project or owner, whose detailed responses are removed as well.
+     */
+    public void tasksRemoved(Collection<Long> taskIds) {
+        List<InvalidationKey> keys = new ArrayList<>(taskIds.size());
+        for (Long taskId : taskIds) {
+            keys.add(InvalidationKey.of(Kind.TASK, taskId));
+        }
+        invalidationBus.publish(keys);
+    }
+
+    private void invalidate(List<InvalidationKey> keys) {
+        for (InvalidationKey key : keys) {
+            switch (key.getKind()) {
+                case PROJECT:
+                    projects.invalidate(key.getId());
+                    break;
+                case DETAILED_PROJECT:
+                    detailedProjects.invalidate(key.getId());
+                    break;
+                case TASK:
+                    tasks.invalidate(key.getId());
+                    break;
+                case PROJECT_TASKS:
+                    tasks.invalidateGroup(key.getId());
+                    break;
+                case OWNER_PROJECTS:
+                    projects.invalidateGroup(key.getId());
+                    detailedProjects.invalidateGroup(key.getId());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.timex.api.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of one kind of response, keyed by entity id. Values are held as serialized JSON, which
+ * is compact and gives every reader its own copy of the mutable DTOs. Entries expire after the TTL and the
+ * least recently read entry is evicted once {@code maxEntries} is reached; values above
+ * {@code maxValueBytes} are not cached.
+ * Every entry also carries a group id, such as the project of a task, so all entries derived from one
+ * entity can be invalidated together. A value read before an invalidation is never stored after it:
+ * {@link #put} is ignored unless the {@link #version()} taken before the read is still current.
+ */
+@Slf4j
+public class ResponseCache<T> {
+
+    private final String name;
+    private final Class<T> type;
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final int maxValueBytes;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final LinkedHashMap<Long, Entry> entries;
+    private final AtomicLong version = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter invalidations;
+
+    ResponseCache(String name, Class<T> type, ObjectMapper objectMapper, int maxEntries, int maxValueBytes,
+            Duration ttl, Clock clock, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.type = type;
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+        this.maxValueBytes = maxValueBytes;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() <= ResponseCache.this.maxEntries) {
+                    return false;
+                }
+                sizeEvictions.increment();
+                return true;
+            }
+        };
+
+        this.hits = Counter.builder("timex.cache.requests")
+                .tag("cache", name)
+                .tag("result", "hit")
+                .description("Cache reads by whether the response was cached")
+                .register(meterRegistry);
+        this.misses = Counter.builder("timex.cache.requests")
+                .tag("cache", name)
+                .tag("result", "miss")
+                .description("Cache reads by whether the response was cached")
+                .register(meterRegistry);
+        this.sizeEvictions = Counter.builder("timex.cache.evictions")
+                .tag("cache", name)
+                .tag("cause", "size")
+                .description("Entries dropped to stay within the size limit or because they expired")
+                .register(meterRegistry);
+        this.expiredEvictions = Counter.builder("timex.cache.evictions")
+                .tag("cache", name)
+                .tag("cause", "expired")
+                .description("Entries dropped to stay within the size limit or because they expired")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("timex.cache.invalidations")
+                .tag("cache", name)
+                .description("Entries removed because the data behind them changed")
+                .register(meterRegistry);
+        Gauge.builder("timex.cache.entries", this, ResponseCache::size)
+                .tag("cache", name)
+                .description("Entries in the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * To be taken before reading the value that is then passed to {@link #put}.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * A fresh copy of the cached response, or {@code null}.
+     */
+    public T get(Long key) {
+        byte[] json;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt <= clock.millis()) {
+                entries.remove(key);
+                expiredEvictions.increment();
+                entry = null;
+            }
+            json = entry == null ? null : entry.json;
+        }
+        if (json == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cached " + name + " response " + key + " cannot be read", e);
+        }
+    }
+
+    public void put(Long key, long group, T value, long readVersion) {
+        if (maxEntries <= 0) {
+            return;
+        }
+
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            log.warn("Not caching {} response {}: {}", name, key, e.getMessage());
+            return;
+        }
+        if (json.length > maxValueBytes) {
+            return;
+        }
+
+        synchronized (entries) {
+            // An invalidation since the read may concern this value; the next read loads it again
+            if (version.get() == readVersion) {
+                entries.put(key, new Entry(json, group, clock.millis() + ttlMillis));
+            }
+        }
+    }
+
+    public void invalidate(Long key) {
+        synchronized (entries) {
+            version.incrementAndGet();
+            if (entries.remove(key) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    public void invalidate(Collection<Long> keys) {
+        synchronized (entries) {
+            version.incrementAndGet();
+            for (Long key : keys) {
+                if (entries.remove(key) != null) {
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the entries of the group; scans the cache, which only changes like renames need.
+     */
+    public void invalidateGroup(long group) {
+        synchronized (entries) {
+            version.incrementAndGet();
+            int before = entries.size();
+            entries.values().removeIf(entry -> entry.group == group);
+            invalidations.increment(before - entries.size());
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static final class Entry {
+        private final byte[] json;
+        private final long group;
+        private final long expiresAt;
+
+        private Entry(byte[] json, long group, long expiresAt) {
+            this.json = json;
+            this.group = group;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.timex.api.model.User;
 import com.timex.api.repository.ProjectRepository;
 import com.timex.api.repository.TaskRepository;
 import com.timex.api.repository.UserRepository;
+import com.timex.api.stats.ProjectStatistics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -28,6 +29,7 @@ public class DataInitializer {
     private final ProjectRepository projectRepository;
     private final TaskRepository taskRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ProjectStatistics projectStatistics;
 
     @Bean
     @Profile("!prod") // Don't run in production
@@ -155,6 +157,9 @@ public class DataInitializer {
                 taskRepository.saveAll(project1Tasks);
                 taskRepository.saveAll(project2Tasks);
 
+                // Sample data bypasses the services, so compute the statistics rows from it
+                projectStatistics.rebuildAll();
+
                 log.info("Sample data initialization completed");
             }
         };
@@ -0,0 +1,38 @@
+package com.timex.api.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Weak ETags for GET responses that clients poll. The ETag comes from a version the service reads
+ * without loading the response, so a {@code 304 Not Modified} costs one small query and no
+ * serialization. Responses may be kept by the client but must be revalidated on every use.
+ */
+final class ConditionalGet {
+
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * Sets the ETag of the response and whether it is {@code 304 Not Modified} for the request's
+     * {@code If-None-Match}.
+     */
+    static boolean notModified(WebRequest request, String version) {
+        return request.checkNotModified("W/\"" + version + "\"");
+    }
+
+    static <T> ResponseEntity<T> notModifiedResponse() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+    }
+
+    static <T> ResponseEntity<T> revalidated(ResponseEntity<T> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .cacheControl(REVALIDATE)
+                .body(response.getBody());
+    }
+}
@@ -0,0 +1,43 @@
+package com.timex.api.controller;
+
+import com.timex.api.exception.PreconditionFailedException;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Strong ETags from the row version of a single task or project, and the {@code If-Match} of writes to
+ * it. Writes without {@code If-Match} are still checked against the version they read, so a concurrent
+ * change fails with {@code 412 Precondition Failed} instead of being overwritten.
+ */
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    static <T> ResponseEntity<T> ok(T body, Long version) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (version != null) {
+            response.eTag("\"" + version + "\"");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Returns the version an {@code If-Match} header asks for, or null when it asks for none. Weak or
+     * foreign tags never match, as the header requires a strong comparison.
+     */
+    static Long expectedVersion(String ifMatch, String resourceName, Long id) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // Not one of ours
+            }
+        }
+        throw new PreconditionFailedException(resourceName, id);
+    }
+}
@@ -5,12 +5,14 @@ import com.timex.api.service.ProjectService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -36,32 +38,60 @@ public class ProjectController {
 
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    @Operation(summary = "Get all user projects", description = "Returns all projects for the authenticated user")
-    public ResponseEntity<List<ProjectDto.Response>> getAllProjects(@AuthenticationPrincipal UserDetails userDetails) {
-        return ResponseEntity.ok(projectService.getAllProjects(userDetails.getUsername()));
+    @Operation(summary = "Get all user projects", description = "Returns a page of projects for the authenticated user, oldest first. With includeCounts=true each project also carries its task, open and overdue task counts. The cursor of the next page is returned in the X-Next-Cursor header. Without includeCounts the response carries a weak ETag and If-None-Match is answered with 304 Not Modified")
+    public ResponseEntity<List<ProjectDto.Response>> getAllProjects(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(defaultValue = "false") boolean includeCounts,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        if (includeCounts) {
+            return projectService.getAllProjects(userDetails.getUsername(), true, cursor, limit).toResponseEntity();
+        }
+
+        if (ConditionalGet.notModified(webRequest, projectService.getAllProjectsVersion(userDetails.getUsername()))) {
+            return ConditionalGet.notModifiedResponse();
+        }
+        return ConditionalGet.revalidated(
+                projectService.getAllProjects(userDetails.getUsername(), false, cursor, limit).toResponseEntity());
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
-    @Operation(summary = "Get project by ID", description = "Returns a specific project by ID")
+    @Operation(summary = "Get project by ID", description = "Returns a specific project by ID. The response carries an ETag to send as If-Match when updating it")
     public ResponseEntity<ProjectDto.Response> getProjectById(@PathVariable Long id) {
-        return ResponseEntity.ok(projectService.getProjectById(id));
+        ProjectDto.Response project = projectService.getProjectById(id);
+        return EntityTags.ok(project, project.getVersion());
     }
 
     @GetMapping("/{id}/detailed")
     @PreAuthorize("isAuthenticated()")
-    @Operation(summary = "Get project with tasks", description = "Returns a project with all its tasks")
-    public ResponseEntity<ProjectDto.DetailedResponse> getProjectWithTasks(@PathVariable Long id) {
-        return ResponseEntity.ok(projectService.getProjectWithTasks(id));
+    @Operation(summary = "Get project with tasks", description = "Returns a project with all its tasks. The response carries a weak ETag and If-None-Match is answered with 304 Not Modified")
+    public ResponseEntity<ProjectDto.DetailedResponse> getProjectWithTasks(@PathVariable Long id,
+            WebRequest webRequest) {
+        if (ConditionalGet.notModified(webRequest, projectService.getProjectWithTasksVersion(id))) {
+            return ConditionalGet.notModifiedResponse();
+        }
+        return ConditionalGet.revalidated(ResponseEntity.ok(projectService.getProjectWithTasks(id)));
+    }
+
+    @GetMapping("/{id}/stats")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Get project statistics", description = "Returns task counts and estimated/actual hour totals of a project, overall and by status, including archived tasks")
+    public ResponseEntity<ProjectDto.Stats> getProjectStats(@PathVariable Long id) {
+        return ResponseEntity.ok(projectService.getProjectStats(id));
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
-    @Operation(summary = "Update project", description = "Updates an existing project")
+    @Operation(summary = "Update project", description = "Updates an existing project. With If-Match the update only applies while the project still has that ETag; otherwise, and whenever the project changes concurrently, 412 Precondition Failed is returned")
     public ResponseEntity<ProjectDto.Response> updateProject(
             @PathVariable Long id,
-            @Valid @RequestBody ProjectDto.Request request) {
-        return ResponseEntity.ok(projectService.updateProject(id, request));
+            @Valid @RequestBody ProjectDto.Request request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ProjectDto.Response project = projectService.updateProject(id, request,
+                EntityTags.expectedVersion(ifMatch, "Project", id));
+        return EntityTags.ok(project, project.getVersion());
     }
 
     @DeleteMapping("/{id}")
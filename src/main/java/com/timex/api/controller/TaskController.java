@@ -7,14 +7,17 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/tasks")
@@ -31,53 +34,155 @@ public class TaskController {
         return new ResponseEntity<>(taskService.createTask(request), HttpStatus.CREATED);
     }
 
+    @GetMapping
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Filter tasks", description = "Returns a page of the current user's tasks, or of all tasks for admins, matching every given filter, oldest first. The due date window includes dueFrom and excludes dueTo. The cursor of the next page is returned in the X-Next-Cursor header")
+    public ResponseEntity<List<TaskDto.Response>> filterTasks(
+            @RequestParam(required = false) Long project,
+            @RequestParam(required = false) Task.Status status,
+            @RequestParam(required = false) Integer priority,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return taskService.filterTasks(project, status, priority, dueFrom, dueTo, cursor, limit).toResponseEntity();
+    }
+
+    @GetMapping("/query")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Query tasks of a project", description = "Returns a page of a project's tasks matching every given filter, in the given sort order with the id breaking ties. Sort keys are createdAt, updatedAt, dueDate or priority,dueDate, each prefixed with - for descending; other orders are rejected because no index serves them. Sorting by due date needs dueFrom or dueTo, as tasks without a due date have no place in that order. The text filter needs a range on the first sort key: dueFrom or dueTo for dueDate, updatedSince for updatedAt, priorityMin or priorityMax for priority. The cursor of the next page is returned in the X-Next-Cursor header")
+    public ResponseEntity<List<TaskDto.Response>> queryTasks(
+            @RequestParam Long project,
+            @RequestParam(required = false) Set<Task.Status> status,
+            @RequestParam(required = false) Integer priorityMin,
+            @RequestParam(required = false) Integer priorityMax,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            @RequestParam(required = false) String text,
+            @RequestParam(defaultValue = "createdAt") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        TaskDto.Query query = TaskDto.Query.builder()
+                .projectId(project)
+                .statuses(status)
+                .priorityMin(priorityMin)
+                .priorityMax(priorityMax)
+                .dueFrom(dueFrom)
+                .dueTo(dueTo)
+                .updatedSince(updatedSince)
+                .text(text)
+                .build();
+        return taskService.queryTasks(query, sort, cursor, limit).toResponseEntity();
+    }
+
+    @PostMapping("/bulk")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Create or update tasks in bulk", description = "Creates the items without an id and updates the others, returning one result per item in request order. Invalid, missing or forbidden items fail on their own without affecting the rest")
+    public ResponseEntity<List<TaskDto.BulkResult>> saveTasks(@RequestBody List<TaskDto.BulkItem> items) {
+        return ResponseEntity.ok(taskService.saveTasks(items));
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Search tasks", description = "Returns the tasks of the current user's projects whose title or description contains every word of the query, or a word starting with it, best matches first")
+    public ResponseEntity<List<TaskDto.Response>> searchTasks(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(taskService.searchTasks(q, limit));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
-    @Operation(summary = "Get task by ID", description = "Returns a specific task by ID")
+    @Operation(summary = "Get task by ID", description = "Returns a specific task by ID. Unless the task is archived, the response carries an ETag to send as If-Match when updating it")
     public ResponseEntity<TaskDto.Response> getTaskById(@PathVariable Long id) {
-        return ResponseEntity.ok(taskService.getTaskById(id));
+        TaskDto.Response task = taskService.getTaskById(id);
+        return EntityTags.ok(task, task.getVersion());
     }
 
     @GetMapping("/project/{projectId}")
     @PreAuthorize("isAuthenticated()")
-    @Operation(summary = "Get all tasks for a project", description = "Returns all tasks for a specific project")
-    public ResponseEntity<List<TaskDto.Response>> getTasksByProjectId(@PathVariable Long projectId) {
-        return ResponseEntity.ok(taskService.getTasksByProjectId(projectId));
+    @Operation(summary = "Get all tasks for a project", description = "Returns a page of tasks for a specific project, oldest first. Archived completed tasks are included only with includeArchived=true. The cursor of the next page is returned in the X-Next-Cursor header. The response carries a weak ETag and If-None-Match is answered with 304 Not Modified")
+    public ResponseEntity<List<TaskDto.Response>> getTasksByProjectId(
+            @PathVariable Long projectId,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        String version = taskService.getTasksByProjectIdVersion(projectId, includeArchived);
+        if (ConditionalGet.notModified(webRequest, version)) {
+            return ConditionalGet.notModifiedResponse();
+        }
+        return ConditionalGet.revalidated(
+                taskService.getTasksByProjectId(projectId, includeArchived, cursor, limit).toResponseEntity());
     }
 
     @GetMapping("/project/{projectId}/status/{status}")
     @PreAuthorize("isAuthenticated()")
-    @Operation(summary = "Get tasks by status for a project", description = "Returns tasks with a specific status for a project")
+    @Operation(summary = "Get tasks by status for a project", description = "Returns a page of tasks with a specific status for a project, oldest first")
     public ResponseEntity<List<TaskDto.Response>> getTasksByProjectIdAndStatus(
             @PathVariable Long projectId,
-            @PathVariable Task.Status status) {
-        return ResponseEntity.ok(taskService.getTasksByProjectIdAndStatus(projectId, status));
+            @PathVariable Task.Status status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return taskService.getTasksByProjectIdAndStatus(projectId, status, cursor, limit).toResponseEntity();
     }
 
     @GetMapping("/due-before")
     @PreAuthorize("isAuthenticated()")
-    @Operation(summary = "Get tasks due before date", description = "Returns tasks that are due before a specific date/time")
+    @Operation(summary = "Get tasks due before date", description = "Returns a page of tasks that are due before a specific date/time, earliest due first")
     public ResponseEntity<List<TaskDto.Response>> getTasksDueBeforeDate(
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTime) {
-        return ResponseEntity.ok(taskService.getTasksDueBeforeDate(dateTime));
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTime,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return taskService.getTasksDueBeforeDate(dateTime, cursor, limit).toResponseEntity();
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
-    @Operation(summary = "Update task", description = "Updates an existing task")
+    @Operation(summary = "Update task", description = "Updates an existing task. With If-Match the update only applies while the task still has that ETag; otherwise, and whenever the task changes concurrently, 412 Precondition Failed is returned")
     public ResponseEntity<TaskDto.Response> updateTask(
             @PathVariable Long id,
-            @Valid @RequestBody TaskDto.Request request) {
-        return ResponseEntity.ok(taskService.updateTask(id, request));
+            @Valid @RequestBody TaskDto.Request request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        TaskDto.Response task = taskService.updateTask(id, request, EntityTags.expectedVersion(ifMatch, "Task", id));
+        return EntityTags.ok(task, task.getVersion());
     }
 
     @PatchMapping("/{id}/status")
     @PreAuthorize("isAuthenticated()")
-    @Operation(summary = "Update task status", description = "Updates only the status of a task")
+    @Operation(summary = "Update task status", description = "Updates only the status of a task. With If-Match the update only applies while the task still has that ETag, otherwise 412 Precondition Failed is returned")
     public ResponseEntity<TaskDto.Response> updateTaskStatus(
             @PathVariable Long id,
-            @RequestParam Task.Status status) {
-        return ResponseEntity.ok(taskService.updateTaskStatus(id, status));
+            @RequestParam Task.Status status,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        TaskDto.Response task = taskService.updateTaskStatus(id, status,
+                EntityTags.expectedVersion(ifMatch, "Task", id));
+        return EntityTags.ok(task, task.getVersion());
+    }
+
+    @PatchMapping("/project/{projectId}/status")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Update status of matching tasks", description = "Sets the status of every task in a project that matches the optional status and due date filters, in one statement. Returns the number of tasks changed")
+    public ResponseEntity<TaskDto.BulkUpdateResult> updateTasksStatus(
+            @PathVariable Long projectId,
+            @RequestParam(required = false) Task.Status status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueTo,
+            @RequestParam Task.Status newStatus) {
+        return ResponseEntity.ok(taskService.updateTasksStatus(projectId, status, dueFrom, dueTo, newStatus));
+    }
+
+    @PatchMapping("/project/{projectId}/move")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Move matching tasks to another project", description = "Moves every task in a project that matches the optional status and due date filters to the target project, in one statement. Returns the number of tasks moved")
+    public ResponseEntity<TaskDto.BulkUpdateResult> moveTasks(
+            @PathVariable Long projectId,
+            @RequestParam(required = false) Task.Status status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueTo,
+            @RequestParam Long targetProjectId) {
+        return ResponseEntity.ok(taskService.moveTasks(projectId, status, dueFrom, dueTo, targetProjectId));
     }
 
     @DeleteMapping("/{id}")
@@ -23,9 +23,11 @@ public class UserController {
 
     @GetMapping
     @PreAuthorize("hasRole('ROLE_ADMIN')")
-    @Operation(summary = "Get all users", description = "Returns a list of all users - Admin access only")
-    public ResponseEntity<List<UserDto.Response>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    @Operation(summary = "Get all users", description = "Returns a page of users ordered by username - Admin access only. The cursor of the next page is returned in the X-Next-Cursor header")
+    public ResponseEntity<List<UserDto.Response>> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return userService.getAllUsers(cursor, limit).toResponseEntity();
     }
 
     @GetMapping("/{id}")
@@ -42,14 +44,29 @@ public class UserController {
         return ResponseEntity.ok(userService.getUserProfile(username));
     }
 
+    @GetMapping("/me/summary")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Get current user dashboard summary", description = "Returns task counts by status, overdue counts and hour totals for each project of the current user, with the next due tasks across them")
+    public ResponseEntity<UserDto.Summary> getCurrentUserSummary() {
+        return ResponseEntity.ok(userService.getCurrentUserSummary());
+    }
+
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('ROLE_ADMIN') or @userService.getUserById(#id).username == authentication.name")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or @accessControl.isCurrentUser(#id)")
     @Operation(summary = "Update user", description = "Updates a user's details")
     public ResponseEntity<UserDto.Response> updateUser(@PathVariable Long id,
             @Valid @RequestBody UserDto.Request request) {
         return ResponseEntity.ok(userService.updateUser(id, request));
     }
 
+    @PostMapping("/availability-index/rebuild")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Operation(summary = "Rebuild availability index", description = "Reloads the username and email availability filters from the database - Admin access only")
+    public ResponseEntity<Void> rebuildAvailabilityIndex() {
+        userService.rebuildAvailabilityIndex();
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @Operation(summary = "Delete user", description = "Deletes a user - Admin access only")
@@ -1,5 +1,7 @@
 package com.timex.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.timex.api.model.Task;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,6 +11,7 @@ import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Set;
 
 public class ProjectDto {
@@ -38,6 +41,23 @@ public class ProjectDto {
         private LocalDateTime updatedAt;
         private Long userId;
         private String userName;
+        private Long version;
+
+        // Only filled in when the project list is requested with includeCounts=true
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Long taskCount;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Long openCount;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Long overdueCount;
+
+        // Used by the constructor expression of ProjectRepository.SELECT_RESPONSE
+        public Response(Long id, String name, String description, LocalDateTime createdAt, LocalDateTime updatedAt,
+                Long userId, String userName, Long version) {
+            this(id, name, description, createdAt, updatedAt, userId, userName, version, null, null, null);
+        }
     }
 
     @Data
@@ -52,6 +72,29 @@ public class ProjectDto {
         private LocalDateTime updatedAt;
         private Long userId;
         private String userName;
+        private Long version;
         private Set<TaskDto.Response> tasks;
     }
-}
\ No newline at end of file
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Stats {
+        private Long projectId;
+        private long taskCount;
+        private double estimatedHours;
+        private double actualHours;
+        private Map<Task.Status, StatusStats> byStatus;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StatusStats {
+        private long taskCount;
+        private double estimatedHours;
+        private double actualHours;
+    }
+}
@@ -1,5 +1,6 @@
 package com.timex.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.timex.api.model.Task;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -11,6 +12,7 @@ import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 import java.time.LocalDateTime;
+import java.util.Set;
 
 public class TaskDto {
 
@@ -58,5 +60,66 @@ public class TaskDto {
         private LocalDateTime updatedAt;
         private Long projectId;
         private String projectName;
+
+        // Archived tasks are never updated and have none
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Long version;
+
+        // Used by the constructor expression of ArchivedTaskRepository.SELECT_RESPONSE
+        public Response(Long id, String title, String description, Task.Status status, Integer priority,
+                Double estimatedHours, Double actualHours, LocalDateTime dueDate, LocalDateTime createdAt,
+                LocalDateTime updatedAt, Long projectId, String projectName) {
+            this(id, title, description, status, priority, estimatedHours, actualHours, dueDate, createdAt,
+                    updatedAt, projectId, projectName, null);
+        }
+    }
+
+    /**
+     * Filters of the task query API; every one besides the project is optional.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Query {
+        private Long projectId;
+        private Set<Task.Status> statuses;
+        private Integer priorityMin;
+        private Integer priorityMax;
+        private LocalDateTime dueFrom;
+        private LocalDateTime dueTo;
+        private LocalDateTime updatedSince;
+        private String text;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BulkItem {
+        // null creates a new task, otherwise the task with this id is updated
+        private Long id;
+
+        private Request task;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BulkResult {
+        private int index;
+        private int status;
+        private Long id;
+        private String error;
+        private Response task;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BulkUpdateResult {
+        private int affected;
     }
-}
\ No newline at end of file
+}
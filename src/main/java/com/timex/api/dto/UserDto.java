@@ -1,5 +1,6 @@
 package com.timex.api.dto;
 
+import com.timex.api.model.Task;
 import com.timex.api.model.User;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -9,6 +10,9 @@ import lombok.NoArgsConstructor;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class UserDto {
@@ -67,4 +71,32 @@ public class UserDto {
         private String tokenType;
         private Response user;
     }
-}
\ No newline at end of file
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Summary {
+        private long taskCount;
+        private long overdueCount;
+        private double estimatedHours;
+        private double actualHours;
+        private List<ProjectSummary> projects;
+        private List<TaskDto.Response> nextDue;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProjectSummary {
+        private Long projectId;
+        private String projectName;
+        private long taskCount;
+        private Map<Task.Status, Long> countsByStatus;
+        private long overdueCount;
+        private double estimatedHours;
+        private double actualHours;
+        private LocalDateTime nextDueDate;
+    }
+}
@@ -0,0 +1,11 @@
+package com.timex.api.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class PreconditionFailedException extends ApiException {
+
+    public PreconditionFailedException(String resourceName, Object id) {
+        super(HttpStatus.PRECONDITION_FAILED,
+                String.format("%s with id '%s' has been changed by someone else, reload it and retry", resourceName, id));
+    }
+}
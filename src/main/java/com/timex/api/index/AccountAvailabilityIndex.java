@@ -0,0 +1,172 @@
+package com.timex.api.index;
+
+import com.timex.api.cache.InvalidationBus;
+import com.timex.api.cache.InvalidationKey;
+import com.timex.api.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bloom filters of taken usernames and emails placed in front of the availability queries.
+ * A negative answer skips the database; a positive answer is confirmed with a query. Accounts
+ * registered or renamed on any instance arrive as {@link InvalidationKey.Kind#ACCOUNT} keys on the
+ * {@link InvalidationBus} and are added once the key is received, so a negative answer may briefly
+ * miss an account taken elsewhere; writes therefore never rely on it. Removed or renamed accounts stay
+ * in the filter until the next {@link #rebuild()}, which only costs extra confirmation queries.
+ */
+@Component
+@Slf4j
+public class AccountAvailabilityIndex {
+
+    private final UserRepository userRepository;
+    private final long expectedAccounts;
+    private final double falsePositiveRate;
+
+    private volatile Filters current;
+    private volatile Filters next;
+
+    private final AtomicLong filterPositives = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private final AtomicLong staleEntries = new AtomicLong();
+    private final Counter skippedQueries;
+    private final Counter confirmedQueries;
+
+    public AccountAvailabilityIndex(
+            UserRepository userRepository,
+            @Value("${app.accounts.bloom.expected-accounts:100000}") long expectedAccounts,
+            @Value("${app.accounts.bloom.false-positive-rate:0.01}") double falsePositiveRate,
+            MeterRegistry meterRegistry,
+            InvalidationBus invalidationBus) {
+        this.userRepository = userRepository;
+        this.expectedAccounts = expectedAccounts;
+        this.falsePositiveRate = falsePositiveRate;
+
+        this.skippedQueries = Counter.builder("timex.accounts.bloom.checks")
+                .tag("result", "skipped")
+                .description("Availability checks by whether the filter ruled out a query")
+                .register(meterRegistry);
+        this.confirmedQueries = Counter.builder("timex.accounts.bloom.checks")
+                .tag("result", "confirmed")
+                .description("Availability checks by whether the filter ruled out a query")
+                .register(meterRegistry);
+        Gauge.builder("timex.accounts.bloom.false.positive.rate", this, AccountAvailabilityIndex::observedFalsePositiveRate)
+                .description("Share of filter hits that the database reported as available")
+                .register(meterRegistry);
+        Gauge.builder("timex.accounts.bloom.stale.entries", staleEntries, AtomicLong::get)
+                .description("Accounts removed or renamed since the last rebuild")
+                .register(meterRegistry);
+
+        invalidationBus.subscribe(this::accountsChanged);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        long size = Math.max(expectedAccounts, userRepository.count() * 2);
+        Filters rebuilt = new Filters(BloomFilter.create(size, falsePositiveRate),
+                BloomFilter.create(size, falsePositiveRate));
+
+        // Accounts registered while loading are added to both filters, so none can be missed
+        next = rebuilt;
+        List<UserRepository.AccountKeyView> accounts = userRepository.findAllAccountKeys();
+        accounts.forEach(account -> rebuilt.add(account.getUsername(), account.getEmail()));
+
+        current = rebuilt;
+        next = null;
+        filterPositives.set(0);
+        falsePositives.set(0);
+        staleEntries.set(0);
+
+        log.info("Rebuilt account availability filters with {} accounts ({} bits, {} hashes each)",
+                accounts.size(), rebuilt.usernames.bitCount(), rebuilt.usernames.hashCount());
+    }
+
+    public boolean isUsernameTaken(String username) {
+        Filters filters = current;
+        if (filters == null) {
+            return userRepository.existsByUsername(username);
+        }
+        if (!filters.usernames.mightContain(username)) {
+            skippedQueries.increment();
+            return false;
+        }
+        return confirm(userRepository.existsByUsername(username));
+    }
+
+    public boolean isEmailTaken(String email) {
+        Filters filters = current;
+        if (filters == null) {
+            return userRepository.existsByEmail(email);
+        }
+        if (!filters.emails.mightContain(email)) {
+            skippedQueries.increment();
+            return false;
+        }
+        return confirm(userRepository.existsByEmail(email));
+    }
+
+    public void accountAdded(String username, String email) {
+        Filters filters = current;
+        if (filters != null) {
+            filters.add(username, email);
+        }
+        Filters pending = next;
+        if (pending != null) {
+            pending.add(username, email);
+        }
+    }
+
+    public void accountRemoved() {
+        staleEntries.incrementAndGet();
+    }
+
+    public double observedFalsePositiveRate() {
+        long positives = filterPositives.get();
+        return positives == 0 ? 0.0 : (double) falsePositives.get() / positives;
+    }
+
+    private void accountsChanged(List<InvalidationKey> keys) {
+        for (InvalidationKey key : keys) {
+            if (key.getKind() == InvalidationKey.Kind.ACCOUNT) {
+                userRepository.findAccountKeyById(key.getId())
+                        .ifPresent(account -> accountAdded(account.getUsername(), account.getEmail()));
+            }
+        }
+    }
+
+    private boolean confirm(boolean exists) {
+        confirmedQueries.increment();
+        filterPositives.incrementAndGet();
+        if (!exists) {
+            falsePositives.incrementAndGet();
+        }
+        return exists;
+    }
+
+    private static final class Filters {
+        private final BloomFilter usernames;
+        private final BloomFilter emails;
+
+        private Filters(BloomFilter usernames, BloomFilter emails) {
+            this.usernames = usernames;
+            this.emails = emails;
+        }
+
+        private void add(String username, String email) {
+            usernames.put(username);
+            emails.put(email);
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package com.timex.api.index;
+
+import java.util.Arrays;
+
+/**
+ * Set of non-negative ints split into chunks of 65536 values, in the manner of Roaring bitmaps. A
+ * chunk is a sorted array of its low 16 bits while it holds at most {@value #ARRAY_MAX} values and a
+ * plain 8 KiB bitmap beyond that, so sparse sets stay small and dense ones intersect word by word.
+ * Not thread-safe; {@link #and} and {@link #or} return new bitmaps and never modify their inputs.
+ */
+public class CompressedBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+
+    private char[] keys = new char[0];
+    private Chunk[] chunks = new Chunk[0];
+    private int size;
+
+    public void add(int value) {
+        char key = (char) (value >>> 16);
+        int index = indexOf(key);
+        if (index >= 0) {
+            chunks[index] = chunks[index].add((char) value);
+            return;
+        }
+
+        insert(-index - 1, key, new ArrayChunk().add((char) value));
+    }
+
+    public void remove(int value) {
+        int index = indexOf((char) (value >>> 16));
+        if (index < 0) {
+            return;
+        }
+
+        chunks[index] = chunks[index].remove((char) value);
+        if (chunks[index].cardinality() == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(chunks, index + 1, chunks, index, size - index - 1);
+            chunks[--size] = null;
+        }
+    }
+
+    public boolean contains(int value) {
+        int index = indexOf((char) (value >>> 16));
+        return index >= 0 && chunks[index].contains((char) value);
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += chunks[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * The smallest value that is at least {@code from}, or -1 if there is none.
+     */
+    public int nextSetBit(int from) {
+        char fromKey = (char) (from >>> 16);
+        int index = indexOf(fromKey);
+        if (index < 0) {
+            index = -index - 1;
+        }
+
+        for (; index < size; index++) {
+            int low = keys[index] == fromKey ? from & 0xFFFF : 0;
+            int next = chunks[index].nextSetBit(low);
+            if (next >= 0) {
+                return keys[index] << 16 | next;
+            }
+        }
+        return -1;
+    }
+
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Chunk chunk = chunks[i].and(other.chunks[j]);
+                if (chunk.cardinality() > 0) {
+                    result.insert(result.size, keys[i], chunk);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.insert(result.size, keys[i], chunks[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.insert(result.size, other.keys[j], other.chunks[j].copy());
+                j++;
+            } else {
+                result.insert(result.size, keys[i], chunks[i].or(other.chunks[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    private int indexOf(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insert(int index, char key, Chunk chunk) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            chunks = Arrays.copyOf(chunks, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(chunks, index, chunks, index + 1, size - index);
+        keys[index] = key;
+        chunks[index] = chunk;
+        size++;
+    }
+
+    /**
+     * The low 16 bits of the values sharing one chunk key. Updates return the chunk to keep, which is
+     * a converted copy when the representation changes.
+     */
+    private abstract static class Chunk {
+
+        abstract Chunk add(char value);
+
+        abstract Chunk remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract int nextSetBit(int from);
+
+        abstract Chunk and(Chunk other);
+
+        abstract Chunk or(Chunk other);
+
+        abstract Chunk copy();
+    }
+
+    private static final class ArrayChunk extends Chunk {
+        private char[] values;
+        private int size;
+
+        private ArrayChunk() {
+            this(new char[4], 0);
+        }
+
+        private ArrayChunk(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        Chunk add(char value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (size == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+
+            index = -index - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, size * 2)));
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = value;
+            size++;
+            return this;
+        }
+
+        @Override
+        Chunk remove(char value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, size - index - 1);
+                size--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        int nextSetBit(int from) {
+            int index = Arrays.binarySearch(values, 0, size, (char) from);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return index < size ? values[index] : -1;
+        }
+
+        @Override
+        Chunk and(Chunk other) {
+            char[] result = new char[Math.min(size, other.cardinality())];
+            int count = 0;
+            if (other instanceof ArrayChunk) {
+                ArrayChunk array = (ArrayChunk) other;
+                int i = 0;
+                int j = 0;
+                while (i < size && j < array.size) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            return new ArrayChunk(result, count);
+        }
+
+        @Override
+        Chunk or(Chunk other) {
+            if (!(other instanceof ArrayChunk)) {
+                return other.or(this);
+            }
+
+            ArrayChunk array = (ArrayChunk) other;
+            char[] result = new char[size + array.size];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < size || j < array.size) {
+                if (j == array.size || (i < size && values[i] < array.values[j])) {
+                    result[count++] = values[i++];
+                } else if (i == size || values[i] > array.values[j]) {
+                    result[count++] = array.values[j++];
+                } else {
+                    result[count++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+
+            ArrayChunk union = new ArrayChunk(result, count);
+            return count > ARRAY_MAX ? union.toBitmap() : union;
+        }
+
+        @Override
+        Chunk copy() {
+            return new ArrayChunk(Arrays.copyOf(values, Math.max(1, size)), size);
+        }
+
+        private BitmapChunk toBitmap() {
+            BitmapChunk bitmap = new BitmapChunk();
+            for (int i = 0; i < size; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapChunk extends Chunk {
+        private final long[] words;
+        private int cardinality;
+
+        private BitmapChunk() {
+            this(new long[1024], 0);
+        }
+
+        private BitmapChunk(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Chunk add(char value) {
+            long mask = 1L << value;
+            if ((words[value >>> 6] & mask) == 0) {
+                words[value >>> 6] |= mask;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Chunk remove(char value) {
+            long mask = 1L << value;
+            if ((words[value >>> 6] & mask) == 0) {
+                return this;
+            }
+
+            words[value >>> 6] &= ~mask;
+            cardinality--;
+            return cardinality > ARRAY_MAX ? this : toArray();
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int nextSetBit(int from) {
+            int word = from >>> 6;
+            if (word >= words.length) {
+                return -1;
+            }
+
+            long bits = words[word] & (-1L << from);
+            while (true) {
+                if (bits != 0) {
+                    return word * 64 + Long.numberOfTrailingZeros(bits);
+                }
+                if (++word == words.length) {
+                    return -1;
+                }
+                bits = words[word];
+            }
+        }
+
+        @Override
+        Chunk and(Chunk other) {
+            if (other instanceof ArrayChunk) {
+                return other.and(this);
+            }
+
+            long[] result = new long[words.length];
+            int count = 0;
+            long[] otherWords = ((BitmapChunk) other).words;
+            for (int i = 0; i < words.length; i++) {
+                result[i] = words[i] & otherWords[i];
+                count += Long.bitCount(result[i]);
+            }
+
+            BitmapChunk intersection = new BitmapChunk(result, count);
+            return count > ARRAY_MAX ? intersection : intersection.toArray();
+        }
+
+        @Override
+        Chunk or(Chunk other) {
+            BitmapChunk union = (BitmapChunk) copy();
+            if (other instanceof ArrayChunk) {
+                ArrayChunk array = (ArrayChunk) other;
+                for (int i = 0; i < array.size; i++) {
+                    union.add(array.values[i]);
+                }
+                return union;
+            }
+
+            long[] otherWords = ((BitmapChunk) other).words;
+            union.cardinality = 0;
+            for (int i = 0; i < words.length; i++) {
+                union.words[i] |= otherWords[i];
+                union.cardinality += Long.bitCount(union.words[i]);
+            }
+            return union;
+        }
+
+        @Override
+        Chunk copy() {
+            return new BitmapChunk(words.clone(), cardinality);
+        }
+
+        private ArrayChunk toArray() {
+            char[] values = new char[Math.max(1, cardinality)];
+            int count = 0;
+            for (int i = 0; i < words.length; i++) {
+                long bits = words[i];
+                while (bits != 0) {
+                    values[count++] = (char) (i * 64 + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+            return new ArrayChunk(values, count);
+        }
+    }
+}
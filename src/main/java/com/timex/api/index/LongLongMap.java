@@ -0,0 +1,126 @@
+package com.timex.api.index;
+
+/**
+ * Open-addressing hash map from {@code long} keys to {@code long} values, kept in one interleaved array
+ * with linear probing and backward-shift deletion, so nothing is boxed and a lookup allocates nothing.
+ * Keys and values are entity ids: zero is never a valid key and {@link #MISSING} is returned for an
+ * absent key.
+ * Not thread-safe. A lookup that races a write may return a wrong value but never fails or loops, since
+ * the table is read through one array reference and stays at most half full; callers can therefore read
+ * optimistically and retry under a lock when the read was not valid.
+ */
+final class LongLongMap {
+
+    static final long MISSING = 0L;
+
+    private static final int MIN_CAPACITY = 16;
+
+    // Key at 2 * slot, value at 2 * slot + 1; a zero key marks an empty slot
+    private long[] table;
+    private int size;
+
+    LongLongMap() {
+        this(MIN_CAPACITY);
+    }
+
+    LongLongMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2L) {
+            capacity <<= 1;
+        }
+        this.table = new long[capacity * 2];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(long key) {
+        long[] slots = table;
+        int mask = (slots.length >> 1) - 1;
+        int slot = slot(key, mask);
+        for (int probes = 0; probes <= mask; probes++) {
+            long found = slots[slot << 1];
+            if (found == key) {
+                return slots[(slot << 1) + 1];
+            }
+            if (found == 0L) {
+                return MISSING;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    void put(long key, long value) {
+        if (key == 0L) {
+            throw new IllegalArgumentException("Key must not be zero");
+        }
+        if ((size + 1) * 2L > table.length >> 1) {
+            resize(table.length);
+        }
+
+        int mask = (table.length >> 1) - 1;
+        int slot = slot(key, mask);
+        while (true) {
+            long found = table[slot << 1];
+            if (found == key) {
+                table[(slot << 1) + 1] = value;
+                return;
+            }
+            if (found == 0L) {
+                table[(slot << 1) + 1] = value;
+                table[slot << 1] = key;
+                size++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    void remove(long key) {
+        int mask = (table.length >> 1) - 1;
+        int hole = slot(key, mask);
+        while (table[hole << 1] != key) {
+            if (table[hole << 1] == 0L) {
+                return;
+            }
+            hole = (hole + 1) & mask;
+        }
+
+        // Move later entries of the probe run into the hole unless that would put them before their home slot
+        for (int slot = (hole + 1) & mask; table[slot << 1] != 0L; slot = (slot + 1) & mask) {
+            int home = slot(table[slot << 1], mask);
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                table[hole << 1] = table[slot << 1];
+                table[(hole << 1) + 1] = table[(slot << 1) + 1];
+                hole = slot;
+            }
+        }
+        table[hole << 1] = 0L;
+        table[(hole << 1) + 1] = 0L;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        long[] old = table;
+        long[] resized = new long[capacity * 2];
+        int mask = capacity - 1;
+        for (int i = 0; i < old.length; i += 2) {
+            if (old[i] != 0L) {
+                int slot = slot(old[i], mask);
+                while (resized[slot << 1] != 0L) {
+                    slot = (slot + 1) & mask;
+                }
+                resized[slot << 1] = old[i];
+                resized[(slot << 1) + 1] = old[i + 1];
+            }
+        }
+        table = resized;
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,264 @@
+package com.timex.api.index;
+
+import com.timex.api.cache.InvalidationBus;
+import com.timex.api.cache.InvalidationKey;
+import com.timex.api.repository.ProjectRepository;
+import com.timex.api.repository.TaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * The owner of every project and the project of every task, held in two primitive {@link LongLongMap}s
+ * so an authorization check is a hash lookup instead of loading the project and its owner.
+ * Lookups are optimistic reads that only take the lock when they raced a write. Like the other indexes
+ * it is updated once the writing transaction commits and rebuilt at startup; {@link #UNKNOWN} is
+ * returned for ids it does not hold yet, which callers resolve with a query. Changes are published as
+ * {@link InvalidationKey.Kind#PROJECT_OWNER} and {@link InvalidationKey.Kind#TASK_ROW} keys, and the
+ * other instances re-read those ids, so a task moved on one instance is authorized by its new project
+ * everywhere.
+ */
+@Component
+@Slf4j
+public class ProjectOwnershipIndex {
+
+    public static final long UNKNOWN = LongLongMap.MISSING;
+
+    private static final int REBUILD_CHUNK_SIZE = 5000;
+
+    private final ProjectRepository projectRepository;
+    private final TaskRepository taskRepository;
+    private final InvalidationBus invalidationBus;
+    private final Counter hits;
+    private final Counter misses;
+
+    private volatile Maps current;
+    private volatile Maps next;
+
+    public ProjectOwnershipIndex(ProjectRepository projectRepository, TaskRepository taskRepository,
+            MeterRegistry meterRegistry, InvalidationBus invalidationBus) {
+        this.projectRepository = projectRepository;
+        this.taskRepository = taskRepository;
+        this.invalidationBus = invalidationBus;
+        this.hits = Counter.builder("timex.authz.ownership.lookups")
+                .tag("result", "hit")
+                .description("Ownership lookups by whether the index held the id")
+                .register(meterRegistry);
+        this.misses = Counter.builder("timex.authz.ownership.lookups")
+                .tag("result", "miss")
+                .description("Ownership lookups by whether the index held the id")
+                .register(meterRegistry);
+        Gauge.builder("timex.authz.ownership.entries", this, index -> index.size(true))
+                .tag("map", "projects")
+                .description("Ids in the ownership index")
+                .register(meterRegistry);
+        Gauge.builder("timex.authz.ownership.entries", this, index -> index.size(false))
+                .tag("map", "tasks")
+                .description("Ids in the ownership index")
+                .register(meterRegistry);
+
+        invalidationBus.subscribeRemote(this::changedElsewhere);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        Maps rebuilt = new Maps();
+
+        // Writes committed while loading go to both copies, so none can be missed
+        next = rebuilt;
+        Long afterId = 0L;
+        List<ProjectRepository.OwnerView> projects;
+        do {
+            projects = projectRepository.findOwnersAfter(afterId, PageRequest.of(0, REBUILD_CHUNK_SIZE));
+            rebuilt.putProjects(projects);
+            if (!projects.isEmpty()) {
+                afterId = projects.get(projects.size() - 1).getId();
+            }
+        } while (!projects.isEmpty());
+
+        afterId = 0L;
+        List<TaskRepository.TaskProjectView> tasks;
+        do {
+            tasks = taskRepository.findTaskProjectsAfter(afterId, PageRequest.of(0, REBUILD_CHUNK_SIZE));
+            rebuilt.putTasks(tasks);
+            if (!tasks.isEmpty()) {
+                afterId = tasks.get(tasks.size() - 1).getId();
+            }
+        } while (!tasks.isEmpty());
+
+        current = rebuilt;
+        next = null;
+
+        log.info("Rebuilt project ownership index with {} projects and {} tasks", rebuilt.size(true),
+                rebuilt.size(false));
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    /**
+     * Id of the user owning the project, or {@link #UNKNOWN}.
+     */
+    public long ownerOf(long projectId) {
+        return lookup(true, projectId);
+    }
+
+    /**
+     * Id of the project holding the task, or {@link #UNKNOWN}.
+     */
+    public long projectOf(long taskId) {
+        return lookup(false, taskId);
+    }
+
+    public void projectSaved(Long projectId, Long ownerId) {
+        apply(maps -> maps.projectOwners.put(projectId, ownerId));
+        invalidationBus.publish(List.of(InvalidationKey.of(InvalidationKey.Kind.PROJECT_OWNER, projectId)));
+    }
+
+    public void projectsRemoved(Collection<Long> projectIds) {
+        removeProjects(projectIds);
+        invalidationBus.publish(InvalidationKey.of(InvalidationKey.Kind.PROJECT_OWNER, projectIds));
+    }
+
+    public void taskSaved(Long taskId, Long projectId) {
+        apply(maps -> maps.taskProjects.put(taskId, projectId));
+        invalidationBus.publish(List.of(InvalidationKey.of(InvalidationKey.Kind.TASK_ROW, taskId)));
+    }
+
+    public void tasksSaved(Collection<Long> taskIds, Long projectId) {
+        List<Long> copy = new ArrayList<>(taskIds);
+        apply(maps -> copy.forEach(taskId -> maps.taskProjects.put(taskId, projectId)));
+        invalidationBus.publish(InvalidationKey.of(InvalidationKey.Kind.TASK_ROW, copy));
+    }
+
+    public void tasksRemoved(Collection<Long> taskIds) {
+        removeTasks(taskIds);
+        invalidationBus.publish(InvalidationKey.of(InvalidationKey.Kind.TASK_ROW, taskIds));
+    }
+
+    private long lookup(boolean projects, long id) {
+        Maps maps = current;
+        long value = maps == null ? UNKNOWN : maps.read(projects, id);
+        (value == UNKNOWN ? misses : hits).increment();
+        return value;
+    }
+
+    private int size(boolean projects) {
+        Maps maps = current;
+        return maps == null ? 0 : maps.size(projects);
+    }
+
+    private void removeProjects(Collection<Long> projectIds) {
+        List<Long> copy = new ArrayList<>(projectIds);
+        apply(maps -> copy.forEach(maps.projectOwners::remove));
+    }
+
+    private void removeTasks(Collection<Long> taskIds) {
+        List<Long> copy = new ArrayList<>(taskIds);
+        apply(maps -> copy.forEach(maps.taskProjects::remove));
+    }
+
+    /**
+     * Takes in the current owners and projects of ids written on another instance; those no longer found
+     * were removed.
+     */
+    private void changedElsewhere(List<InvalidationKey> keys) {
+        List<Long> projectIds = InvalidationKey.idsOf(InvalidationKey.Kind.PROJECT_OWNER, keys);
+        if (!projectIds.isEmpty()) {
+            List<ProjectRepository.OwnerView> projects = projectRepository.findOwnersByIdIn(projectIds);
+            Set<Long> removed = new HashSet<>(projectIds);
+            projects.forEach(project -> removed.remove(project.getId()));
+            apply(maps -> projects.forEach(project ->
+                    maps.projectOwners.put(project.getId(), project.getOwnerId())));
+            removeProjects(removed);
+        }
+
+        List<Long> taskIds = InvalidationKey.idsOf(InvalidationKey.Kind.TASK_ROW, keys);
+        if (!taskIds.isEmpty()) {
+            List<TaskRepository.TaskProjectView> tasks = taskRepository.findTaskProjectsByIdIn(taskIds);
+            Set<Long> removed = new HashSet<>(taskIds);
+            tasks.forEach(task -> removed.remove(task.getId()));
+            apply(maps -> tasks.forEach(task -> maps.taskProjects.put(task.getId(), task.getProjectId())));
+            removeTasks(removed);
+        }
+    }
+
+    private void apply(Consumer<Maps> change) {
+        AfterCommit.run(() -> {
+            Maps maps = current;
+            if (maps != null) {
+                maps.write(change);
+            }
+            Maps pending = next;
+            if (pending != null) {
+                pending.write(change);
+            }
+        });
+    }
+
+    private static final class Maps {
+        private final StampedLock lock = new StampedLock();
+        private final LongLongMap projectOwners = new LongLongMap();
+        private final LongLongMap taskProjects = new LongLongMap();
+
+        private long read(boolean projects, long id) {
+            LongLongMap map = projects ? projectOwners : taskProjects;
+            long stamp = lock.tryOptimisticRead();
+            long value = map.get(id);
+            if (lock.validate(stamp)) {
+                return value;
+            }
+
+            stamp = lock.readLock();
+            try {
+                return map.get(id);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void write(Consumer<Maps> change) {
+            long stamp = lock.writeLock();
+            try {
+                change.accept(this);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void putProjects(List<ProjectRepository.OwnerView> projects) {
+            write(maps -> projects.forEach(project -> projectOwners.put(project.getId(), project.getOwnerId())));
+        }
+
+        private void putTasks(List<TaskRepository.TaskProjectView> tasks) {
+            write(maps -> tasks.forEach(task -> taskProjects.put(task.getId(), task.getProjectId())));
+        }
+
+        private int size(boolean projects) {
+            long stamp = lock.readLock();
+            try {
+                return (projects ? projectOwners : taskProjects).size();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package com.timex.api.index;
+
+import com.timex.api.cache.InvalidationBus;
+import com.timex.api.cache.InvalidationKey;
+import com.timex.api.model.Task;
+import com.timex.api.repository.TaskRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory secondary index over the filterable attributes of the tasks in {@code tasks}. Every task
+ * gets a dense ordinal as it is first indexed, which is mostly id order, and each status, priority,
+ * due day, project and owner keeps a {@link CompressedBitmap} of the ordinals that have it, so any
+ * combination of filters is answered by intersecting bitmaps and only the page asked for is read from
+ * the database.
+ * The current attributes of each ordinal are kept in plain arrays, so a write clears exactly the bits
+ * it set before. Like {@link TaskSearchIndex} it is updated once the writing transaction commits and
+ * rebuilt at startup; ordinals of deleted tasks are only reclaimed by a rebuild. Every change is also
+ * published as {@link InvalidationKey.Kind#TASK_ROW} keys, and the other instances re-read those rows.
+ */
+@Component
+@Slf4j
+public class TaskFilterIndex {
+
+    private static final int REBUILD_CHUNK_SIZE = 5000;
+
+    private final TaskRepository taskRepository;
+    private final InvalidationBus invalidationBus;
+    private final Timer filterTimer;
+
+    private volatile Bitmaps current;
+    private volatile Bitmaps next;
+
+    public TaskFilterIndex(TaskRepository taskRepository, MeterRegistry meterRegistry,
+            InvalidationBus invalidationBus) {
+        this.taskRepository = taskRepository;
+        this.invalidationBus = invalidationBus;
+        this.filterTimer = Timer.builder("timex.tasks.filter.duration")
+                .description("Time spent intersecting the task filter bitmaps")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("timex.tasks.filter.tasks", this, TaskFilterIndex::size)
+                .description("Tasks in the filter index")
+                .register(meterRegistry);
+
+        invalidationBus.subscribeRemote(this::tasksChangedElsewhere);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        Bitmaps rebuilt = new Bitmaps();
+        rebuilt.startLoading();
+
+        // Writes committed while loading go to both copies, so none can be missed; a row read before such a
+        // write does not overwrite it
+        next = rebuilt;
+        Long afterId = 0L;
+        List<TaskRepository.FilterRowView> chunk;
+        do {
+            chunk = taskRepository.findFilterRowsAfter(afterId, PageRequest.of(0, REBUILD_CHUNK_SIZE));
+            for (TaskRepository.FilterRowView row : chunk) {
+                rebuilt.load(row);
+                afterId = row.getId();
+            }
+        } while (!chunk.isEmpty());
+
+        // A status change cannot be applied to a task not loaded yet, so those rows are read again
+        for (List<Long> missed = rebuilt.takeMissed(); !missed.isEmpty(); missed = rebuilt.takeMissed()) {
+            for (int from = 0; from < missed.size(); from += REBUILD_CHUNK_SIZE) {
+                List<Long> ids = missed.subList(from, Math.min(from + REBUILD_CHUNK_SIZE, missed.size()));
+                Set<Long> removed = new HashSet<>(ids);
+                for (TaskRepository.FilterRowView row : taskRepository.findFilterRowsByIdIn(ids)) {
+                    rebuilt.load(row);
+                    removed.remove(row.getId());
+                }
+                removed.forEach(rebuilt::loadRemoved);
+            }
+        }
+
+        current = rebuilt;
+        next = null;
+
+        log.info("Rebuilt task filter index with {} tasks", rebuilt.size());
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    public int size() {
+        Bitmaps bitmaps = current;
+        return bitmaps == null ? 0 : bitmaps.size();
+    }
+
+    /**
+     * The task must have its id and project set; only the id of the project owner is read.
+     */
+    public void taskSaved(Task task) {
+        Long taskId = task.getId();
+        Long projectId = task.getProject().getId();
+        Long ownerId = task.getProject().getUser().getId();
+        Task.Status status = task.getStatus();
+        Integer priority = task.getPriority();
+        LocalDateTime dueDate = task.getDueDate();
+        apply(bitmaps -> bitmaps.put(taskId, projectId, ownerId, status, priority, dueDate));
+        publish(Collections.singletonList(taskId));
+    }
+
+    public void tasksSaved(Collection<TaskRepository.FilterRowView> rows) {
+        put(rows);
+        publish(rows.stream().map(TaskRepository.FilterRowView::getId).collect(Collectors.toList()));
+    }
+
+    public void statusChanged(Long taskId, Task.Status status) {
+        statusChanged(Collections.singletonList(taskId), status);
+    }
+
+    public void statusChanged(Collection<Long> taskIds, Task.Status status) {
+        List<Long> copy = new ArrayList<>(taskIds);
+        apply(bitmaps -> copy.forEach(taskId -> bitmaps.changeStatus(taskId, status)));
+        publish(copy);
+    }
+
+    public void tasksRemoved(Collection<Long> taskIds) {
+        remove(taskIds);
+        publish(taskIds);
+    }
+
+    /**
+     * Ids of up to {@code limit} matching tasks after {@code afterId}, in id order. Every argument but the
+     * limit is optional; a null owner matches every owner. Returns {@code null} while the index is loading.
+     */
+    public List<Long> filter(Long ownerId, Long projectId, Task.Status status, Integer priority,
+            LocalDateTime dueFrom, LocalDateTime dueTo, Long afterId, int limit) {
+        Bitmaps bitmaps = current;
+        if (bitmaps == null) {
+            return null;
+        }
+        return filterTimer.record(() -> bitmaps.filter(ownerId, projectId, status, priority, dueFrom, dueTo,
+                afterId, limit));
+    }
+
+    private void put(Collection<TaskRepository.FilterRowView> rows) {
+        List<TaskRepository.FilterRowView> copy = new ArrayList<>(rows);
+        apply(bitmaps -> copy.forEach(row -> bitmaps.put(row.getId(), row.getProjectId(), row.getOwnerId(),
+                row.getStatus(), row.getPriority(), row.getDueDate())));
+    }
+
+    private void remove(Collection<Long> taskIds) {
+        List<Long> copy = new ArrayList<>(taskIds);
+        apply(bitmaps -> copy.forEach(bitmaps::remove));
+    }
+
+    private void publish(Collection<Long> taskIds) {
+        invalidationBus.publish(InvalidationKey.of(InvalidationKey.Kind.TASK_ROW, taskIds));
+    }
+
+    /**
+     * Takes in the current rows of tasks written on another instance; those no longer found were removed.
+     */
+    private void tasksChangedElsewhere(List<InvalidationKey> keys) {
+        List<Long> taskIds = InvalidationKey.idsOf(InvalidationKey.Kind.TASK_ROW, keys);
+        if (taskIds.isEmpty()) {
+            return;
+        }
+
+        List<TaskRepository.FilterRowView> rows = taskRepository.findFilterRowsByIdIn(taskIds);
+        Set<Long> removed = new HashSet<>(taskIds);
+        rows.forEach(row -> removed.remove(row.getId()));
+        put(rows);
+        remove(removed);
+    }
+
+    private void apply(Consumer<Bitmaps> change) {
+        AfterCommit.run(() -> {
+            Bitmaps bitmaps = current;
+            if (bitmaps != null) {
+                change.accept(bitmaps);
+            }
+            Bitmaps pending = next;
+            if (pending != null) {
+                change.accept(pending);
+            }
+        });
+    }
+
+    private static long day(LocalDateTime dateTime) {
+        return dateTime.toLocalDate().toEpochDay();
+    }
+
+    private static final class Bitmaps {
+        private static final byte NO_STATUS = -1;
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+
+        // Columns by ordinal; maxIds holds the highest id up to each ordinal, which never decreases
+        private long[] taskIds = new long[1024];
+        private long[] maxIds = new long[1024];
+        private long[] projectIds = new long[1024];
+        private long[] ownerIds = new long[1024];
+        private byte[] statuses = new byte[1024];
+        private int[] priorities = new int[1024];
+        private LocalDateTime[] dueDates = new LocalDateTime[1024];
+        private int ordinalCount;
+
+        // Only while the copy is rebuilt: tasks a write set, changed or removed, which rows read by the rebuild
+        // must not overwrite, and tasks whose status changed before their row was loaded
+        private Set<Long> written;
+        private Set<Long> missed;
+
+        private final CompressedBitmap live = new CompressedBitmap();
+        private final CompressedBitmap late = new CompressedBitmap();
+        private final CompressedBitmap[] byStatus = new CompressedBitmap[Task.Status.values().length];
+        private final Map<Integer, CompressedBitmap> byPriority = new HashMap<>();
+        private final Map<Long, CompressedBitmap> byProject = new HashMap<>();
+        private final Map<Long, CompressedBitmap> byOwner = new HashMap<>();
+        private final NavigableMap<Long, CompressedBitmap> byDueDay = new TreeMap<>();
+
+        private Bitmaps() {
+            for (int i = 0; i < byStatus.length; i++) {
+                byStatus[i] = new CompressedBitmap();
+            }
+        }
+
+        private int size() {
+            lock.readLock().lock();
+            try {
+                return live.cardinality();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void startLoading() {
+            written = new HashSet<>();
+            missed = new HashSet<>();
+        }
+
+        /**
+         * The tasks whose status changed before their row was loaded, to be read again. Once there are none
+         * left the copy is loaded and takes every write as it comes.
+         */
+        private List<Long> takeMissed() {
+            lock.writeLock().lock();
+            try {
+                List<Long> taken = new ArrayList<>(missed);
+                if (taken.isEmpty()) {
+                    written = null;
+                    missed = null;
+                } else {
+                    written = new HashSet<>();
+                    missed = new HashSet<>();
+                }
+                return taken;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void load(TaskRepository.FilterRowView row) {
+            lock.writeLock().lock();
+            try {
+                if (!written.contains(row.getId())) {
+                    store(row.getId(), row.getProjectId(), row.getOwnerId(), row.getStatus(), row.getPriority(),
+                            row.getDueDate());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void loadRemoved(Long taskId) {
+            lock.writeLock().lock();
+            try {
+                if (!written.contains(taskId)) {
+                    clearIfLive(taskId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void put(Long taskId, Long projectId, Long ownerId, Task.Status status, Integer priority,
+                LocalDateTime dueDate) {
+            lock.writeLock().lock();
+            try {
+                if (written != null) {
+                    written.add(taskId);
+                }
+                store(taskId, projectId, ownerId, status, priority, dueDate);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void changeStatus(Long taskId, Task.Status status) {
+            lock.writeLock().lock();
+            try {
+                if (written != null) {
+                    written.add(taskId);
+                }
+                Integer ordinal = ordinals.get(taskId);
+                if (ordinal == null || !live.contains(ordinal)) {
+                    if (missed != null) {
+                        missed.add(taskId);
+                    }
+                    return;
+                }
+                if (statuses[ordinal] != NO_STATUS) {
+                    byStatus[statuses[ordinal]].remove(ordinal);
+                }
+                statuses[ordinal] = (byte) status.ordinal();
+                byStatus[statuses[ordinal]].add(ordinal);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void remove(Long taskId) {
+            lock.writeLock().lock();
+            try {
+                if (written != null) {
+                    written.add(taskId);
+                }
+                clearIfLive(taskId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private List<Long> filter(Long ownerId, Long projectId, Task.Status status, Integer priority,
+                LocalDateTime dueFrom, LocalDateTime dueTo, Long afterId, int limit) {
+            lock.readLock().lock();
+            try {
+                List<CompressedBitmap> filters = new ArrayList<>();
+                if (ownerId != null) {
+                    filters.add(byOwner.get(ownerId));
+                }
+                if (projectId != null) {
+                    filters.add(byProject.get(projectId));
+                }
+                if (status != null) {
+                    filters.add(byStatus[status.ordinal()]);
+                }
+                if (priority != null) {
+                    filters.add(byPriority.get(priority));
+                }
+                if (dueFrom != null || dueTo != null) {
+                    filters.add(dueWindow(dueFrom, dueTo));
+                }
+                if (filters.contains(null)) {
+                    return new ArrayList<>();
+                }
+
+                // Smallest first, so every intersection is at most as large as the rarest attribute
+                filters.sort(Comparator.comparingInt(CompressedBitmap::cardinality));
+                CompressedBitmap matches = filters.isEmpty() ? live : filters.get(0);
+                for (int i = 1; i < filters.size() && !matches.isEmpty(); i++) {
+                    matches = matches.and(filters.get(i));
+                }
+
+                long after = afterId != null ? afterId : Long.MIN_VALUE;
+                List<Long> ids = new ArrayList<>(Math.min(limit, 1024));
+                for (int ordinal = matches.nextSetBit(firstOrdinalAfter(after));
+                        ordinal >= 0 && ids.size() < limit; ordinal = matches.nextSetBit(ordinal + 1)) {
+                    if ((late.isEmpty() || !late.contains(ordinal)) && isDue(ordinal, dueFrom, dueTo)) {
+                        ids.add(taskIds[ordinal]);
+                    }
+                }
+                if (late.isEmpty()) {
+                    return ids;
+                }
+
+                // Tasks committed after a task with a higher id sit out of order; there are few, so they
+                // are all checked and merged in
+                CompressedBitmap lateMatches = matches.and(late);
+                for (int ordinal = lateMatches.nextSetBit(0); ordinal >= 0;
+                        ordinal = lateMatches.nextSetBit(ordinal + 1)) {
+                    if (taskIds[ordinal] > after && isDue(ordinal, dueFrom, dueTo)) {
+                        ids.add(taskIds[ordinal]);
+                    }
+                }
+                Collections.sort(ids);
+                return ids.size() > limit ? new ArrayList<>(ids.subList(0, limit)) : ids;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private CompressedBitmap dueWindow(LocalDateTime dueFrom, LocalDateTime dueTo) {
+            CompressedBitmap window = new CompressedBitmap();
+            long fromDay = dueFrom != null ? day(dueFrom) : Long.MIN_VALUE;
+            long toDay = dueTo != null ? day(dueTo) : Long.MAX_VALUE;
+            if (fromDay > toDay) {
+                return window;
+            }
+
+            NavigableMap<Long, CompressedBitmap> days = byDueDay.subMap(fromDay, true, toDay, true);
+            for (CompressedBitmap day : days.values()) {
+                window = window.or(day);
+            }
+            return window;
+        }
+
+        /**
+         * Day buckets at the edges of the window also hold tasks just outside it.
+         */
+        private boolean isDue(int ordinal, LocalDateTime dueFrom, LocalDateTime dueTo) {
+            LocalDateTime dueDate = dueDates[ordinal];
+            return (dueFrom == null || !dueDate.isBefore(dueFrom)) && (dueTo == null || dueDate.isBefore(dueTo));
+        }
+
+        /**
+         * The first ordinal whose running maximum id is above {@code afterId}; every in-order ordinal
+         * before it has a lower id.
+         */
+        private int firstOrdinalAfter(long afterId) {
+            int low = 0;
+            int high = ordinalCount;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (maxIds[middle] <= afterId) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private void store(Long taskId, Long projectId, Long ownerId, Task.Status status, Integer priority,
+                LocalDateTime dueDate) {
+            Integer existing = ordinals.get(taskId);
+            int ordinal = existing != null ? existing : newOrdinal(taskId);
+            if (existing != null && live.contains(ordinal)) {
+                clear(ordinal);
+            }
+
+            projectIds[ordinal] = projectId;
+            ownerIds[ordinal] = ownerId;
+            statuses[ordinal] = status != null ? (byte) status.ordinal() : NO_STATUS;
+            priorities[ordinal] = priority != null ? priority : 0;
+            dueDates[ordinal] = dueDate;
+            set(ordinal);
+        }
+
+        private void clearIfLive(Long taskId) {
+            Integer ordinal = ordinals.get(taskId);
+            if (ordinal != null && live.contains(ordinal)) {
+                clear(ordinal);
+            }
+        }
+
+        private int newOrdinal(Long taskId) {
+            if (ordinalCount == taskIds.length) {
+                int capacity = ordinalCount * 2;
+                taskIds = Arrays.copyOf(taskIds, capacity);
+                maxIds = Arrays.copyOf(maxIds, capacity);
+                projectIds = Arrays.copyOf(projectIds, capacity);
+                ownerIds = Arrays.copyOf(ownerIds, capacity);
+                statuses = Arrays.copyOf(statuses, capacity);
+                priorities = Arrays.copyOf(priorities, capacity);
+                dueDates = Arrays.copyOf(dueDates, capacity);
+            }
+            taskIds[ordinalCount] = taskId;
+            maxIds[ordinalCount] = ordinalCount == 0 ? taskId : Math.max(taskId, maxIds[ordinalCount - 1]);
+            if (maxIds[ordinalCount] != taskId) {
+                late.add(ordinalCount);
+            }
+            ordinals.put(taskId, ordinalCount);
+            return ordinalCount++;
+        }
+
+        private void set(int ordinal) {
+            live.add(ordinal);
+            if (statuses[ordinal] != NO_STATUS) {
+                byStatus[statuses[ordinal]].add(ordinal);
+            }
+            byPriority.computeIfAbsent(priorities[ordinal], key -> new CompressedBitmap()).add(ordinal);
+            byProject.computeIfAbsent(projectIds[ordinal], key -> new CompressedBitmap()).add(ordinal);
+            byOwner.computeIfAbsent(ownerIds[ordinal], key -> new CompressedBitmap()).add(ordinal);
+            if (dueDates[ordinal] != null) {
+                byDueDay.computeIfAbsent(day(dueDates[ordinal]), key -> new CompressedBitmap()).add(ordinal);
+            }
+        }
+
+        private void clear(int ordinal) {
+            live.remove(ordinal);
+            if (statuses[ordinal] != NO_STATUS) {
+                byStatus[statuses[ordinal]].remove(ordinal);
+            }
+            clear(byPriority, priorities[ordinal], ordinal);
+            clear(byProject, projectIds[ordinal], ordinal);
+            clear(byOwner, ownerIds[ordinal], ordinal);
+            if (dueDates[ordinal] != null) {
+                clear(byDueDay, day(dueDates[ordinal]), ordinal);
+            }
+        }
+
+        private static <K> void clear(Map<K, CompressedBitmap> bitmaps, K key, int ordinal) {
+            CompressedBitmap bitmap = bitmaps.get(key);
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package com.timex.api.index;
+
+import com.timex.api.cache.InvalidationBus;
+import com.timex.api.cache.InvalidationKey;
+import com.timex.api.model.Task;
+import com.timex.api.repository.TaskRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over the titles and descriptions of the tasks in {@code tasks}, with one
+ * shard of posting lists per project owner so a search only reads the caller's postings. Terms are
+ * kept sorted, so a query token also matches the terms it is a prefix of, at a lower weight than an
+ * exact match. Every token of a query must match; hits are ranked by tf-idf with title terms
+ * counting double.
+ * Service writes update the index once their transaction commits; it is rebuilt from the database at
+ * startup and answers nothing until then. Writes are published as {@link InvalidationKey.Kind#TASK_ROW}
+ * keys, and the other instances re-read the text of those tasks.
+ */
+@Component
+@Slf4j
+public class TaskSearchIndex {
+
+    private static final int REBUILD_CHUNK_SIZE = 5000;
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int MAX_TOKEN_LENGTH = 40;
+    private static final float TITLE_WEIGHT = 2f;
+    private static final float PREFIX_WEIGHT = 0.5f;
+
+    private final TaskRepository taskRepository;
+    private final InvalidationBus invalidationBus;
+    private final Timer searchTimer;
+
+    private volatile Shards current;
+    private volatile Shards next;
+
+    public TaskSearchIndex(TaskRepository taskRepository, MeterRegistry meterRegistry,
+            InvalidationBus invalidationBus) {
+        this.taskRepository = taskRepository;
+        this.invalidationBus = invalidationBus;
+        this.searchTimer = Timer.builder("timex.tasks.search.duration")
+                .description("Time spent searching the task index")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("timex.tasks.search.documents", this, TaskSearchIndex::size)
+                .description("Tasks in the search index")
+                .register(meterRegistry);
+
+        invalidationBus.subscribeRemote(this::tasksChangedElsewhere);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        Shards rebuilt = new Shards();
+        rebuilt.startLoading();
+
+        // Writes committed while loading go to both copies, so none can be missed; a document read before such
+        // a write does not overwrite it
+        next = rebuilt;
+        Long afterId = 0L;
+        List<TaskRepository.SearchDocumentView> chunk;
+        do {
+            chunk = taskRepository.findSearchDocumentsAfter(afterId, PageRequest.of(0, REBUILD_CHUNK_SIZE));
+            for (TaskRepository.SearchDocumentView task : chunk) {
+                rebuilt.load(task.getId(), Document.of(task.getOwnerId(), task.getTitle(), task.getDescription()));
+                afterId = task.getId();
+            }
+        } while (!chunk.isEmpty());
+        rebuilt.loaded();
+
+        current = rebuilt;
+        next = null;
+
+        log.info("Rebuilt task search index with {} tasks", rebuilt.documents.size());
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    public int size() {
+        Shards shards = current;
+        return shards == null ? 0 : shards.documents.size();
+    }
+
+    /**
+     * The task must have its id and project set; only the id of the project owner is read.
+     */
+    public void taskSaved(Task task) {
+        Document document = Document.of(task.getProject().getUser().getId(), task.getTitle(),
+                task.getDescription());
+        Long taskId = task.getId();
+        apply(shards -> shards.put(taskId, document));
+        publish(Collections.singletonList(taskId));
+    }
+
+    public void tasksSaved(Collection<TaskRepository.SearchDocumentView> tasks) {
+        put(tasks);
+        publish(tasks.stream().map(TaskRepository.SearchDocumentView::getId).collect(Collectors.toList()));
+    }
+
+    public void tasksRemoved(Collection<Long> taskIds) {
+        remove(taskIds);
+        publish(taskIds);
+    }
+
+    /**
+     * Ids of the best matching tasks of the owner, best first. Returns {@code null} while the index is
+     * still loading.
+     */
+    public List<Long> search(Long ownerId, String query, int limit) {
+        Shards shards = current;
+        if (shards == null) {
+            return null;
+        }
+
+        List<String> tokens = new ArrayList<>(tokenize(query).keySet());
+        Shard shard = shards.byOwner.get(ownerId);
+        if (tokens.isEmpty() || shard == null) {
+            return new ArrayList<>();
+        }
+
+        // Longer tokens match fewer terms, so they narrow the candidates first
+        tokens.sort(Comparator.comparingInt(String::length).reversed());
+        return searchTimer.record(() -> shard.search(tokens, limit));
+    }
+
+    /**
+     * Lower-cased runs of letters and digits with the number of times each occurs, in order of first
+     * occurrence. Shorter runs are skipped and longer ones truncated.
+     */
+    static Map<String, Integer> tokenize(String text) {
+        Map<String, Integer> tokens = new LinkedHashMap<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                if (i - start >= MIN_TOKEN_LENGTH) {
+                    String token = text.substring(start, Math.min(i, start + MAX_TOKEN_LENGTH))
+                            .toLowerCase(Locale.ROOT);
+                    tokens.merge(token, 1, Integer::sum);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private void put(Collection<TaskRepository.SearchDocumentView> tasks) {
+        List<TaskRepository.SearchDocumentView> copy = new ArrayList<>(tasks);
+        apply(shards -> copy.forEach(task -> shards.put(task.getId(),
+                Document.of(task.getOwnerId(), task.getTitle(), task.getDescription()))));
+    }
+
+    private void remove(Collection<Long> taskIds) {
+        List<Long> copy = new ArrayList<>(taskIds);
+        apply(shards -> copy.forEach(shards::remove));
+    }
+
+    private void publish(Collection<Long> taskIds) {
+        invalidationBus.publish(InvalidationKey.of(InvalidationKey.Kind.TASK_ROW, taskIds));
+    }
+
+    /**
+     * Takes in the current text of tasks written on another instance; those no longer found were removed.
+     */
+    private void tasksChangedElsewhere(List<InvalidationKey> keys) {
+        List<Long> taskIds = InvalidationKey.idsOf(InvalidationKey.Kind.TASK_ROW, keys);
+        if (taskIds.isEmpty()) {
+            return;
+        }
+
+        List<TaskRepository.SearchDocumentView> tasks = taskRepository.findSearchDocumentsByIdIn(taskIds);
+        Set<Long> removed = new HashSet<>(taskIds);
+        tasks.forEach(task -> removed.remove(task.getId()));
+        put(tasks);
+        remove(removed);
+    }
+
+    private void apply(Consumer<Shards> change) {
+        Runnable update = () -> {
+            Shards shards = current;
+            if (shards != null) {
+                change.accept(shards);
+            }
+            Shards pending = next;
+            if (pending != null) {
+                change.accept(pending);
+            }
+        };
+
+        AfterCommit.run(update);
+    }
+
+    /**
+     * The indexed terms of one task with their weights, kept to remove its postings later.
+     */
+    private static final class Document {
+        private final long ownerId;
+        private final String[] terms;
+        private final float[] weights;
+
+        private Document(long ownerId, String[] terms, float[] weights) {
+            this.ownerId = ownerId;
+            this.terms = terms;
+            this.weights = weights;
+        }
+
+        private static Document of(Long ownerId, String title, String description) {
+            Map<String, Float> weights = new LinkedHashMap<>();
+            tokenize(title).forEach((term, count) -> weights.merge(term, count * TITLE_WEIGHT, Float::sum));
+            tokenize(description).forEach((term, count) -> weights.merge(term, (float) count, Float::sum));
+
+            String[] terms = new String[weights.size()];
+            float[] termWeights = new float[weights.size()];
+            int i = 0;
+            for (Map.Entry<String, Float> entry : weights.entrySet()) {
+                terms[i] = entry.getKey();
+                termWeights[i++] = entry.getValue();
+            }
+            return new Document(ownerId, terms, termWeights);
+        }
+    }
+
+    private static final class Shards {
+        private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+        private final Map<Long, Shard> byOwner = new ConcurrentHashMap<>();
+
+        // Only while the copy is rebuilt: tasks a write put or removed, which documents read by the rebuild
+        // must not overwrite
+        private Set<Long> written;
+
+        private synchronized void startLoading() {
+            written = new HashSet<>();
+        }
+
+        private synchronized void load(Long taskId, Document document) {
+            if (!written.contains(taskId)) {
+                store(taskId, document);
+            }
+        }
+
+        private synchronized void loaded() {
+            written = null;
+        }
+
+        private synchronized void put(Long taskId, Document document) {
+            if (written != null) {
+                written.add(taskId);
+            }
+            store(taskId, document);
+        }
+
+        private synchronized void remove(Long taskId) {
+            if (written != null) {
+                written.add(taskId);
+            }
+            Document previous = documents.remove(taskId);
+            if (previous != null) {
+                byOwner.get(previous.ownerId).remove(taskId, previous);
+            }
+        }
+
+        private void store(Long taskId, Document document) {
+            Document previous = documents.put(taskId, document);
+            if (previous != null) {
+                byOwner.get(previous.ownerId).remove(taskId, previous);
+            }
+            byOwner.computeIfAbsent(document.ownerId, ownerId -> new Shard()).add(taskId, document);
+        }
+    }
+
+    /**
+     * Sorted terms of one owner's tasks with their posting lists. Searches share the read lock.
+     */
+    private static final class Shard {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final NavigableMap<String, Postings> postings = new TreeMap<>();
+        private int documentCount;
+
+        private void add(long taskId, Document document) {
+            lock.writeLock().lock();
+            try {
+                for (int i = 0; i < document.terms.length; i++) {
+                    postings.computeIfAbsent(document.terms[i], term -> new Postings())
+                            .add(taskId, document.weights[i]);
+                }
+                documentCount++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void remove(long taskId, Document document) {
+            lock.writeLock().lock();
+            try {
+                for (String term : document.terms) {
+                    Postings list = postings.get(term);
+                    if (list != null && list.remove(taskId) && list.size == 0) {
+                        postings.remove(term);
+                    }
+                }
+                documentCount--;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private List<Long> search(List<String> tokens, int limit) {
+            lock.readLock().lock();
+            try {
+                Map<Long, Float> scores = null;
+                for (String token : tokens) {
+                    Map<Long, Float> tokenScores = new HashMap<>();
+                    for (Map.Entry<String, Postings> entry
+                            : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+                        Postings list = entry.getValue();
+                        float boost = entry.getKey().length() == token.length() ? 1f : PREFIX_WEIGHT;
+                        float idf = (float) Math.log(1 + (double) documentCount / list.size);
+                        for (int i = 0; i < list.size; i++) {
+                            if (scores == null || scores.containsKey(list.ids[i])) {
+                                tokenScores.merge(list.ids[i], list.weights[i] * idf * boost, Float::sum);
+                            }
+                        }
+                    }
+                    if (scores != null) {
+                        Map<Long, Float> previous = scores;
+                        tokenScores.replaceAll((taskId, score) -> score + previous.get(taskId));
+                    }
+                    scores = tokenScores;
+                    if (scores.isEmpty()) {
+                        break;
+                    }
+                }
+                return top(scores, limit);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static List<Long> top(Map<Long, Float> scores, int limit) {
+            // Best hits first; equal scores fall back to the oldest task
+            Comparator<Map.Entry<Long, Float>> ranking = Map.Entry.<Long, Float>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey());
+            PriorityQueue<Map.Entry<Long, Float>> best = new PriorityQueue<>(ranking.reversed());
+            for (Map.Entry<Long, Float> hit : scores.entrySet()) {
+                best.offer(hit);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+
+            List<Map.Entry<Long, Float>> hits = new ArrayList<>(best);
+            hits.sort(ranking);
+            List<Long> ids = new ArrayList<>(hits.size());
+            hits.forEach(hit -> ids.add(hit.getKey()));
+            return ids;
+        }
+    }
+
+    /**
+     * Task ids in ascending order with their weights in parallel arrays, which costs far less memory than a
+     * map. Ids mostly arrive in order, so adding is usually an append; both ends find their slot by binary
+     * search.
+     */
+    private static final class Postings {
+        private long[] ids = new long[1];
+        private float[] weights = new float[1];
+        private int size;
+
+        private void add(long taskId, float weight) {
+            int index = Arrays.binarySearch(ids, 0, size, taskId);
+            if (index >= 0) {
+                weights[index] = weight;
+                return;
+            }
+
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(weights, index, weights, index + 1, size - index);
+            ids[index] = taskId;
+            weights[index] = weight;
+            size++;
+        }
+
+        private boolean remove(long taskId) {
+            int index = Arrays.binarySearch(ids, 0, size, taskId);
+            if (index < 0) {
+                return false;
+            }
+
+            size--;
+            System.arraycopy(ids, index + 1, ids, index, size - index);
+            System.arraycopy(weights, index + 1, weights, index, size - index);
+            return true;
+        }
+    }
+}
@@ -17,11 +17,15 @@ public interface ProjectMapper {
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "user", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "tasks", ignore = true)
     Project toEntity(ProjectDto.Request projectDto);
 
     @Mapping(target = "userId", source = "user.id")
     @Mapping(target = "userName", source = "user.username")
+    @Mapping(target = "taskCount", ignore = true)
+    @Mapping(target = "openCount", ignore = true)
+    @Mapping(target = "overdueCount", ignore = true)
     ProjectDto.Response toDto(Project project);
 
     @Mapping(target = "userId", source = "user.id")
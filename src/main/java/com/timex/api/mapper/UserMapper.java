@@ -2,9 +2,13 @@ package com.timex.api.mapper;
 
 import com.timex.api.dto.UserDto;
 import com.timex.api.model.User;
+import com.timex.api.security.service.UserDetailsImpl;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.stream.Collectors;
 
 @Mapper(componentModel = "spring")
 public interface UserMapper {
@@ -15,4 +19,17 @@ public interface UserMapper {
 
     @Mapping(target = "roles", source = "roles")
     UserDto.Response toDto(User user);
+
+    default UserDto.Response toDto(UserDetailsImpl userDetails) {
+        return UserDto.Response.builder()
+                .id(userDetails.getId())
+                .username(userDetails.getUsername())
+                .fullName(userDetails.getFullName())
+                .email(userDetails.getEmail())
+                .roles(userDetails.getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .map(User.Role::valueOf)
+                        .collect(Collectors.toSet()))
+                .build();
+    }
 }
\ No newline at end of file
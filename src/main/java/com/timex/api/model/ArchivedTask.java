@@ -0,0 +1,66 @@
+package com.timex.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A completed task moved out of {@code tasks} by the archiver. Rows are only ever inserted by the
+ * archiver and read back, never updated.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "tasks_archive", indexes = {
+        @Index(name = "idx_tasks_archive_project_id_created_at", columnList = "project_id, created_at, id")
+})
+public class ArchivedTask {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(length = 1000)
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Task.Status status;
+
+    @Column(nullable = false)
+    private Integer priority;
+
+    @Column(name = "estimated_hours")
+    private Double estimatedHours;
+
+    @Column(name = "actual_hours")
+    private Double actualHours;
+
+    @Column(name = "due_date")
+    private LocalDateTime dueDate;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "project_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Project project;
+}
@@ -0,0 +1,42 @@
+package com.timex.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A batch of cache invalidation keys sent by one instance through
+ * {@link com.timex.api.cache.JdbcInvalidationTransport}. Rows are inserted and read back, never updated.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "cache_invalidations", indexes = {
+        @Index(name = "idx_cache_invalidations_created_at", columnList = "created_at")
+})
+public class CacheInvalidation {
+
+    public static final int MAX_KEYS_LENGTH = 8000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The node id of the sending instance, which skips its own rows.
+     */
+    @Column(nullable = false, length = 64)
+    private String sender;
+
+    @Column(name = "invalidation_keys", nullable = false, length = MAX_KEYS_LENGTH)
+    private String keys;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
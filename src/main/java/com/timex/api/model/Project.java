@@ -3,7 +3,10 @@ package com.timex.api.model;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.OptimisticLock;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -15,7 +18,15 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "projects")
+@NamedEntityGraph(name = "Project.detail", attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("tasks")
+})
+@Table(name = "projects", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_projects_user_id_name", columnNames = { "user_id", "name" })
+}, indexes = {
+        @Index(name = "idx_projects_user_id_created_at", columnList = "user_id, created_at, id")
+})
 public class Project {
 
     @Id
@@ -34,12 +45,25 @@ public class Project {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * Optimistic lock, sent to clients as the ETag of the project.
+     */
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private User user;
 
+    // Tasks carry their own version; adding or removing one does not conflict with edits of the project
     @OneToMany(mappedBy = "project", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OptimisticLock(excluded = true)
     @Builder.Default
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<Task> tasks = new HashSet<>();
 
     @PrePersist
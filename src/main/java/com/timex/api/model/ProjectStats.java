@@ -0,0 +1,50 @@
+package com.timex.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * Running totals of the tasks (hot and archived) of one project in one status. Rows are changed
+ * with relative updates by {@link com.timex.api.stats.ProjectStatistics} and never read-modify-written.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(ProjectStats.Key.class)
+@Table(name = "project_stats")
+public class ProjectStats {
+
+    @Id
+    @Column(name = "project_id")
+    private Long projectId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private Task.Status status;
+
+    @Column(name = "task_count", nullable = false)
+    private long taskCount;
+
+    @Column(name = "estimated_hours", nullable = false)
+    private double estimatedHours;
+
+    @Column(name = "actual_hours", nullable = false)
+    private double actualHours;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long projectId;
+        private Task.Status status;
+    }
+}
@@ -3,7 +3,10 @@ package com.timex.api.model;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -13,11 +16,28 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "tasks")
+@DynamicUpdate
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_project_id_created_at", columnList = "project_id, created_at, id"),
+        @Index(name = "idx_tasks_project_id_status", columnList = "project_id, status, created_at, id"),
+        @Index(name = "idx_tasks_project_id_due_date", columnList = "project_id, due_date, id"),
+        @Index(name = "idx_tasks_project_id_priority", columnList = "project_id, priority, due_date, id"),
+        @Index(name = "idx_tasks_project_id_updated_at", columnList = "project_id, updated_at, id"),
+        @Index(name = "idx_tasks_due_date", columnList = "due_date, id"),
+        @Index(name = "idx_tasks_status_updated_at", columnList = "status, updated_at")
+})
 public class Task {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * Allocated from a sequence in blocks of {@value #ID_ALLOCATION_SIZE} (pooled optimizer), so inserts
+     * can be sent as JDBC batches. An IDENTITY column would force one round trip per insert. The sequence
+     * increment must match, so changing the block size takes a new migration.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = Task.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -45,11 +65,21 @@ public class Task {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
-    @Column(name = "updated_at")
+    @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    /**
+     * Optimistic lock, sent to clients as the ETag of the task. The set-based updates of
+     * {@link com.timex.api.repository.TaskRepository} bypass Hibernate and increment it themselves.
+     */
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "project_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Project project;
 
     @PrePersist
@@ -0,0 +1,21 @@
+package com.timex.api.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position after the last row of a page: the row's sort key and its id as tie-breaker.
+ */
+@Getter
+@AllArgsConstructor
+public class Cursor {
+
+    private final String sortKey;
+    private final Long id;
+
+    public LocalDateTime getSortKeyAsDateTime() {
+        return LocalDateTime.parse(sortKey);
+    }
+}
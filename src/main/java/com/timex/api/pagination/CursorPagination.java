@@ -0,0 +1,114 @@
+package com.timex.api.pagination;
+
+import com.timex.api.exception.ApiException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Issues and checks the opaque cursors of list endpoints. A cursor is the sort key and id of the
+ * last row of a page, signed together with the scope of the list it belongs to, so it cannot be
+ * forged or replayed against a different list.
+ */
+@Component
+public class CursorPagination {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_LENGTH = 16;
+
+    private final SecretKeySpec signingKey;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public CursorPagination(
+            @Value("${app.pagination.cursor-secret}") String cursorSecret,
+            @Value("${app.pagination.default-limit:50}") int defaultLimit,
+            @Value("${app.pagination.max-limit:500}") int maxLimit) {
+        this.signingKey = new SecretKeySpec(cursorSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    public int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return defaultLimit;
+        }
+        if (limit < 1) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Page limit must be at least 1");
+        }
+        return Math.min(limit, maxLimit);
+    }
+
+    /**
+     * Fetches one row more than the page size, so the presence of a next page is known without counting.
+     */
+    public Pageable fetchWindow(int limit) {
+        return PageRequest.of(0, limit + 1);
+    }
+
+    public Cursor decode(String scope, String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+
+        try {
+            int separator = cursor.indexOf('.');
+            String payload = new String(Base64.getUrlDecoder().decode(cursor.substring(0, separator)),
+                    StandardCharsets.UTF_8);
+            byte[] signature = Base64.getUrlDecoder().decode(cursor.substring(separator + 1));
+
+            if (!MessageDigest.isEqual(signature, sign(scope, payload))) {
+                throw new ApiException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+
+            int keyEnd = payload.lastIndexOf('|');
+            return new Cursor(payload.substring(0, keyEnd), Long.parseLong(payload.substring(keyEnd + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    public String encode(String scope, Object sortKey, Long id) {
+        String payload = sortKey + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+                + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(sign(scope, payload));
+    }
+
+    /**
+     * Builds a page from rows fetched with {@link #fetchWindow(int)}, dropping the extra row and
+     * pointing the next cursor at the last row kept.
+     */
+    public <T> CursorPage<T> page(List<T> rows, int limit, String scope,
+            Function<T, Object> sortKey, Function<T, Long> id) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+
+        List<T> items = rows.subList(0, limit);
+        T last = items.get(limit - 1);
+        return new CursorPage<>(items, encode(scope, sortKey.apply(last), id.apply(last)));
+    }
+
+    private byte[] sign(String scope, String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            byte[] digest = mac.doFinal((scope + "|" + payload).getBytes(StandardCharsets.UTF_8));
+            return Arrays.copyOf(digest, SIGNATURE_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign pagination cursor", e);
+        }
+    }
+}
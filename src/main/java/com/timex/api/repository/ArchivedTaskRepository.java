@@ -0,0 +1,67 @@
+package com.timex.api.repository;
+
+import com.timex.api.dto.TaskDto;
+import com.timex.api.model.ArchivedTask;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, Long> {
+
+    /**
+     * Same response shape as {@link TaskRepository#SELECT_RESPONSE}, read from the archive.
+     */
+    String SELECT_RESPONSE = "select new com.timex.api.dto.TaskDto$Response(t.id, t.title, t.description,"
+            + " t.status, t.priority, t.estimatedHours, t.actualHours, t.dueDate, t.createdAt, t.updatedAt,"
+            + " p.id, p.name) from ArchivedTask t join t.project p";
+
+    @Query(SELECT_RESPONSE + " where p.id = :projectId"
+            + " order by t.createdAt asc, t.id asc")
+    List<TaskDto.Response> findResponsesByProjectId(@Param("projectId") Long projectId, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + " where p.id = :projectId"
+            + " and (t.createdAt > :createdAt or (t.createdAt = :createdAt and t.id > :id))"
+            + " order by t.createdAt asc, t.id asc")
+    List<TaskDto.Response> findResponsesByProjectIdAfter(@Param("projectId") Long projectId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Copies the given rows of {@code tasks} into the archive in one statement; the caller deletes them
+     * from {@code tasks} in the same transaction.
+     */
+    @Modifying
+    @Query(value = "insert into tasks_archive (id, title, description, status, priority, estimated_hours,"
+            + " actual_hours, due_date, created_at, updated_at, archived_at, project_id)"
+            + " select id, title, description, status, priority, estimated_hours, actual_hours, due_date,"
+            + " created_at, updated_at, :archivedAt, project_id from tasks where id in :ids", nativeQuery = true)
+    int copyFromTasks(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    /**
+     * Archived rows are never updated and only deleted with their project, so the count tells whether the
+     * archived tasks of a project changed.
+     */
+    @Query("select count(t.id) from ArchivedTask t where t.project.id = :projectId")
+    long countByProjectId(@Param("projectId") Long projectId);
+
+    @Query("select t.id from ArchivedTask t where t.project.id = :projectId")
+    List<Long> findIdsByProjectId(@Param("projectId") Long projectId, Pageable pageable);
+
+    @Query("select t.id from ArchivedTask t where t.project.user.id = :userId")
+    List<Long> findIdsByProjectUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("delete from ArchivedTask t where t.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select t.status as status, count(t) as taskCount, sum(t.estimatedHours) as estimatedHours,"
+            + " sum(t.actualHours) as actualHours from ArchivedTask t where t.project.id = :projectId group by t.status")
+    List<ProjectStatsRepository.StatusTotalsView> sumByStatus(@Param("projectId") Long projectId);
+}
@@ -0,0 +1,26 @@
+package com.timex.api.repository;
+
+import com.timex.api.model.CacheInvalidation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidation, Long> {
+
+    @Query("select coalesce(max(c.id), 0) from CacheInvalidation c")
+    long findMaxId();
+
+    @Query("select c from CacheInvalidation c where c.id > :id order by c.id asc")
+    List<CacheInvalidation> findAfter(@Param("id") long id, Pageable pageable);
+
+    @Modifying
+    @Query("delete from CacheInvalidation c where c.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,15 +1,144 @@
 package com.timex.api.repository;
 
+import com.timex.api.dto.ProjectDto;
 import com.timex.api.model.Project;
+import com.timex.api.model.Task;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
 
+    /**
+     * Constructor expression shared by the read-only list queries below. Rows are built straight into
+     * response DTOs, so no entities are hydrated, snapshotted for dirty checking or proxied.
+     */
+    String SELECT_RESPONSE = "select new com.timex.api.dto.ProjectDto$Response(p.id, p.name, p.description,"
+            + " p.createdAt, p.updatedAt, u.id, u.username, p.version) from Project p join p.user u";
+
     List<Project> findByUserId(Long userId);
 
     boolean existsByNameAndUserId(String name, Long userId);
-}
\ No newline at end of file
+
+    /**
+     * Loads a project with its owner and all of its tasks in a single statement.
+     */
+    @EntityGraph("Project.detail")
+    Optional<Project> findDetailedById(Long id);
+
+    @Query("select p.id from Project p where p.user.id = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("select p.id from Project p where p.id > :afterId order by p.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select p.user.id from Project p where p.id = :id")
+    Optional<Long> findOwnerIdById(@Param("id") Long id);
+
+    @Query("select p.id as id, p.user.id as ownerId from Project p where p.id > :afterId order by p.id")
+    List<OwnerView> findOwnersAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select p.id as id, p.user.id as ownerId from Project p where p.id in :ids")
+    List<OwnerView> findOwnersByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Project p where p.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_RESPONSE + " where p.id = :id")
+    Optional<ProjectDto.Response> findResponseById(@Param("id") Long id);
+
+    @Query(SELECT_RESPONSE + " where u.id = :userId"
+            + " order by p.createdAt asc, p.id asc")
+    List<ProjectDto.Response> findResponsesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + " where u.id = :userId"
+            + " and (p.createdAt > :createdAt or (p.createdAt = :createdAt and p.id > :id))"
+            + " order by p.createdAt asc, p.id asc")
+    List<ProjectDto.Response> findResponsesByUserIdAfter(@Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * One grouped row per project of the user and task status, or a single row with a null status for a
+     * project without tasks. Overdue and next due only count tasks that are not completed.
+     */
+    @Query("select p.id as projectId, p.name as projectName, t.status as status, count(t.id) as taskCount,"
+            + " count(case when t.dueDate < :now and t.status <> :completed then t.id end) as overdueCount,"
+            + " sum(t.estimatedHours) as estimatedHours, sum(t.actualHours) as actualHours,"
+            + " min(case when t.dueDate >= :now and t.status <> :completed then t.dueDate end) as nextDueDate"
+            + " from Project p left join p.tasks t where p.user.id = :userId"
+            + " group by p.id, p.name, t.status order by p.id")
+    List<SummaryView> summarizeByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now,
+            @Param("completed") Task.Status completed);
+
+    /**
+     * What the project responses of a user are derived from, for conditional GETs: the owner's token
+     * version changes with every change to the user, such as a rename.
+     */
+    @Query("select u.tokenVersion as ownerVersion, count(p.id) as projectCount, max(p.updatedAt) as projectsUpdatedAt"
+            + " from User u left join Project p on p.user = u where u.username = :username"
+            + " group by u.id, u.tokenVersion")
+    Optional<ListVersionView> findListVersionByUsername(@Param("username") String username);
+
+    /**
+     * What the detailed response of a project and the responses of its tasks are derived from, for
+     * conditional GETs. Every task write sets {@code updatedAt}, and one that adds or removes a task of
+     * the project changes the count or the latest {@code updatedAt}.
+     */
+    @Query("select u.tokenVersion as ownerVersion, p.updatedAt as projectUpdatedAt, count(t.id) as taskCount,"
+            + " max(t.updatedAt) as tasksUpdatedAt from Project p join p.user u left join p.tasks t"
+            + " where p.id = :id group by p.id, p.updatedAt, u.tokenVersion")
+    Optional<ContentVersionView> findContentVersionById(@Param("id") Long id);
+
+    interface OwnerView {
+        Long getId();
+
+        Long getOwnerId();
+    }
+
+    interface ListVersionView {
+        long getOwnerVersion();
+
+        long getProjectCount();
+
+        LocalDateTime getProjectsUpdatedAt();
+    }
+
+    interface ContentVersionView {
+        long getOwnerVersion();
+
+        LocalDateTime getProjectUpdatedAt();
+
+        long getTaskCount();
+
+        LocalDateTime getTasksUpdatedAt();
+    }
+
+    interface SummaryView {
+        Long getProjectId();
+
+        String getProjectName();
+
+        Task.Status getStatus();
+
+        long getTaskCount();
+
+        long getOverdueCount();
+
+        Double getEstimatedHours();
+
+        Double getActualHours();
+
+        LocalDateTime getNextDueDate();
+    }
+}
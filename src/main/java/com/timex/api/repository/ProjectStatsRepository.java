@@ -0,0 +1,74 @@
+package com.timex.api.repository;
+
+import com.timex.api.model.ProjectStats;
+import com.timex.api.model.Task;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProjectStatsRepository extends JpaRepository<ProjectStats, ProjectStats.Key> {
+
+    List<ProjectStats> findByProjectId(Long projectId);
+
+    @Modifying
+    @Query("update ProjectStats s set s.taskCount = s.taskCount + :count,"
+            + " s.estimatedHours = s.estimatedHours + :estimatedHours, s.actualHours = s.actualHours + :actualHours"
+            + " where s.projectId = :projectId and s.status = :status")
+    int increment(@Param("projectId") Long projectId, @Param("status") Task.Status status,
+            @Param("count") long count, @Param("estimatedHours") double estimatedHours,
+            @Param("actualHours") double actualHours);
+
+    /**
+     * Applies the changes of two statuses of one project in a single statement, as a status change needs.
+     */
+    @Modifying
+    @Query("update ProjectStats s set"
+            + " s.taskCount = s.taskCount + case when s.status = :first then :firstCount else :secondCount end,"
+            + " s.estimatedHours = s.estimatedHours"
+            + " + case when s.status = :first then :firstEstimatedHours else :secondEstimatedHours end,"
+            + " s.actualHours = s.actualHours"
+            + " + case when s.status = :first then :firstActualHours else :secondActualHours end"
+            + " where s.projectId = :projectId and s.status in (:first, :second)")
+    int incrementPair(@Param("projectId") Long projectId,
+            @Param("first") Task.Status first, @Param("firstCount") long firstCount,
+            @Param("firstEstimatedHours") double firstEstimatedHours,
+            @Param("firstActualHours") double firstActualHours,
+            @Param("second") Task.Status second, @Param("secondCount") long secondCount,
+            @Param("secondEstimatedHours") double secondEstimatedHours,
+            @Param("secondActualHours") double secondActualHours);
+
+    @Modifying
+    @Query("update ProjectStats s set s.taskCount = :count, s.estimatedHours = :estimatedHours,"
+            + " s.actualHours = :actualHours where s.projectId = :projectId and s.status = :status")
+    int overwrite(@Param("projectId") Long projectId, @Param("status") Task.Status status,
+            @Param("count") long count, @Param("estimatedHours") double estimatedHours,
+            @Param("actualHours") double actualHours);
+
+    /**
+     * Plain insert of a row known to be missing, without the existence check {@code save} would run first.
+     */
+    @Modifying
+    @Query(value = "insert into project_stats (project_id, status, task_count, estimated_hours, actual_hours)"
+            + " values (:projectId, :status, :count, :estimatedHours, :actualHours)", nativeQuery = true)
+    int insert(@Param("projectId") Long projectId, @Param("status") String status,
+            @Param("count") long count, @Param("estimatedHours") double estimatedHours,
+            @Param("actualHours") double actualHours);
+
+    /**
+     * Totals of a group of tasks sharing a status, as read by the statistics rebuild.
+     */
+    interface StatusTotalsView {
+        Task.Status getStatus();
+
+        long getTaskCount();
+
+        Double getEstimatedHours();
+
+        Double getActualHours();
+    }
+}
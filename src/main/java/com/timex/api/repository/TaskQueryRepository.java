@@ -0,0 +1,19 @@
+package com.timex.api.repository;
+
+import com.timex.api.dto.TaskDto;
+import com.timex.api.model.Task;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Criteria queries of {@link TaskRepository} whose filters are only known at runtime.
+ */
+public interface TaskQueryRepository {
+
+    /**
+     * Up to {@code limit} task rows matching {@code filter}, in {@code sort} order, built straight into
+     * responses like the JPQL list queries.
+     */
+    List<TaskDto.Response> findResponses(Specification<Task> filter, TaskSort sort, int limit);
+}
@@ -0,0 +1,40 @@
+package com.timex.api.repository;
+
+import com.timex.api.dto.TaskDto;
+import com.timex.api.model.Project;
+import com.timex.api.model.Task;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Root;
+import java.util.List;
+
+class TaskQueryRepositoryImpl implements TaskQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TaskDto.Response> findResponses(Specification<Task> filter, TaskSort sort, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskDto.Response> query = builder.createQuery(TaskDto.Response.class);
+        Root<Task> task = query.from(Task.class);
+        Join<Task, Project> project = task.join("project");
+
+        // Same columns and constructor as TaskRepository.SELECT_RESPONSE
+        query.select(builder.construct(TaskDto.Response.class, task.get("id"), task.get("title"),
+                task.get("description"), task.get("status"), task.get("priority"), task.get("estimatedHours"),
+                task.get("actualHours"), task.get("dueDate"), task.get("createdAt"), task.get("updatedAt"),
+                project.get("id"), project.get("name"), task.get("version")));
+        query.where(filter.toPredicate(task, query, builder));
+        query.orderBy(sort.orders(builder, task));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -1,20 +1,275 @@
 package com.timex.api.repository;
 
+import com.timex.api.dto.TaskDto;
+import com.timex.api.model.Project;
 import com.timex.api.model.Task;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskQueryRepository {
+
+    /**
+     * Constructor expression shared by the read-only list queries below. Rows are built straight into
+     * response DTOs, so no entities are hydrated, snapshotted for dirty checking or proxied.
+     */
+    String SELECT_RESPONSE = "select new com.timex.api.dto.TaskDto$Response(t.id, t.title, t.description,"
+            + " t.status, t.priority, t.estimatedHours, t.actualHours, t.dueDate, t.createdAt, t.updatedAt,"
+            + " p.id, p.name, t.version) from Task t join t.project p";
+
+    /**
+     * Filter shared by the set-based updates below. Each criterion besides the project is optional;
+     * the due range is inclusive of its start and exclusive of its end.
+     */
+    String WHERE_FILTER = " where t.project.id = :projectId"
+            + " and (:status is null or t.status = :status)"
+            + " and (:dueFrom is null or t.dueDate >= :dueFrom)"
+            + " and (:dueTo is null or t.dueDate < :dueTo)";
+
+    /**
+     * The filterable attributes of a task and the owner of its project, as kept by the filter index.
+     */
+    String SELECT_FILTER_ROW = "select t.id as id, p.id as projectId, p.user.id as ownerId, t.status as status,"
+            + " t.priority as priority, t.dueDate as dueDate from Task t join t.project p";
 
     List<Task> findByProjectId(Long projectId);
 
     List<Task> findByProjectIdAndStatus(Long projectId, Task.Status status);
 
-    List<Task> findByDueDateBefore(LocalDateTime dateTime);
+    @Query("select t from Task t join fetch t.project where t.id in :ids")
+    List<Task> findAllWithProjectByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select t.id from Task t where t.project.id = :projectId")
+    List<Long> findIdsByProjectId(@Param("projectId") Long projectId, Pageable pageable);
+
+    @Query("select t.project.id from Task t where t.id = :id")
+    Optional<Long> findProjectIdById(@Param("id") Long id);
+
+    @Query("select distinct t.project.id from Task t where t.id in :ids")
+    List<Long> findProjectIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select t.id as id, t.project.id as projectId from Task t where t.id > :afterId order by t.id")
+    List<TaskProjectView> findTaskProjectsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select t.id as id, t.project.id as projectId from Task t where t.id in :ids")
+    List<TaskProjectView> findTaskProjectsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select t.id from Task t where t.project.user.id = :userId")
+    List<Long> findIdsByProjectUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("select t.id from Task t where t.status = :status and t.updatedAt < :cutoff order by t.id")
+    List<Long> findIdsByStatusUpdatedBefore(@Param("status") Task.Status status,
+            @Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("delete from Task t where t.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_RESPONSE + " where t.id = :id")
+    Optional<TaskDto.Response> findResponseById(@Param("id") Long id);
+
+    /**
+     * Changes the status only if the task is still at the version read.
+     */
+    @Modifying
+    @Query("update Task t set t.status = :status, t.updatedAt = :updatedAt, t.version = t.version + 1"
+            + " where t.id = :id and t.version = :version")
+    int updateStatus(@Param("id") Long id, @Param("version") long version,
+            @Param("status") Task.Status status, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("update Task t set t.status = :status, t.updatedAt = :updatedAt, t.version = t.version + 1"
+            + " where t.id = :id and t.version = :version"
+            + " and t.project.id in (select p.id from Project p where p.user.id = :userId)")
+    int updateStatusForOwner(@Param("id") Long id, @Param("version") long version,
+            @Param("status") Task.Status status, @Param("updatedAt") LocalDateTime updatedAt,
+            @Param("userId") Long userId);
+
+    @Query(SELECT_RESPONSE + " where p.id = :projectId"
+            + " order by t.createdAt asc, t.id asc")
+    List<TaskDto.Response> findResponsesByProjectId(@Param("projectId") Long projectId, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + " where p.id = :projectId"
+            + " and (t.createdAt > :createdAt or (t.createdAt = :createdAt and t.id > :id))"
+            + " order by t.createdAt asc, t.id asc")
+    List<TaskDto.Response> findResponsesByProjectIdAfter(@Param("projectId") Long projectId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + " where p.id = :projectId and t.status = :status"
+            + " order by t.createdAt asc, t.id asc")
+    List<TaskDto.Response> findResponsesByProjectIdAndStatus(@Param("projectId") Long projectId,
+            @Param("status") Task.Status status, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + " where p.id = :projectId and t.status = :status"
+            + " and (t.createdAt > :createdAt or (t.createdAt = :createdAt and t.id > :id))"
+            + " order by t.createdAt asc, t.id asc")
+    List<TaskDto.Response> findResponsesByProjectIdAndStatusAfter(@Param("projectId") Long projectId,
+            @Param("status") Task.Status status, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+            Pageable pageable);
+
+    @Query(SELECT_RESPONSE + " where t.dueDate < :dateTime"
+            + " order by t.dueDate asc, t.id asc")
+    List<TaskDto.Response> findResponsesDueBefore(@Param("dateTime") LocalDateTime dateTime, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + " where t.dueDate < :dateTime"
+            + " and (t.dueDate > :dueDate or (t.dueDate = :dueDate and t.id > :id))"
+            + " order by t.dueDate asc, t.id asc")
+    List<TaskDto.Response> findResponsesDueBeforeAfter(@Param("dateTime") LocalDateTime dateTime,
+            @Param("dueDate") LocalDateTime dueDate, @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + " where p.user.id = :userId and t.dueDate < :dateTime"
+            + " order by t.dueDate asc, t.id asc")
+    List<TaskDto.Response> findResponsesDueBeforeByOwner(@Param("userId") Long userId,
+            @Param("dateTime") LocalDateTime dateTime, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + " where p.user.id = :userId and t.dueDate < :dateTime"
+            + " and (t.dueDate > :dueDate or (t.dueDate = :dueDate and t.id > :id))"
+            + " order by t.dueDate asc, t.id asc")
+    List<TaskDto.Response> findResponsesDueBeforeByOwnerAfter(@Param("userId") Long userId,
+            @Param("dateTime") LocalDateTime dateTime, @Param("dueDate") LocalDateTime dueDate, @Param("id") Long id,
+            Pageable pageable);
+
+    @Query(SELECT_RESPONSE + " where p.user.id = :userId and t.dueDate >= :now and t.status <> :completed"
+            + " order by t.dueDate asc, t.id asc")
+    List<TaskDto.Response> findResponsesNextDueByOwner(@Param("userId") Long userId,
+            @Param("now") LocalDateTime now, @Param("completed") Task.Status completed, Pageable pageable);
+
+    @Modifying
+    @Query("update Task t set t.status = :newStatus, t.updatedAt = :updatedAt, t.version = t.version + 1"
+            + WHERE_FILTER)
+    int updateStatusWhere(@Param("projectId") Long projectId, @Param("status") Task.Status status,
+            @Param("dueFrom") LocalDateTime dueFrom, @Param("dueTo") LocalDateTime dueTo,
+            @Param("newStatus") Task.Status newStatus, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("update Task t set t.project = :target, t.updatedAt = :updatedAt, t.version = t.version + 1"
+            + WHERE_FILTER)
+    int moveWhere(@Param("projectId") Long projectId, @Param("status") Task.Status status,
+            @Param("dueFrom") LocalDateTime dueFrom, @Param("dueTo") LocalDateTime dueTo,
+            @Param("target") Project target, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query("select t.status as status, count(t) as taskCount, sum(t.estimatedHours) as estimatedHours,"
+            + " sum(t.actualHours) as actualHours from Task t where t.project.id = :projectId group by t.status")
+    List<ProjectStatsRepository.StatusTotalsView> sumByStatus(@Param("projectId") Long projectId);
+
+    /**
+     * Task counts of a page of projects in one grouped statement; projects without tasks have no row.
+     */
+    @Query("select t.project.id as projectId, count(t.id) as taskCount,"
+            + " count(case when t.status <> :completed then t.id end) as openCount,"
+            + " count(case when t.status <> :completed and t.dueDate < :now then t.id end) as overdueCount"
+            + " from Task t where t.project.id in :projectIds group by t.project.id")
+    List<ProjectCountsView> countByProjectIdIn(@Param("projectIds") Collection<Long> projectIds,
+            @Param("now") LocalDateTime now, @Param("completed") Task.Status completed);
+
+    @Query(SELECT_RESPONSE + " where t.id in :ids and p.user.id = :userId")
+    List<TaskDto.Response> findResponsesByIdInAndOwner(@Param("ids") Collection<Long> ids,
+            @Param("userId") Long userId);
+
+    /**
+     * The tasks among {@code ids} that match the same filter as {@link #findResponsesMatching}, so ids
+     * picked by the filter index are checked against the rows again.
+     */
+    @Query(SELECT_RESPONSE + " where t.id in :ids"
+            + " and (:ownerId is null or p.user.id = :ownerId)"
+            + " and (:projectId is null or p.id = :projectId)"
+            + " and (:status is null or t.status = :status)"
+            + " and (:priority is null or t.priority = :priority)"
+            + " and (:dueFrom is null or t.dueDate >= :dueFrom)"
+            + " and (:dueTo is null or t.dueDate < :dueTo)")
+    List<TaskDto.Response> findResponsesMatchingIdIn(@Param("ids") Collection<Long> ids,
+            @Param("ownerId") Long ownerId, @Param("projectId") Long projectId, @Param("status") Task.Status status,
+            @Param("priority") Integer priority, @Param("dueFrom") LocalDateTime dueFrom,
+            @Param("dueTo") LocalDateTime dueTo);
+
+    /**
+     * General filter over the tasks visible to an owner, or to everyone with a null owner, oldest id
+     * first. Used while the filter index is loading.
+     */
+    @Query(SELECT_RESPONSE + " where (:ownerId is null or p.user.id = :ownerId)"
+            + " and (:projectId is null or p.id = :projectId)"
+            + " and (:status is null or t.status = :status)"
+            + " and (:priority is null or t.priority = :priority)"
+            + " and (:dueFrom is null or t.dueDate >= :dueFrom)"
+            + " and (:dueTo is null or t.dueDate < :dueTo)"
+            + " and t.id > :afterId order by t.id asc")
+    List<TaskDto.Response> findResponsesMatching(@Param("ownerId") Long ownerId, @Param("projectId") Long projectId,
+            @Param("status") Task.Status status, @Param("priority") Integer priority,
+            @Param("dueFrom") LocalDateTime dueFrom, @Param("dueTo") LocalDateTime dueTo,
+            @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(SELECT_FILTER_ROW + " where t.id > :afterId order by t.id")
+    List<FilterRowView> findFilterRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(SELECT_FILTER_ROW + " where t.id in :ids")
+    List<FilterRowView> findFilterRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Rows of a project written at exactly {@code updatedAt}, oldest id first; reads back the tasks a set-based
+     * update stamped, along the project and update time index.
+     */
+    @Query(SELECT_FILTER_ROW + " where p.id = :projectId and t.updatedAt = :updatedAt and t.id > :afterId"
+            + " order by t.id")
+    List<FilterRowView> findFilterRowsUpdatedAt(@Param("projectId") Long projectId,
+            @Param("updatedAt") LocalDateTime updatedAt, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select t.id as id, p.user.id as ownerId, t.title as title, t.description as description"
+            + " from Task t join t.project p where t.id > :afterId order by t.id")
+    List<SearchDocumentView> findSearchDocumentsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select t.id as id, p.user.id as ownerId, t.title as title, t.description as description"
+            + " from Task t join t.project p where t.id in :ids")
+    List<SearchDocumentView> findSearchDocumentsByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface ProjectCountsView {
+        Long getProjectId();
+
+        long getTaskCount();
+
+        long getOpenCount();
+
+        long getOverdueCount();
+    }
+
+    /**
+     * The searchable text of a task and the owner whose postings it belongs to.
+     */
+    interface SearchDocumentView {
+        Long getId();
+
+        Long getOwnerId();
+
+        String getTitle();
+
+        String getDescription();
+    }
+
+    interface TaskProjectView {
+        Long getId();
+
+        Long getProjectId();
+    }
+
+    interface FilterRowView {
+        Long getId();
+
+        Long getProjectId();
+
+        Long getOwnerId();
+
+        Task.Status getStatus();
+
+        Integer getPriority();
 
-    List<Task> findByProjectIdAndDueDateBetween(Long projectId, LocalDateTime start, LocalDateTime end);
-}
\ No newline at end of file
+        LocalDateTime getDueDate();
+    }
+}
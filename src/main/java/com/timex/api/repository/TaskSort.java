@@ -0,0 +1,217 @@
+package com.timex.api.repository;
+
+import com.timex.api.dto.TaskDto;
+import com.timex.api.exception.ApiException;
+import com.timex.api.model.Task;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Sort order of the task query API, parsed from keys such as {@code -priority,dueDate}, where a leading
+ * {@code -} sorts every key descending. Only orders whose keys follow the project in an index are
+ * accepted, so a page is one range of that index read in order, never a sort of the project's tasks.
+ * The task id breaks ties and, with the key values of the last row, forms the keyset cursor.
+ */
+public final class TaskSort {
+
+    /**
+     * Supported key lists and the index serving each; see V6__add_task_query_indexes.sql.
+     */
+    static final Map<List<Key>, String> INDEXES = new LinkedHashMap<>();
+
+    static {
+        INDEXES.put(List.of(Key.CREATED_AT), "idx_tasks_project_id_created_at");
+        INDEXES.put(List.of(Key.UPDATED_AT), "idx_tasks_project_id_updated_at");
+        INDEXES.put(List.of(Key.DUE_DATE), "idx_tasks_project_id_due_date");
+        INDEXES.put(List.of(Key.PRIORITY, Key.DUE_DATE), "idx_tasks_project_id_priority");
+    }
+
+    private static final String KEY_SEPARATOR = "|";
+
+    private final List<Key> keys;
+    private final boolean descending;
+
+    private TaskSort(List<Key> keys, boolean descending) {
+        this.keys = keys;
+        this.descending = descending;
+    }
+
+    public static TaskSort parse(String sort) {
+        boolean descending = sort.startsWith("-");
+        List<Key> keys = new ArrayList<>();
+        for (String name : (descending ? sort.substring(1) : sort).split(",")) {
+            keys.add(Arrays.stream(Key.values())
+                    .filter(key -> key.attribute.equals(name.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new ApiException(HttpStatus.BAD_REQUEST, "Unknown sort key: " + name)));
+        }
+
+        if (!INDEXES.containsKey(keys)) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Sort " + sort + " is not backed by an index;"
+                    + " supported sorts are " + supported() + ", each optionally prefixed with -");
+        }
+        return new TaskSort(keys, descending);
+    }
+
+    public String getIndex() {
+        return INDEXES.get(keys);
+    }
+
+    /**
+     * The sort key part of the cursor after {@code task}: its key values joined in sort order.
+     */
+    public String cursorKey(TaskDto.Response task) {
+        return keys.stream()
+                .map(key -> String.valueOf(key.value.apply(task)))
+                .collect(Collectors.joining(KEY_SEPARATOR));
+    }
+
+    /**
+     * Rejects queries the index range would answer differently from what the filters say. Rows without a
+     * value for a nullable key have no place in the index order, so such a key needs a range on it that
+     * leaves them out explicitly. A text filter is checked on every row of the range read, so it needs a
+     * range on the first key to bound that range below the whole project.
+     */
+    public void checkFilters(TaskDto.Query query) {
+        for (Key key : keys) {
+            if (key.nullable && !key.hasRange.apply(query)) {
+                throw new ApiException(HttpStatus.BAD_REQUEST, "Sorting by " + key.attribute
+                        + " leaves out tasks without one; give " + key.rangeParameters + " to choose the range");
+            }
+        }
+        if (query.getText() != null && !query.getText().isBlank() && !keys.get(0).hasRange.apply(query)) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "The text filter is not backed by an index; combine it"
+                    + " with a range on the first sort key (" + ranges() + ")");
+        }
+    }
+
+    /**
+     * Rows without a value for a nullable key have no place in the index order, so they are left out.
+     */
+    public Specification<Task> hasKeys() {
+        return (root, query, builder) -> builder.and(keys.stream()
+                .filter(key -> key.nullable)
+                .map(key -> builder.isNotNull(root.get(key.attribute)))
+                .toArray(Predicate[]::new));
+    }
+
+    /**
+     * Rows after the cursor position: {@code (k1, .., kn, id) > (v1, .., vn, afterId)} expanded into
+     * comparisons JPA can express, plus a bound on the first key that gives the index scan its start.
+     */
+    public Specification<Task> after(String cursorKey, Long afterId) {
+        String[] parts = cursorKey.split(Pattern.quote(KEY_SEPARATOR), -1);
+        if (parts.length != keys.size()) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        List<Comparable<?>> values = new ArrayList<>();
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                values.add(keys.get(i).parse.apply(parts[i]));
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+
+        return (root, query, builder) -> {
+            List<Expression<?>> paths = new ArrayList<>();
+            keys.forEach(key -> paths.add(root.get(key.attribute)));
+            paths.add(root.get("id"));
+            List<Comparable<?>> bounds = new ArrayList<>(values);
+            bounds.add(afterId);
+
+            List<Predicate> alternatives = new ArrayList<>();
+            for (int i = 0; i < paths.size(); i++) {
+                List<Predicate> terms = new ArrayList<>();
+                for (int j = 0; j < i; j++) {
+                    terms.add(builder.equal(paths.get(j), bounds.get(j)));
+                }
+                terms.add(beyond(builder, paths.get(i), bounds.get(i), false));
+                alternatives.add(builder.and(terms.toArray(new Predicate[0])));
+            }
+            return builder.and(beyond(builder, paths.get(0), bounds.get(0), true),
+                    builder.or(alternatives.toArray(new Predicate[0])));
+        };
+    }
+
+    public List<Order> orders(CriteriaBuilder builder, Root<Task> root) {
+        List<Order> orders = new ArrayList<>();
+        keys.forEach(key -> orders.add(order(builder, root.get(key.attribute))));
+        orders.add(order(builder, root.get("id")));
+        return orders;
+    }
+
+    @Override
+    public String toString() {
+        return (descending ? "-" : "") + keys.stream().map(key -> key.attribute).collect(Collectors.joining(","));
+    }
+
+    private Order order(CriteriaBuilder builder, Expression<?> path) {
+        return descending ? builder.desc(path) : builder.asc(path);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Predicate beyond(CriteriaBuilder builder, Expression path, Comparable value, boolean inclusive) {
+        if (descending) {
+            return inclusive ? builder.lessThanOrEqualTo(path, value) : builder.lessThan(path, value);
+        }
+        return inclusive ? builder.greaterThanOrEqualTo(path, value) : builder.greaterThan(path, value);
+    }
+
+    private static String supported() {
+        return INDEXES.keySet().stream()
+                .map(keys -> keys.stream().map(key -> key.attribute).collect(Collectors.joining(",")))
+                .collect(Collectors.joining("; "));
+    }
+
+    private static String ranges() {
+        return Arrays.stream(Key.values())
+                .filter(key -> key.rangeParameters != null)
+                .map(key -> key.rangeParameters + " for " + key.attribute)
+                .collect(Collectors.joining(", "));
+    }
+
+    enum Key {
+        CREATED_AT("createdAt", TaskDto.Response::getCreatedAt, LocalDateTime::parse, false, null,
+                query -> false),
+        UPDATED_AT("updatedAt", TaskDto.Response::getUpdatedAt, LocalDateTime::parse, false, "updatedSince",
+                query -> query.getUpdatedSince() != null),
+        DUE_DATE("dueDate", TaskDto.Response::getDueDate, LocalDateTime::parse, true, "dueFrom or dueTo",
+                query -> query.getDueFrom() != null || query.getDueTo() != null),
+        PRIORITY("priority", TaskDto.Response::getPriority, Integer::valueOf, false, "priorityMin or priorityMax",
+                query -> query.getPriorityMin() != null || query.getPriorityMax() != null);
+
+        private final String attribute;
+        private final Function<TaskDto.Response, Object> value;
+        private final Function<String, Comparable<?>> parse;
+        private final boolean nullable;
+        private final String rangeParameters;
+        private final Function<TaskDto.Query, Boolean> hasRange;
+
+        Key(String attribute, Function<TaskDto.Response, Object> value, Function<String, Comparable<?>> parse,
+                boolean nullable, String rangeParameters, Function<TaskDto.Query, Boolean> hasRange) {
+            this.attribute = attribute;
+            this.value = value;
+            this.parse = parse;
+            this.nullable = nullable;
+            this.rangeParameters = rangeParameters;
+            this.hasRange = hasRange;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.timex.api.repository;
+
+import com.timex.api.model.Task;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Filters of the task query API. Each returns {@code null} when its criterion is absent, which
+ * {@link Specification#and} skips, so a query is the plain conjunction of whatever was given.
+ * Only the project, and a range on the first sort key, narrow the index range that is read; the
+ * other filters are checked on the rows of that range.
+ */
+public final class TaskSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<Task> inProject(Long projectId) {
+        return (root, query, builder) -> builder.equal(root.get("project").get("id"), projectId);
+    }
+
+    public static Specification<Task> statusIn(Collection<Task.Status> statuses) {
+        if (statuses == null || statuses.isEmpty()) {
+            return null;
+        }
+        return (root, query, builder) -> root.get("status").in(statuses);
+    }
+
+    public static Specification<Task> priorityBetween(Integer min, Integer max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        return (root, query, builder) -> {
+            if (max == null) {
+                return builder.greaterThanOrEqualTo(root.get("priority"), min);
+            }
+            if (min == null) {
+                return builder.lessThanOrEqualTo(root.get("priority"), max);
+            }
+            return builder.between(root.get("priority"), min, max);
+        };
+    }
+
+    /**
+     * Inclusive of {@code from} and exclusive of {@code to}, like the due ranges of the other endpoints.
+     */
+    public static Specification<Task> dueBetween(LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return (root, query, builder) -> {
+            if (to == null) {
+                return builder.greaterThanOrEqualTo(root.get("dueDate"), from);
+            }
+            if (from == null) {
+                return builder.lessThan(root.get("dueDate"), to);
+            }
+            return builder.and(builder.greaterThanOrEqualTo(root.get("dueDate"), from),
+                    builder.lessThan(root.get("dueDate"), to));
+        };
+    }
+
+    public static Specification<Task> updatedSince(LocalDateTime since) {
+        if (since == null) {
+            return null;
+        }
+        return (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("updatedAt"), since);
+    }
+
+    /**
+     * Case-insensitive substring of the title or the description. No index serves it, so the task query
+     * API only accepts it together with a range on the first sort key; see {@link TaskSort#checkFilters}.
+     */
+    public static Specification<Task> textContains(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String pattern = "%" + text.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+        return (root, query, builder) -> builder.or(
+                builder.like(builder.lower(root.get("title")), pattern, LIKE_ESCAPE),
+                builder.like(builder.lower(root.get("description")), pattern, LIKE_ESCAPE));
+    }
+}
@@ -1,9 +1,13 @@
 package com.timex.api.repository;
 
 import com.timex.api.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +20,34 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    List<User> findAllByOrderByUsernameAscIdAsc(Pageable pageable);
+
+    @Query("select u from User u where u.username > :username or (u.username = :username and u.id > :id)"
+            + " order by u.username asc, u.id asc")
+    List<User> findAllAfter(@Param("username") String username, @Param("id") Long id, Pageable pageable);
+
+    @Query("select u.id as id, u.tokenVersion as tokenVersion from User u where u.tokenVersion > 0")
+    List<TokenVersionView> findChangedTokenVersions();
+
+    @Query("select u.tokenVersion from User u where u.id = :id")
+    Optional<Long> findTokenVersionById(@Param("id") Long id);
+
+    @Query("select u.username as username, u.email as email from User u")
+    List<AccountKeyView> findAllAccountKeys();
+
+    @Query("select u.username as username, u.email as email from User u where u.id = :id")
+    Optional<AccountKeyView> findAccountKeyById(@Param("id") Long id);
+
+    interface TokenVersionView {
+        Long getId();
+
+        long getTokenVersion();
+    }
+
+    interface AccountKeyView {
+        String getUsername();
+
+        String getEmail();
+    }
 }
\ No newline at end of file
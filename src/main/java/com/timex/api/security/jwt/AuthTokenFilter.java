@@ -1,11 +1,14 @@
 package com.timex.api.security.jwt;
 
+import com.timex.api.security.service.TokenVersionRegistry;
+import com.timex.api.security.service.UserDetailsImpl;
+import com.timex.api.security.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -23,17 +26,19 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     private JwtUtils jwtUtils;
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            JwtVerification verification = jwt != null ? jwtUtils.verifyJwtToken(jwt) : null;
+            if (verification != null && verification.isValid()) {
+                UserDetails userDetails = resolveUserDetails(verification.getClaims());
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -47,6 +52,21 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private UserDetails resolveUserDetails(Claims claims) {
+        UserDetailsImpl principal = jwtUtils.getUserDetailsFromJwtClaims(claims);
+
+        if (principal == null) {
+            return userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+
+        if (tokenVersionRegistry.isCurrent(principal.getId(), principal.getTokenVersion())) {
+            return principal;
+        }
+
+        // The user changed after the token was issued, so its claims may be stale
+        return userDetailsService.loadUserById(principal.getId());
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
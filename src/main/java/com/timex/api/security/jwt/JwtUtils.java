@@ -1,70 +1,144 @@
 package com.timex.api.security.jwt;
 
+import com.timex.api.security.service.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
+import javax.annotation.PostConstruct;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Component
 @Slf4j
 public class JwtUtils {
 
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLES = "roles";
+    static final String CLAIM_TOKEN_VERSION = "ver";
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
     @Value("${app.jwt.expiration}")
     private int jwtExpirationMs;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    @Value("${app.jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    private Key signingKey;
+    private JwtParser jwtParser;
+    private VerifiedTokenCache verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedTokens = new VerifiedTokenCache(verifiedCacheSize);
     }
 
     public String generateJwtToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(userPrincipal.getUsername())
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(getSigningKey())
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs));
+
+        // Carry what the filter needs to rebuild the principal without a database lookup
+        if (userPrincipal instanceof UserDetailsImpl) {
+            UserDetailsImpl userDetails = (UserDetailsImpl) userPrincipal;
+            builder.claim(CLAIM_USER_ID, userDetails.getId())
+                    .claim(CLAIM_ROLES, userDetails.getAuthorities().stream()
+                            .map(GrantedAuthority::getAuthority)
+                            .collect(Collectors.toList()))
+                    .claim(CLAIM_TOKEN_VERSION, userDetails.getTokenVersion());
+        }
+
+        return builder.signWith(signingKey).compact();
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return jwtParser.parseClaimsJws(token).getBody().getSubject();
     }
 
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * Verifies the token once and returns its claims, or why it was rejected. Tokens already
+     * verified are served from a bounded cache until they expire.
+     */
+    public JwtVerification verifyJwtToken(String authToken) {
+        if (!StringUtils.hasText(authToken)) {
+            log.error("JWT claims string is empty");
+            return JwtVerification.invalid(JwtVerification.Failure.EMPTY);
+        }
+
+        Claims cached = verifiedTokens.get(authToken, System.currentTimeMillis());
+        if (cached != null) {
+            return JwtVerification.valid(cached);
+        }
+
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
-            return true;
+            Claims claims = jwtParser.parseClaimsJws(authToken).getBody();
+            verifiedTokens.put(authToken, claims);
+            return JwtVerification.valid(claims);
         } catch (io.jsonwebtoken.security.SecurityException e) {
             log.error("Invalid JWT signature: {}", e.getMessage());
+            return JwtVerification.invalid(JwtVerification.Failure.INVALID_SIGNATURE);
         } catch (MalformedJwtException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
+            return JwtVerification.invalid(JwtVerification.Failure.MALFORMED);
         } catch (ExpiredJwtException e) {
             log.error("JWT token is expired: {}", e.getMessage());
+            return JwtVerification.invalid(JwtVerification.Failure.EXPIRED);
         } catch (UnsupportedJwtException e) {
             log.error("JWT token is unsupported: {}", e.getMessage());
+            return JwtVerification.invalid(JwtVerification.Failure.UNSUPPORTED);
         } catch (IllegalArgumentException e) {
             log.error("JWT claims string is empty: {}", e.getMessage());
+            return JwtVerification.invalid(JwtVerification.Failure.EMPTY);
+        }
+    }
+
+    /**
+     * Builds the principal from verified token claims. Returns {@code null} for tokens
+     * issued without the user id, roles and version claims.
+     */
+    public UserDetailsImpl getUserDetailsFromJwtClaims(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        Number tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Number.class);
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+
+        if (userId == null || tokenVersion == null || roles == null) {
+            return null;
         }
 
-        return false;
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.toString()))
+                .collect(Collectors.toList());
+
+        return new UserDetailsImpl(
+                userId.longValue(),
+                claims.getSubject(),
+                null,
+                null,
+                null,
+                authorities,
+                tokenVersion.longValue());
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return verifyJwtToken(authToken).isValid();
     }
 }
\ No newline at end of file
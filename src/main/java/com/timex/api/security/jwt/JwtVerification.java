@@ -0,0 +1,37 @@
+package com.timex.api.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Outcome of verifying a JWT: the claims when the token is valid, otherwise the reason it was rejected.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class JwtVerification {
+
+    private final Claims claims;
+    private final Failure failure;
+
+    public static JwtVerification valid(Claims claims) {
+        return new JwtVerification(claims, null);
+    }
+
+    public static JwtVerification invalid(Failure failure) {
+        return new JwtVerification(null, failure);
+    }
+
+    public boolean isValid() {
+        return failure == null;
+    }
+
+    public enum Failure {
+        INVALID_SIGNATURE,
+        MALFORMED,
+        EXPIRED,
+        UNSUPPORTED,
+        EMPTY
+    }
+}
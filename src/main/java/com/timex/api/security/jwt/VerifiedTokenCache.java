@@ -0,0 +1,75 @@
+package com.timex.api.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of tokens whose signature has already been verified. Entries are keyed by the
+ * token's signature segment, which is an HMAC of the header and payload, and are dropped once the
+ * token expires. When the cache is full the least recently used token makes room.
+ */
+class VerifiedTokenCache {
+
+    private final int maxSize;
+    private final LinkedHashMap<String, Entry> entries;
+
+    VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > VerifiedTokenCache.this.maxSize;
+            }
+        };
+    }
+
+    Claims get(String token, long now) {
+        int signatureStart = token.lastIndexOf('.');
+        String signature = token.substring(signatureStart + 1);
+        synchronized (entries) {
+            Entry entry = entries.get(signature);
+            if (entry == null || !entry.signs(token, signatureStart)) {
+                return null;
+            }
+
+            if (entry.expiresAt <= now) {
+                entries.remove(signature);
+                return null;
+            }
+
+            return entry.claims;
+        }
+    }
+
+    void put(String token, Claims claims) {
+        if (maxSize <= 0 || claims.getExpiration() == null) {
+            return;
+        }
+
+        int signatureStart = token.lastIndexOf('.');
+        Entry entry = new Entry(token.substring(0, signatureStart), claims, claims.getExpiration().getTime());
+        synchronized (entries) {
+            entries.put(token.substring(signatureStart + 1), entry);
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class Entry {
+        private final String signedContent;
+        private final Claims claims;
+        private final long expiresAt;
+
+        boolean signs(String token, int signatureStart) {
+            return signatureStart == signedContent.length() && token.startsWith(signedContent);
+        }
+    }
+}
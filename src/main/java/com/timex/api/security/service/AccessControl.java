@@ -0,0 +1,94 @@
+package com.timex.api.security.service;
+
+import com.timex.api.exception.ResourceNotFoundException;
+import com.timex.api.index.ProjectOwnershipIndex;
+import com.timex.api.model.User;
+import com.timex.api.repository.ProjectRepository;
+import com.timex.api.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authorization checks of the current principal against projects and tasks. Owners come from the
+ * {@link ProjectOwnershipIndex}, so a check reads no rows and initializes no proxies; only ids the index
+ * does not hold yet cost one id query. Admins pass every check.
+ * The index follows a move of tasks once it has committed, so for that moment a task is still checked
+ * against the project it left.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccessControl {
+
+    private final ProjectOwnershipIndex ownershipIndex;
+    private final ProjectRepository projectRepository;
+    private final TaskRepository taskRepository;
+
+    public boolean isAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getPrincipal() instanceof UserDetailsImpl) {
+            return ((UserDetailsImpl) authentication.getPrincipal()).hasRole(User.Role.ROLE_ADMIN);
+        }
+        return authentication.getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals(User.Role.ROLE_ADMIN.name()));
+    }
+
+    public Long currentUserId() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+        if (!(principal instanceof UserDetailsImpl)) {
+            throw new AccessDeniedException("You don't have permission to access these tasks");
+        }
+
+        return ((UserDetailsImpl) principal).getId();
+    }
+
+    /**
+     * For {@code @PreAuthorize} expressions: whether the principal is the user with the given id.
+     */
+    public boolean isCurrentUser(Long userId) {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return principal instanceof UserDetailsImpl && ((UserDetailsImpl) principal).getId().equals(userId);
+    }
+
+    /**
+     * Whether the principal may access the project; throws {@link ResourceNotFoundException} if there is
+     * no such project.
+     */
+    public boolean canAccessProject(Long projectId) {
+        long ownerId = ownerOf(projectId);
+        return isAdmin() || ownerId == currentUserId();
+    }
+
+    public void checkProject(Long projectId) {
+        if (!canAccessProject(projectId)) {
+            throw new AccessDeniedException("You don't have permission to access this project");
+        }
+    }
+
+    /**
+     * Id of the user owning the project; throws {@link ResourceNotFoundException} if there is no such project.
+     */
+    public long ownerOf(Long projectId) {
+        long ownerId = ownershipIndex.ownerOf(projectId);
+        if (ownerId == ProjectOwnershipIndex.UNKNOWN) {
+            ownerId = projectRepository.findOwnerIdById(projectId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Project", "id", projectId));
+        }
+        return ownerId;
+    }
+
+    /**
+     * Checks the project of the task, and throws {@link ResourceNotFoundException} if there is no such task.
+     */
+    public void checkTask(Long taskId) {
+        long projectId = ownershipIndex.projectOf(taskId);
+        if (projectId == ProjectOwnershipIndex.UNKNOWN) {
+            projectId = taskRepository.findProjectIdById(taskId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+        }
+        checkProject(projectId);
+    }
+}
@@ -0,0 +1,113 @@
+package com.timex.api.security.service;
+
+import com.timex.api.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt-heavy work (login, registration) on a small dedicated pool with a bounded queue,
+ * so a burst of logins cannot take CPU away from the rest of the API. The request thread still waits
+ * for the result, but at most {@code app.auth.hashing.timeout}; when the queue is full, or the wait
+ * runs out, the caller fails with a 503 instead of piling up behind the pool.
+ */
+@Component
+@Slf4j
+public class CredentialHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final Duration timeout;
+    private final Timer hashTimer;
+    private final Counter rejections;
+
+    public CredentialHashingExecutor(
+            @Value("${app.auth.hashing.pool-size:0}") int poolSize,
+            @Value("${app.auth.hashing.queue-capacity:50}") int queueCapacity,
+            @Value("${app.auth.hashing.retry-after-seconds:1}") long retryAfterSeconds,
+            @Value("${app.auth.hashing.timeout:PT10S}") Duration timeout,
+            MeterRegistry meterRegistry) {
+        int threads = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "credential-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.timeout = timeout;
+
+        Gauge.builder("timex.auth.hashing.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Credential hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("timex.auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Credential hashing tasks currently running")
+                .register(meterRegistry);
+        this.hashTimer = Timer.builder("timex.auth.hashing.duration")
+                .description("Time spent hashing or verifying credentials")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("timex.auth.hashing.rejected")
+                .description("Credential hashing tasks rejected or timed out because the pool was saturated")
+                .register(meterRegistry);
+
+        log.info("Credential hashing pool started with {} threads and a queue of {}", threads, queueCapacity);
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> hashTimer.record(work));
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new ServiceUnavailableException("Too many authentication requests, please retry shortly",
+                    retryAfterSeconds);
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejections.increment();
+            throw new ServiceUnavailableException("Authentication request timed out, please retry shortly",
+                    retryAfterSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ServiceUnavailableException("Authentication request was interrupted", retryAfterSeconds);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
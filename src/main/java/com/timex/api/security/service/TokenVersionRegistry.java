@@ -0,0 +1,72 @@
+package com.timex.api.security.service;
+
+import com.timex.api.cache.InvalidationBus;
+import com.timex.api.cache.InvalidationKey;
+import com.timex.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the current token version of every user that presented a token, so that the claims of a JWT
+ * can be trusted without loading the user on each request. A user seen for the first time is looked up
+ * once; a user that no longer exists is recorded as revoked, so its tokens are never trusted again.
+ * Users whose version was already raised are loaded at startup.
+ * Changes made on other instances arrive as {@link InvalidationKey.Kind#USER} keys on the
+ * {@link InvalidationBus}, upon which the version is read again.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenVersionRegistry {
+
+    private static final long REVOKED = Long.MAX_VALUE;
+
+    private final UserRepository userRepository;
+    private final InvalidationBus invalidationBus;
+
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        userRepository.findChangedTokenVersions()
+                .forEach(view -> versions.put(view.getId(), view.getTokenVersion()));
+
+        log.debug("Loaded token versions for {} users", versions.size());
+        invalidationBus.subscribe(this::usersChanged);
+    }
+
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        Long current = versions.get(userId);
+        if (current == null) {
+            // Merged, so a change recorded while the version was being read is not lost
+            current = versions.merge(userId, readVersion(userId), Math::max);
+        }
+        return current <= tokenVersion;
+    }
+
+    public void update(Long userId, long tokenVersion) {
+        versions.merge(userId, tokenVersion, Math::max);
+    }
+
+    public void revoke(Long userId) {
+        versions.put(userId, REVOKED);
+    }
+
+    private long readVersion(Long userId) {
+        return userRepository.findTokenVersionById(userId).orElse(REVOKED);
+    }
+
+    private void usersChanged(List<InvalidationKey> keys) {
+        for (InvalidationKey key : keys) {
+            if (key.getKind() == InvalidationKey.Kind.USER) {
+                update(key.getId(), readVersion(key.getId()));
+            }
+        }
+    }
+}
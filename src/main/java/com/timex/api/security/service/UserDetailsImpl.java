@@ -1,7 +1,6 @@
 package com.timex.api.security.service;
 
 import com.timex.api.model.User;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -11,7 +10,6 @@ import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
-@AllArgsConstructor
 @Getter
 public class UserDetailsImpl implements UserDetails {
 
@@ -20,8 +18,32 @@ public class UserDetailsImpl implements UserDetails {
     private Long id;
     private String username;
     private String email;
+    private String fullName;
     private String password;
     private Collection<? extends GrantedAuthority> authorities;
+    private long tokenVersion;
+
+    /**
+     * One bit per {@link User.Role} ordinal, computed once from the authorities so role checks do not
+     * stream and compare them on every call.
+     */
+    private int roleMask;
+
+    public UserDetailsImpl(Long id, String username, String email, String fullName, String password,
+            Collection<? extends GrantedAuthority> authorities, long tokenVersion) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.fullName = fullName;
+        this.password = password;
+        this.authorities = authorities;
+        this.tokenVersion = tokenVersion;
+        for (User.Role role : User.Role.values()) {
+            if (authorities.stream().anyMatch(authority -> role.name().equals(authority.getAuthority()))) {
+                this.roleMask |= 1 << role.ordinal();
+            }
+        }
+    }
 
     public static UserDetailsImpl build(User user) {
         List<GrantedAuthority> authorities = user.getRoles().stream()
@@ -32,8 +54,14 @@ public class UserDetailsImpl implements UserDetails {
                 user.getId(),
                 user.getUsername(),
                 user.getEmail(),
+                user.getFullName(),
                 user.getPassword(),
-                authorities);
+                authorities,
+                user.getTokenVersion());
+    }
+
+    public boolean hasRole(User.Role role) {
+        return (roleMask & 1 << role.ordinal()) != 0;
     }
 
     @Override
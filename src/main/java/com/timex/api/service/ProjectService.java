@@ -1,8 +1,7 @@
 package com.timex.api.service;
 
 import com.timex.api.dto.ProjectDto;
-
-import java.util.List;
+import com.timex.api.pagination.CursorPage;
 
 public interface ProjectService {
 
@@ -12,9 +11,19 @@ public interface ProjectService {
 
     ProjectDto.DetailedResponse getProjectWithTasks(Long id);
 
-    List<ProjectDto.Response> getAllProjects(String username);
+    String getProjectWithTasksVersion(Long id);
+
+    ProjectDto.Stats getProjectStats(Long id);
+
+    CursorPage<ProjectDto.Response> getAllProjects(String username, boolean includeCounts, String cursor,
+            Integer limit);
+
+    String getAllProjectsVersion(String username);
 
-    ProjectDto.Response updateProject(Long id, ProjectDto.Request request);
+    /**
+     * Updates the project; a non-null {@code expectedVersion} must match the stored version.
+     */
+    ProjectDto.Response updateProject(Long id, ProjectDto.Request request, Long expectedVersion);
 
     void deleteProject(Long id);
 
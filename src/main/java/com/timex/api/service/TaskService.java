@@ -2,6 +2,7 @@ package com.timex.api.service;
 
 import com.timex.api.dto.TaskDto;
 import com.timex.api.model.Task;
+import com.timex.api.pagination.CursorPage;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -10,17 +11,39 @@ public interface TaskService {
 
     TaskDto.Response createTask(TaskDto.Request request);
 
+    List<TaskDto.BulkResult> saveTasks(List<TaskDto.BulkItem> items);
+
     TaskDto.Response getTaskById(Long id);
 
-    List<TaskDto.Response> getTasksByProjectId(Long projectId);
+    CursorPage<TaskDto.Response> getTasksByProjectId(Long projectId, boolean includeArchived, String cursor,
+            Integer limit);
+
+    String getTasksByProjectIdVersion(Long projectId, boolean includeArchived);
+
+    CursorPage<TaskDto.Response> getTasksByProjectIdAndStatus(Long projectId, Task.Status status, String cursor,
+            Integer limit);
+
+    CursorPage<TaskDto.Response> getTasksDueBeforeDate(LocalDateTime dateTime, String cursor, Integer limit);
+
+    CursorPage<TaskDto.Response> filterTasks(Long projectId, Task.Status status, Integer priority,
+            LocalDateTime dueFrom, LocalDateTime dueTo, String cursor, Integer limit);
+
+    CursorPage<TaskDto.Response> queryTasks(TaskDto.Query query, String sort, String cursor, Integer limit);
+
+    List<TaskDto.Response> searchTasks(String query, Integer limit);
 
-    List<TaskDto.Response> getTasksByProjectIdAndStatus(Long projectId, Task.Status status);
+    /**
+     * Updates the task; a non-null {@code expectedVersion} must match the stored version.
+     */
+    TaskDto.Response updateTask(Long id, TaskDto.Request request, Long expectedVersion);
 
-    List<TaskDto.Response> getTasksDueBeforeDate(LocalDateTime dateTime);
+    TaskDto.Response updateTaskStatus(Long id, Task.Status status, Long expectedVersion);
 
-    TaskDto.Response updateTask(Long id, TaskDto.Request request);
+    TaskDto.BulkUpdateResult updateTasksStatus(Long projectId, Task.Status status, LocalDateTime dueFrom,
+            LocalDateTime dueTo, Task.Status newStatus);
 
-    TaskDto.Response updateTaskStatus(Long id, Task.Status status);
+    TaskDto.BulkUpdateResult moveTasks(Long projectId, Task.Status status, LocalDateTime dueFrom,
+            LocalDateTime dueTo, Long targetProjectId);
 
     void deleteTask(Long id);
 }
\ No newline at end of file
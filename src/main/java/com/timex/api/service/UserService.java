@@ -1,9 +1,7 @@
 package com.timex.api.service;
 
 import com.timex.api.dto.UserDto;
-import com.timex.api.model.User;
-
-import java.util.List;
+import com.timex.api.pagination.CursorPage;
 
 public interface UserService {
 
@@ -13,10 +11,12 @@ public interface UserService {
 
     UserDto.Response getUserProfile(String username);
 
-    List<UserDto.Response> getAllUsers();
+    CursorPage<UserDto.Response> getAllUsers(String cursor, Integer limit);
 
     UserDto.Response getUserById(Long id);
 
+    UserDto.Summary getCurrentUserSummary();
+
     UserDto.Response updateUser(Long id, UserDto.Request request);
 
     void deleteUser(Long id);
@@ -24,4 +24,6 @@ public interface UserService {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    void rebuildAvailabilityIndex();
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.timex.api.service.impl;
+
+import com.timex.api.cache.ReadCache;
+import com.timex.api.index.ProjectOwnershipIndex;
+import com.timex.api.index.TaskFilterIndex;
+import com.timex.api.index.TaskSearchIndex;
+import com.timex.api.repository.ArchivedTaskRepository;
+import com.timex.api.repository.ProjectRepository;
+import com.timex.api.repository.TaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Removes the tasks, archived tasks and projects below a project or user with set-based deletes of
+ * bounded chunks, each in its own short transaction, instead of loading the whole graph for JPA
+ * cascade removal.
+ * A failure part way leaves the remaining rows in place; deleting again picks up where it stopped.
+ */
+@Component
+@Slf4j
+public class ChunkedDeleter {
+
+    private final TaskRepository taskRepository;
+    private final ProjectRepository projectRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskFilterIndex taskFilterIndex;
+    private final ProjectOwnershipIndex ownershipIndex;
+    private final ReadCache readCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Pageable chunk;
+    private final Counter deletedTasks;
+    private final Counter deletedArchivedTasks;
+    private final Counter deletedProjects;
+    private final Timer chunkTimer;
+
+    public ChunkedDeleter(TaskRepository taskRepository, ProjectRepository projectRepository,
+            ArchivedTaskRepository archivedTaskRepository, TaskSearchIndex taskSearchIndex,
+            TaskFilterIndex taskFilterIndex, ProjectOwnershipIndex ownershipIndex, ReadCache readCache,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.deletion.chunk-size:1000}") int chunkSize,
+            MeterRegistry meterRegistry) {
+        this.taskRepository = taskRepository;
+        this.projectRepository = projectRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.taskSearchIndex = taskSearchIndex;
+        this.taskFilterIndex = taskFilterIndex;
+        this.ownershipIndex = ownershipIndex;
+        this.readCache = readCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunk = PageRequest.of(0, chunkSize);
+        this.deletedTasks = Counter.builder("timex.deletion.rows")
+                .tag("table", "tasks")
+                .description("Rows removed by chunked deletion")
+                .register(meterRegistry);
+        this.deletedArchivedTasks = Counter.builder("timex.deletion.rows")
+                .tag("table", "tasks_archive")
+                .description("Rows removed by chunked deletion")
+                .register(meterRegistry);
+        this.deletedProjects = Counter.builder("timex.deletion.rows")
+                .tag("table", "projects")
+                .description("Rows removed by chunked deletion")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("timex.deletion.chunk.duration")
+                .description("Time spent deleting one chunk")
+                .register(meterRegistry);
+    }
+
+    public int deleteTasksOfProject(Long projectId) {
+        deleteInChunks("archived tasks of project " + projectId, deletedArchivedTasks,
+                pageable -> archivedTaskRepository.findIdsByProjectId(projectId, pageable),
+                archivedTaskRepository::deleteByIdIn);
+        return deleteInChunks("tasks of project " + projectId, deletedTasks,
+                pageable -> taskRepository.findIdsByProjectId(projectId, pageable),
+                this::deleteTasks);
+    }
+
+    public int deleteProjectsOfUser(Long userId) {
+        deleteInChunks("archived tasks of user " + userId, deletedArchivedTasks,
+                pageable -> archivedTaskRepository.findIdsByProjectUserId(userId, pageable),
+                archivedTaskRepository::deleteByIdIn);
+        deleteInChunks("tasks of user " + userId, deletedTasks,
+                pageable -> taskRepository.findIdsByProjectUserId(userId, pageable),
+                this::deleteTasks);
+        return deleteInChunks("projects of user " + userId, deletedProjects,
+                pageable -> projectRepository.findIdsByUserId(userId, pageable),
+                this::deleteProjects);
+    }
+
+    private int deleteTasks(List<Long> ids) {
+        taskSearchIndex.tasksRemoved(ids);
+        taskFilterIndex.tasksRemoved(ids);
+        ownershipIndex.tasksRemoved(ids);
+        readCache.tasksRemoved(ids);
+        return taskRepository.deleteByIdIn(ids);
+    }
+
+    private int deleteProjects(List<Long> ids) {
+        ownershipIndex.projectsRemoved(ids);
+        readCache.projectsRemoved(ids);
+        return projectRepository.deleteByIdIn(ids);
+    }
+
+    private int deleteInChunks(String description, Counter counter, Function<Pageable, List<Long>> nextIds,
+            ToIntFunction<List<Long>> delete) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = chunkTimer.record(() -> transactionTemplate.execute(status -> {
+                List<Long> ids = nextIds.apply(chunk);
+                return ids.isEmpty() ? 0 : delete.applyAsInt(ids);
+            }));
+            counter.increment(deleted);
+            total += deleted;
+            if (deleted > 0) {
+                log.debug("Deleted {} {} so far", total, description);
+            }
+        } while (deleted > 0);
+        return total;
+    }
+}
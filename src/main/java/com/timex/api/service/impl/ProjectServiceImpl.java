@@ -1,21 +1,34 @@
 package com.timex.api.service.impl;
 
+import com.timex.api.cache.ReadCache;
 import com.timex.api.dto.ProjectDto;
 import com.timex.api.exception.ApiException;
+import com.timex.api.exception.PreconditionFailedException;
 import com.timex.api.exception.ResourceNotFoundException;
+import com.timex.api.index.ProjectOwnershipIndex;
 import com.timex.api.mapper.ProjectMapper;
 import com.timex.api.model.Project;
+import com.timex.api.model.Task;
 import com.timex.api.model.User;
+import com.timex.api.pagination.Cursor;
+import com.timex.api.pagination.CursorPage;
+import com.timex.api.pagination.CursorPagination;
 import com.timex.api.repository.ProjectRepository;
+import com.timex.api.repository.TaskRepository;
 import com.timex.api.repository.UserRepository;
+import com.timex.api.security.service.AccessControl;
 import com.timex.api.service.ProjectService;
+import com.timex.api.stats.ProjectStatistics;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,9 +37,17 @@ public class ProjectServiceImpl implements ProjectService {
 
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
+    private final TaskRepository taskRepository;
     private final ProjectMapper projectMapper;
+    private final CursorPagination cursorPagination;
+    private final ChunkedDeleter chunkedDeleter;
+    private final ProjectStatistics projectStatistics;
+    private final ProjectOwnershipIndex ownershipIndex;
+    private final AccessControl accessControl;
+    private final ReadCache readCache;
 
     @Override
+    @Transactional
     public ProjectDto.Response createProject(String username, ProjectDto.Request request) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
@@ -38,66 +59,158 @@ public class ProjectServiceImpl implements ProjectService {
         Project project = projectMapper.toEntity(request);
         project.setUser(user);
 
-        return projectMapper.toDto(projectRepository.save(project));
+        Project savedProject = projectRepository.save(project);
+        projectStatistics.initialize(savedProject.getId());
+        ownershipIndex.projectSaved(savedProject.getId(), user.getId());
+
+        return projectMapper.toDto(savedProject);
     }
 
     @Override
     public ProjectDto.Response getProjectById(Long id) {
-        Project project = projectRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Project", "id", id));
+        accessControl.checkProject(id);
 
-        checkProjectOwnership(project);
+        long version = readCache.projects().version();
+        ProjectDto.Response cached = readCache.projects().get(id);
+        if (cached != null) {
+            return cached;
+        }
 
-        return projectMapper.toDto(project);
+        // Built in the query together with the owner, which the entity would only load lazily
+        ProjectDto.Response response = projectRepository.findResponseById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Project", "id", id));
+        readCache.projects().put(id, response.getUserId(), response, version);
+        return response;
     }
 
     @Override
     public ProjectDto.DetailedResponse getProjectWithTasks(Long id) {
-        Project project = projectRepository.findById(id)
+        accessControl.checkProject(id);
+
+        long version = readCache.detailedProjects().version();
+        ProjectDto.DetailedResponse cached = readCache.detailedProjects().get(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        Project project = projectRepository.findDetailedById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Project", "id", id));
+
+        ProjectDto.DetailedResponse response = projectMapper.toDetailedDto(project);
+        readCache.detailedProjects().put(id, response.getUserId(), response, version);
+        return response;
+    }
+
+    /**
+     * Changes whenever {@link #getProjectWithTasks} may return something else, without reading the tasks.
+     */
+    @Override
+    public String getProjectWithTasksVersion(Long id) {
+        accessControl.checkProject(id);
+
+        ProjectRepository.ContentVersionView version = projectRepository.findContentVersionById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Project", "id", id));
+        return version.getOwnerVersion() + "." + version.getProjectUpdatedAt() + "." + version.getTaskCount()
+                + "." + version.getTasksUpdatedAt();
+    }
 
-        checkProjectOwnership(project);
+    @Override
+    public ProjectDto.Stats getProjectStats(Long id) {
+        accessControl.checkProject(id);
 
-        return projectMapper.toDetailedDto(project);
+        return projectStatistics.read(id);
     }
 
     @Override
-    public List<ProjectDto.Response> getAllProjects(String username) {
+    public CursorPage<ProjectDto.Response> getAllProjects(String username, boolean includeCounts, String cursor,
+            Integer limit) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
 
-        return projectRepository.findByUserId(user.getId()).stream()
-                .map(projectMapper::toDto)
-                .collect(Collectors.toList());
+        String scope = "projects:user:" + user.getId();
+        int pageSize = cursorPagination.resolveLimit(limit);
+        Cursor after = cursorPagination.decode(scope, cursor);
+
+        List<ProjectDto.Response> projects = after == null
+                ? projectRepository.findResponsesByUserId(user.getId(), cursorPagination.fetchWindow(pageSize))
+                : projectRepository.findResponsesByUserIdAfter(user.getId(), after.getSortKeyAsDateTime(),
+                        after.getId(), cursorPagination.fetchWindow(pageSize));
+
+        CursorPage<ProjectDto.Response> page = cursorPagination.page(projects, pageSize, scope,
+                ProjectDto.Response::getCreatedAt, ProjectDto.Response::getId);
+        if (includeCounts) {
+            addTaskCounts(page.getItems());
+        }
+
+        return page;
     }
 
+    /**
+     * Changes whenever a page of {@link #getAllProjects} without task counts may have changed; the counts
+     * depend on the time through the overdue tasks and have no version.
+     */
     @Override
-    public ProjectDto.Response updateProject(Long id, ProjectDto.Request request) {
+    public String getAllProjectsVersion(String username) {
+        ProjectRepository.ListVersionView version = projectRepository.findListVersionByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+        return version.getOwnerVersion() + "." + version.getProjectCount() + "." + version.getProjectsUpdatedAt();
+    }
+
+    private void addTaskCounts(List<ProjectDto.Response> projects) {
+        if (projects.isEmpty()) {
+            return;
+        }
+
+        // One grouped statement for the whole page rather than a count per project or a load of Project.tasks
+        Map<Long, TaskRepository.ProjectCountsView> counts = taskRepository.countByProjectIdIn(
+                        projects.stream().map(ProjectDto.Response::getId).collect(Collectors.toList()),
+                        LocalDateTime.now(), Task.Status.COMPLETED).stream()
+                .collect(Collectors.toMap(TaskRepository.ProjectCountsView::getProjectId, Function.identity()));
+
+        for (ProjectDto.Response project : projects) {
+            TaskRepository.ProjectCountsView projectCounts = counts.get(project.getId());
+            project.setTaskCount(projectCounts != null ? projectCounts.getTaskCount() : 0L);
+            project.setOpenCount(projectCounts != null ? projectCounts.getOpenCount() : 0L);
+            project.setOverdueCount(projectCounts != null ? projectCounts.getOverdueCount() : 0L);
+        }
+    }
+
+    @Override
+    @Transactional
+    public ProjectDto.Response updateProject(Long id, ProjectDto.Request request, Long expectedVersion) {
+        accessControl.checkProject(id);
+
         Project project = projectRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Project", "id", id));
-
-        checkProjectOwnership(project);
+        if (expectedVersion != null && expectedVersion != project.getVersion()) {
+            throw new PreconditionFailedException("Project", id);
+        }
 
         // Check if name is being changed and if it already exists for this user
-        if (!project.getName().equals(request.getName()) &&
-                projectRepository.existsByNameAndUserId(request.getName(), project.getUser().getId())) {
+        boolean renamed = !project.getName().equals(request.getName());
+        if (renamed && projectRepository.existsByNameAndUserId(request.getName(), project.getUser().getId())) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Project with this name already exists for the user");
         }
 
         project.setName(request.getName());
         project.setDescription(request.getDescription());
 
-        return projectMapper.toDto(projectRepository.save(project));
+        // Flushed so a concurrent change fails here and the response carries the new version
+        Project savedProject = projectRepository.saveAndFlush(project);
+        readCache.projectChanged(id, renamed);
+
+        return projectMapper.toDto(savedProject);
     }
 
     @Override
     public void deleteProject(Long id) {
-        Project project = projectRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Project", "id", id));
-
-        checkProjectOwnership(project);
+        accessControl.checkProject(id);
 
+        // Tasks go first in chunks, so removing the project no longer cascades over all of them in memory
+        chunkedDeleter.deleteTasksOfProject(id);
         projectRepository.deleteById(id);
+        ownershipIndex.projectsRemoved(Collections.singletonList(id));
+        readCache.projectsRemoved(Collections.singletonList(id));
     }
 
     @Override
@@ -107,18 +220,4 @@ public class ProjectServiceImpl implements ProjectService {
 
         return projectRepository.existsByNameAndUserId(name, user.getId());
     }
-
-    private void checkProjectOwnership(Project project) {
-        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
-
-        if (!project.getUser().getUsername().equals(currentUsername) &&
-                !hasAdminRole()) {
-            throw new AccessDeniedException("You don't have permission to access this project");
-        }
-    }
-
-    private boolean hasAdminRole() {
-        return SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
-                .anyMatch(authority -> authority.getAuthority().equals(User.Role.ROLE_ADMIN.name()));
-    }
-}
\ No newline at end of file
+}
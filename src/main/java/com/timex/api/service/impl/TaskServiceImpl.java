@@ -1,148 +1,638 @@
 package com.timex.api.service.impl;
 
+import com.timex.api.cache.ReadCache;
 import com.timex.api.dto.TaskDto;
+import com.timex.api.exception.ApiException;
+import com.timex.api.exception.PreconditionFailedException;
 import com.timex.api.exception.ResourceNotFoundException;
+import com.timex.api.exception.ServiceUnavailableException;
+import com.timex.api.index.ProjectOwnershipIndex;
+import com.timex.api.index.TaskFilterIndex;
+import com.timex.api.index.TaskSearchIndex;
 import com.timex.api.mapper.TaskMapper;
 import com.timex.api.model.Project;
 import com.timex.api.model.Task;
+import com.timex.api.pagination.Cursor;
+import com.timex.api.pagination.CursorPage;
+import com.timex.api.pagination.CursorPagination;
+import com.timex.api.repository.ArchivedTaskRepository;
 import com.timex.api.repository.ProjectRepository;
 import com.timex.api.repository.TaskRepository;
+import com.timex.api.repository.TaskSort;
+import com.timex.api.repository.TaskSpecifications;
+import com.timex.api.security.service.AccessControl;
 import com.timex.api.service.TaskService;
+import com.timex.api.stats.ProjectStatistics;
+import com.timex.api.stats.StatsDelta;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class TaskServiceImpl implements TaskService {
 
+    private static final int STATUS_UPDATE_ATTEMPTS = 3;
+    /** Rows read back at a time after a set-based update, which also bounds the ids bound per statement. */
+    private static final int UPDATED_CHUNK_SIZE = 1000;
+    private static final long SEARCH_RETRY_AFTER_SECONDS = 5;
+
     private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
     private final ProjectRepository projectRepository;
     private final TaskMapper taskMapper;
+    private final CursorPagination cursorPagination;
+    private final Validator validator;
+    private final ProjectStatistics projectStatistics;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskFilterIndex taskFilterIndex;
+    private final ProjectOwnershipIndex ownershipIndex;
+    private final AccessControl accessControl;
+    private final ReadCache readCache;
+
+    @Value("${app.tasks.bulk.max-items:10000}")
+    private int bulkMaxItems;
 
     @Override
+    @Transactional
     public TaskDto.Response createTask(TaskDto.Request request) {
+        accessControl.checkProject(request.getProjectId());
+
         Project project = projectRepository.findById(request.getProjectId())
                 .orElseThrow(() -> new ResourceNotFoundException("Project", "id", request.getProjectId()));
 
-        checkProjectOwnership(project);
-
         Task task = taskMapper.toEntity(request);
         task.setProject(project);
 
-        return taskMapper.toDto(taskRepository.save(task));
+        Task savedTask = taskRepository.save(task);
+        projectStatistics.apply(new StatsDelta().add(savedTask));
+        taskSearchIndex.taskSaved(savedTask);
+        taskFilterIndex.taskSaved(savedTask);
+        ownershipIndex.taskSaved(savedTask.getId(), project.getId());
+        readCache.tasksChanged(Collections.emptyList(), Collections.singletonList(project.getId()));
+
+        return taskMapper.toDto(savedTask);
+    }
+
+    @Override
+    @Transactional
+    public List<TaskDto.BulkResult> saveTasks(List<TaskDto.BulkItem> items) {
+        if (items.size() > bulkMaxItems) {
+            throw new ApiException(HttpStatus.BAD_REQUEST,
+                    "A bulk request can hold at most " + bulkMaxItems + " tasks");
+        }
+
+        TaskDto.BulkResult[] results = new TaskDto.BulkResult[items.size()];
+        Set<Long> projectIds = new HashSet<>();
+        Set<Long> taskIds = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            TaskDto.BulkItem item = items.get(i);
+            String error = validate(item);
+            if (error != null) {
+                results[i] = failure(i, item, HttpStatus.BAD_REQUEST, error);
+                continue;
+            }
+            projectIds.add(item.getTask().getProjectId());
+            if (item.getId() != null) {
+                taskIds.add(item.getId());
+            }
+        }
+
+        // Referenced projects and tasks are loaded with one query each, and ownership is checked on
+        // the owner id of the project, so the cost does not grow with the number of items
+        Map<Long, Project> projects = projectRepository.findAllById(projectIds).stream()
+                .collect(Collectors.toMap(Project::getId, Function.identity()));
+        Map<Long, Task> existingTasks = taskIds.isEmpty() ? Collections.emptyMap()
+                : taskRepository.findAllWithProjectByIdIn(taskIds).stream()
+                        .collect(Collectors.toMap(Task::getId, Function.identity()));
+        Long ownerId = accessControl.isAdmin() ? null : accessControl.currentUserId();
+
+        List<Task> tasks = new ArrayList<>();
+        List<Integer> taskIndexes = new ArrayList<>();
+        Set<Long> changedProjectIds = new HashSet<>();
+        StatsDelta statsDelta = new StatsDelta();
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+
+            TaskDto.BulkItem item = items.get(i);
+            Project project = projects.get(item.getTask().getProjectId());
+            if (project == null) {
+                results[i] = failure(i, item, HttpStatus.NOT_FOUND,
+                        new ResourceNotFoundException("Project", "id", item.getTask().getProjectId()).getMessage());
+                continue;
+            }
+            if (!isOwnedBy(project, ownerId)) {
+                results[i] = failure(i, item, HttpStatus.FORBIDDEN,
+                        "You don't have permission to access this project");
+                continue;
+            }
+
+            Task task;
+            if (item.getId() == null) {
+                task = taskMapper.toEntity(item.getTask());
+            } else {
+                task = existingTasks.get(item.getId());
+                if (task == null) {
+                    results[i] = failure(i, item, HttpStatus.NOT_FOUND,
+                            new ResourceNotFoundException("Task", "id", item.getId()).getMessage());
+                    continue;
+                }
+                if (!isOwnedBy(task.getProject(), ownerId)) {
+                    results[i] = failure(i, item, HttpStatus.FORBIDDEN,
+                            "You don't have permission to access this project");
+                    continue;
+                }
+                statsDelta.remove(task);
+                changedProjectIds.add(task.getProject().getId());
+                applyRequest(task, item.getTask());
+            }
+            task.setProject(project);
+            changedProjectIds.add(project.getId());
+
+            tasks.add(task);
+            taskIndexes.add(i);
+        }
+
+        // Inserts and updates go out as JDBC batches of hibernate.jdbc.batch_size on flush
+        taskRepository.saveAll(tasks);
+        taskRepository.flush();
+
+        tasks.forEach(statsDelta::add);
+        projectStatistics.apply(statsDelta);
+        tasks.forEach(taskSearchIndex::taskSaved);
+        tasks.forEach(taskFilterIndex::taskSaved);
+        tasks.forEach(task -> ownershipIndex.taskSaved(task.getId(), task.getProject().getId()));
+        readCache.tasksChanged(tasks.stream().map(Task::getId).collect(Collectors.toList()), changedProjectIds);
+
+        for (int j = 0; j < tasks.size(); j++) {
+            int index = taskIndexes.get(j);
+            Task task = tasks.get(j);
+            results[index] = TaskDto.BulkResult.builder()
+                    .index(index)
+                    .status(items.get(index).getId() == null ? HttpStatus.CREATED.value() : HttpStatus.OK.value())
+                    .id(task.getId())
+                    .task(taskMapper.toDto(task))
+                    .build();
+        }
+
+        return Arrays.asList(results);
     }
 
     @Override
     public TaskDto.Response getTaskById(Long id) {
-        Task task = taskRepository.findById(id)
+        accessControl.checkTask(id);
+
+        long version = readCache.tasks().version();
+        TaskDto.Response cached = readCache.tasks().get(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        TaskDto.Response task = taskRepository.findResponseById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Task", "id", id));
+        readCache.tasks().put(id, task.getProjectId(), task, version);
+        return task;
+    }
 
-        checkProjectOwnership(task.getProject());
+    @Override
+    public CursorPage<TaskDto.Response> getTasksByProjectId(Long projectId, boolean includeArchived, String cursor,
+            Integer limit) {
+        accessControl.checkProject(projectId);
+
+        String scope = "tasks:project:" + projectId + (includeArchived ? ":archived" : "");
+        int pageSize = cursorPagination.resolveLimit(limit);
+        Cursor after = cursorPagination.decode(scope, cursor);
+
+        List<TaskDto.Response> tasks = after == null
+                ? taskRepository.findResponsesByProjectId(projectId, cursorPagination.fetchWindow(pageSize))
+                : taskRepository.findResponsesByProjectIdAfter(projectId, after.getSortKeyAsDateTime(),
+                        after.getId(), cursorPagination.fetchWindow(pageSize));
+
+        // The archive is only read on request; both windows share the keyset order, so merging them and
+        // keeping the first rows yields the same page as one table holding all tasks would
+        if (includeArchived) {
+            List<TaskDto.Response> archived = after == null
+                    ? archivedTaskRepository.findResponsesByProjectId(projectId,
+                            cursorPagination.fetchWindow(pageSize))
+                    : archivedTaskRepository.findResponsesByProjectIdAfter(projectId, after.getSortKeyAsDateTime(),
+                            after.getId(), cursorPagination.fetchWindow(pageSize));
+            tasks = Stream.concat(tasks.stream(), archived.stream())
+                    .sorted(Comparator.comparing(TaskDto.Response::getCreatedAt)
+                            .thenComparing(TaskDto.Response::getId))
+                    .limit(pageSize + 1L)
+                    .collect(Collectors.toList());
+        }
 
-        return taskMapper.toDto(task);
+        return cursorPagination.page(tasks, pageSize, scope, TaskDto.Response::getCreatedAt,
+                TaskDto.Response::getId);
     }
 
+    /**
+     * Changes whenever a page of {@link #getTasksByProjectId} may have changed, without reading the tasks:
+     * the project carries the name shown in the responses, the count and latest {@code updatedAt} cover
+     * every task write.
+     */
     @Override
-    public List<TaskDto.Response> getTasksByProjectId(Long projectId) {
-        Project project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new ResourceNotFoundException("Project", "id", projectId));
+    public String getTasksByProjectIdVersion(Long projectId, boolean includeArchived) {
+        accessControl.checkProject(projectId);
 
-        checkProjectOwnership(project);
+        ProjectRepository.ContentVersionView version = projectRepository.findContentVersionById(projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Project", "id", projectId));
+        String hot = version.getProjectUpdatedAt() + "." + version.getTaskCount() + "." + version.getTasksUpdatedAt();
+        return includeArchived ? hot + "." + archivedTaskRepository.countByProjectId(projectId) : hot;
+    }
 
-        return taskRepository.findByProjectId(projectId).stream()
-                .map(taskMapper::toDto)
-                .collect(Collectors.toList());
+    @Override
+    public CursorPage<TaskDto.Response> getTasksByProjectIdAndStatus(Long projectId, Task.Status status,
+            String cursor, Integer limit) {
+        accessControl.checkProject(projectId);
+
+        String scope = "tasks:project:" + projectId + ":status:" + status;
+        int pageSize = cursorPagination.resolveLimit(limit);
+        Cursor after = cursorPagination.decode(scope, cursor);
+
+        List<TaskDto.Response> tasks = after == null
+                ? taskRepository.findResponsesByProjectIdAndStatus(projectId, status,
+                        cursorPagination.fetchWindow(pageSize))
+                : taskRepository.findResponsesByProjectIdAndStatusAfter(projectId, status,
+                        after.getSortKeyAsDateTime(), after.getId(), cursorPagination.fetchWindow(pageSize));
+
+        return cursorPagination.page(tasks, pageSize, scope, TaskDto.Response::getCreatedAt,
+                TaskDto.Response::getId);
     }
 
     @Override
-    public List<TaskDto.Response> getTasksByProjectIdAndStatus(Long projectId, Task.Status status) {
-        Project project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new ResourceNotFoundException("Project", "id", projectId));
+    public CursorPage<TaskDto.Response> getTasksDueBeforeDate(LocalDateTime dateTime, String cursor, Integer limit) {
+        // Admins see every task; everyone else only tasks of projects they own
+        Long ownerId = accessControl.isAdmin() ? null : accessControl.currentUserId();
+
+        String scope = "tasks:due-before:" + dateTime + ":owner:" + ownerId;
+        int pageSize = cursorPagination.resolveLimit(limit);
+        Cursor after = cursorPagination.decode(scope, cursor);
+
+        List<TaskDto.Response> tasks;
+        if (ownerId == null) {
+            tasks = after == null
+                    ? taskRepository.findResponsesDueBefore(dateTime, cursorPagination.fetchWindow(pageSize))
+                    : taskRepository.findResponsesDueBeforeAfter(dateTime, after.getSortKeyAsDateTime(),
+                            after.getId(), cursorPagination.fetchWindow(pageSize));
+        } else {
+            tasks = after == null
+                    ? taskRepository.findResponsesDueBeforeByOwner(ownerId, dateTime,
+                            cursorPagination.fetchWindow(pageSize))
+                    : taskRepository.findResponsesDueBeforeByOwnerAfter(ownerId, dateTime,
+                            after.getSortKeyAsDateTime(), after.getId(), cursorPagination.fetchWindow(pageSize));
+        }
+
+        return cursorPagination.page(tasks, pageSize, scope, TaskDto.Response::getDueDate,
+                TaskDto.Response::getId);
+    }
 
-        checkProjectOwnership(project);
+    @Override
+    public CursorPage<TaskDto.Response> filterTasks(Long projectId, Task.Status status, Integer priority,
+            LocalDateTime dueFrom, LocalDateTime dueTo, String cursor, Integer limit) {
+        if (projectId != null) {
+            accessControl.checkProject(projectId);
+        }
+        Long ownerId = accessControl.isAdmin() ? null : accessControl.currentUserId();
+
+        String scope = "tasks:filter:" + projectId + ":" + status + ":" + priority + ":" + dueFrom + ":" + dueTo
+                + ":owner:" + ownerId;
+        int pageSize = cursorPagination.resolveLimit(limit);
+        Cursor after = cursorPagination.decode(scope, cursor);
+        Long afterId = after == null ? 0L : after.getId();
+
+        // The index picks the page by intersecting its bitmaps, so only those rows are read; while it is
+        // loading the same page comes from one general query
+        List<Long> ids = taskFilterIndex.filter(ownerId, projectId, status, priority, dueFrom, dueTo, afterId,
+                pageSize + 1);
+        if (ids == null) {
+            List<TaskDto.Response> tasks = taskRepository.findResponsesMatching(ownerId, projectId, status,
+                    priority, dueFrom, dueTo, afterId, cursorPagination.fetchWindow(pageSize));
+            return cursorPagination.page(tasks, pageSize, scope, TaskDto.Response::getId, TaskDto.Response::getId);
+        }
+        if (ids.isEmpty()) {
+            return new CursorPage<>(new ArrayList<>(), null);
+        }
 
-        return taskRepository.findByProjectIdAndStatus(projectId, status).stream()
-                .map(taskMapper::toDto)
+        // The rows are filtered again, so an index entry older than its row never leaks a task. The next
+        // page is decided by the ids, so a dropped entry shortens this page without ending the walk
+        List<Long> pageIds = ids.size() > pageSize ? ids.subList(0, pageSize) : ids;
+        Map<Long, TaskDto.Response> rows = taskRepository.findResponsesMatchingIdIn(pageIds, ownerId, projectId,
+                        status, priority, dueFrom, dueTo).stream()
+                .collect(Collectors.toMap(TaskDto.Response::getId, Function.identity()));
+        List<TaskDto.Response> tasks = pageIds.stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        Long lastId = pageIds.get(pageIds.size() - 1);
+        String nextCursor = ids.size() > pageSize ? cursorPagination.encode(scope, lastId, lastId) : null;
+        return new CursorPage<>(tasks, nextCursor);
+    }
+
+    @Override
+    public CursorPage<TaskDto.Response> queryTasks(TaskDto.Query query, String sort, String cursor, Integer limit) {
+        accessControl.checkProject(query.getProjectId());
+
+        // Rejected here unless an index on the project and the sort keys serves it
+        TaskSort taskSort = TaskSort.parse(sort);
+        taskSort.checkFilters(query);
+        Set<Task.Status> statuses = query.getStatuses() == null || query.getStatuses().isEmpty() ? null
+                : EnumSet.copyOf(query.getStatuses());
+
+        String scope = "tasks:query:" + query.getProjectId() + ":" + statuses + ":" + query.getPriorityMin()
+                + ":" + query.getPriorityMax() + ":" + query.getDueFrom() + ":" + query.getDueTo() + ":"
+                + query.getUpdatedSince() + ":" + query.getText() + ":sort:" + taskSort;
+        int pageSize = cursorPagination.resolveLimit(limit);
+        Cursor after = cursorPagination.decode(scope, cursor);
+
+        Specification<Task> filter = Specification.where(TaskSpecifications.inProject(query.getProjectId()))
+                .and(TaskSpecifications.statusIn(statuses))
+                .and(TaskSpecifications.priorityBetween(query.getPriorityMin(), query.getPriorityMax()))
+                .and(TaskSpecifications.dueBetween(query.getDueFrom(), query.getDueTo()))
+                .and(TaskSpecifications.updatedSince(query.getUpdatedSince()))
+                .and(TaskSpecifications.textContains(query.getText()))
+                .and(taskSort.hasKeys())
+                .and(after == null ? null : taskSort.after(after.getSortKey(), after.getId()));
+
+        List<TaskDto.Response> tasks = taskRepository.findResponses(filter, taskSort, pageSize + 1);
+
+        return cursorPagination.page(tasks, pageSize, scope, taskSort::cursorKey, TaskDto.Response::getId);
     }
 
     @Override
-    public List<TaskDto.Response> getTasksDueBeforeDate(LocalDateTime dateTime) {
-        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
+    public List<TaskDto.Response> searchTasks(String query, Integer limit) {
+        Long ownerId = accessControl.currentUserId();
+        List<Long> ids = taskSearchIndex.search(ownerId, query, cursorPagination.resolveLimit(limit));
+        if (ids == null) {
+            throw new ServiceUnavailableException("Task search is starting up, please retry",
+                    SEARCH_RETRY_AFTER_SECONDS);
+        }
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        return taskRepository.findByDueDateBefore(dateTime).stream()
-                .filter(task -> task.getProject().getUser().getUsername().equals(currentUsername) || hasAdminRole())
-                .map(taskMapper::toDto)
+        // The index picks and orders the tasks; the rows are read fresh and checked against the owner again
+        Map<Long, TaskDto.Response> tasks = taskRepository.findResponsesByIdInAndOwner(ids, ownerId).stream()
+                .collect(Collectors.toMap(TaskDto.Response::getId, Function.identity()));
+        return ids.stream()
+                .map(tasks::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public TaskDto.Response updateTask(Long id, TaskDto.Request request) {
+    @Transactional
+    public TaskDto.Response updateTask(Long id, TaskDto.Request request, Long expectedVersion) {
+        accessControl.checkTask(id);
+
         Task task = taskRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Task", "id", id));
+        if (expectedVersion != null && expectedVersion != task.getVersion()) {
+            throw new PreconditionFailedException("Task", id);
+        }
 
-        checkProjectOwnership(task.getProject());
+        StatsDelta statsDelta = new StatsDelta().remove(task);
+        Long previousProjectId = task.getProject().getId();
 
         // Check if project is being changed
-        if (!task.getProject().getId().equals(request.getProjectId())) {
+        boolean moved = !task.getProject().getId().equals(request.getProjectId());
+        if (moved) {
+            // Check if user has access to the new project
+            accessControl.checkProject(request.getProjectId());
+
             Project newProject = projectRepository.findById(request.getProjectId())
                     .orElseThrow(() -> new ResourceNotFoundException("Project", "id", request.getProjectId()));
 
-            // Check if user has access to the new project
-            checkProjectOwnership(newProject);
-
             task.setProject(newProject);
         }
 
-        task.setTitle(request.getTitle());
-        task.setDescription(request.getDescription());
-        task.setStatus(request.getStatus());
-        task.setPriority(request.getPriority());
-        task.setEstimatedHours(request.getEstimatedHours());
-        task.setActualHours(request.getActualHours());
-        task.setDueDate(request.getDueDate());
+        applyRequest(task, request);
 
-        return taskMapper.toDto(taskRepository.save(task));
+        // Flushed so a concurrent change fails here and the response carries the new version
+        Task savedTask = taskRepository.saveAndFlush(task);
+        projectStatistics.apply(statsDelta.add(savedTask));
+        taskSearchIndex.taskSaved(savedTask);
+        taskFilterIndex.taskSaved(savedTask);
+        if (moved) {
+            ownershipIndex.taskSaved(id, request.getProjectId());
+        }
+        readCache.tasksChanged(Collections.singletonList(id),
+                moved ? List.of(previousProjectId, request.getProjectId()) : List.of(previousProjectId));
+
+        return taskMapper.toDto(savedTask);
     }
 
     @Override
-    public TaskDto.Response updateTaskStatus(Long id, Task.Status status) {
-        Task task = taskRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", id));
+    @Transactional
+    public TaskDto.Response updateTaskStatus(Long id, Task.Status status, Long expectedVersion) {
+        // One read of the row as a response, then one conditional UPDATE that checks ownership and that
+        // the version is still the one read, so the statistics delta stays exact under concurrent changes
+        Long ownerId = accessControl.isAdmin() ? null : accessControl.currentUserId();
+
+        for (int attempt = 0; attempt < STATUS_UPDATE_ATTEMPTS; attempt++) {
+            TaskDto.Response task = taskRepository.findResponseById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Task", "id", id));
+            long version = task.getVersion();
+            if (expectedVersion != null && expectedVersion != version) {
+                throw new PreconditionFailedException("Task", id);
+            }
+            LocalDateTime now = LocalDateTime.now();
+
+            int updated = ownerId == null
+                    ? taskRepository.updateStatus(id, version, status, now)
+                    : taskRepository.updateStatusForOwner(id, version, status, now, ownerId);
+
+            if (updated == 1) {
+                projectStatistics.apply(new StatsDelta()
+                        .remove(task.getProjectId(), task.getStatus(), task.getEstimatedHours(), task.getActualHours())
+                        .add(task.getProjectId(), status, task.getEstimatedHours(), task.getActualHours()));
+                taskFilterIndex.statusChanged(id, status);
+                readCache.tasksChanged(Collections.singletonList(id), Collections.singletonList(task.getProjectId()));
+                task.setStatus(status);
+                task.setUpdatedAt(now);
+                task.setVersion(version + 1);
+                return task;
+            }
+            if (ownerId != null && !accessControl.canAccessProject(task.getProjectId())) {
+                throw new AccessDeniedException("You don't have permission to access this project");
+            }
+            // Someone else changed the task since it was read; read it again unless the client pinned a version
+            if (expectedVersion != null) {
+                throw new PreconditionFailedException("Task", id);
+            }
+        }
+
+        throw new ApiException(HttpStatus.CONFLICT, "The task status is being changed concurrently, please retry");
+    }
 
-        checkProjectOwnership(task.getProject());
+    @Override
+    @Transactional
+    public TaskDto.BulkUpdateResult updateTasksStatus(Long projectId, Task.Status status, LocalDateTime dueFrom,
+            LocalDateTime dueTo, Task.Status newStatus) {
+        accessControl.checkProject(projectId);
+
+        LocalDateTime now = stamp();
+        int affected = taskRepository.updateStatusWhere(projectId, status, dueFrom, dueTo, newStatus, now);
+        projectStatistics.rebuild(projectId);
+        forEachUpdated(projectId, now, taskFilterIndex::tasksSaved);
+        readCache.tasksOfProjectChanged(projectId);
+
+        return new TaskDto.BulkUpdateResult(affected);
+    }
 
-        task.setStatus(status);
+    @Override
+    @Transactional
+    public TaskDto.BulkUpdateResult moveTasks(Long projectId, Task.Status status, LocalDateTime dueFrom,
+            LocalDateTime dueTo, Long targetProjectId) {
+        if (projectId.equals(targetProjectId)) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Target project must differ from the source project");
+        }
 
-        return taskMapper.toDto(taskRepository.save(task));
+        accessControl.checkProject(projectId);
+        accessControl.checkProject(targetProjectId);
+
+        // Only an admin can move tasks to another owner; their postings move to that owner's shard
+        boolean ownerChanged = accessControl.ownerOf(projectId) != accessControl.ownerOf(targetProjectId);
+        LocalDateTime now = stamp();
+        // Only the id of the target is bound, so a reference is enough
+        int affected = taskRepository.moveWhere(projectId, status, dueFrom, dueTo,
+                projectRepository.getReferenceById(targetProjectId), now);
+        forEachUpdated(targetProjectId, now, rows -> {
+            taskFilterIndex.tasksSaved(rows);
+            rows.forEach(row -> ownershipIndex.taskSaved(row.getId(), row.getProjectId()));
+            if (ownerChanged) {
+                taskSearchIndex.tasksSaved(taskRepository.findSearchDocumentsByIdIn(rows.stream()
+                        .map(TaskRepository.FilterRowView::getId)
+                        .collect(Collectors.toList())));
+            }
+        });
+        projectStatistics.rebuild(projectId);
+        projectStatistics.rebuild(targetProjectId);
+        readCache.tasksMoved(projectId, targetProjectId);
+
+        return new TaskDto.BulkUpdateResult(affected);
     }
 
     @Override
+    @Transactional
     public void deleteTask(Long id) {
+        accessControl.checkTask(id);
+
         Task task = taskRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Task", "id", id));
 
-        checkProjectOwnership(task.getProject());
-
         taskRepository.deleteById(id);
+        projectStatistics.apply(new StatsDelta().remove(task));
+        taskSearchIndex.tasksRemoved(Collections.singletonList(id));
+        taskFilterIndex.tasksRemoved(Collections.singletonList(id));
+        ownershipIndex.tasksRemoved(Collections.singletonList(id));
+        readCache.tasksChanged(Collections.singletonList(id), Collections.singletonList(task.getProject().getId()));
+    }
+
+    /**
+     * The update time a set-based update writes, at the microseconds the column keeps, so the rows it changed
+     * can be read back by it.
+     */
+    private static LocalDateTime stamp() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /**
+     * Hands the rows a set-based update stamped with {@code updatedAt} to {@code action} a chunk at a time. The
+     * update still holds their locks, so they are read as it left them.
+     */
+    private void forEachUpdated(Long projectId, LocalDateTime updatedAt,
+            Consumer<List<TaskRepository.FilterRowView>> action) {
+        Long afterId = 0L;
+        List<TaskRepository.FilterRowView> rows;
+        do {
+            rows = taskRepository.findFilterRowsUpdatedAt(projectId, updatedAt, afterId,
+                    PageRequest.of(0, UPDATED_CHUNK_SIZE));
+            if (!rows.isEmpty()) {
+                action.accept(rows);
+                afterId = rows.get(rows.size() - 1).getId();
+            }
+        } while (rows.size() == UPDATED_CHUNK_SIZE);
+    }
+
+    private void applyRequest(Task task, TaskDto.Request request) {
+        task.setTitle(request.getTitle());
+        task.setDescription(request.getDescription());
+        // Omitted status and priority keep the stored values; both columns are NOT NULL
+        if (request.getStatus() != null) {
+            task.setStatus(request.getStatus());
+        }
+        if (request.getPriority() != null) {
+            task.setPriority(request.getPriority());
+        }
+        task.setEstimatedHours(request.getEstimatedHours());
+        task.setActualHours(request.getActualHours());
+        task.setDueDate(request.getDueDate());
     }
 
-    private void checkProjectOwnership(Project project) {
-        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
+    private String validate(TaskDto.BulkItem item) {
+        if (item == null || item.getTask() == null) {
+            return "Task is required";
+        }
+        if (item.getTask().getProjectId() == null) {
+            return "Project id is required";
+        }
+        if (item.getId() == null && item.getTask().getPriority() == null) {
+            // New tasks have no stored priority to keep, and one null would fail the whole batch on flush
+            return "priority: Priority is required";
+        }
 
-        if (!project.getUser().getUsername().equals(currentUsername) && !hasAdminRole()) {
-            throw new AccessDeniedException("You don't have permission to access this project");
+        Set<ConstraintViolation<TaskDto.Request>> violations = validator.validate(item.getTask());
+        if (violations.isEmpty()) {
+            return null;
         }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private TaskDto.BulkResult failure(int index, TaskDto.BulkItem item, HttpStatus status, String error) {
+        return TaskDto.BulkResult.builder()
+                .index(index)
+                .status(status.value())
+                .id(item != null ? item.getId() : null)
+                .error(error)
+                .build();
     }
 
-    private boolean hasAdminRole() {
-        return SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
-                .anyMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN"));
+    /**
+     * Compares owner ids only; the owner proxy of the project is never initialized. A null owner id
+     * stands for an admin, who may access every project.
+     */
+    private boolean isOwnedBy(Project project, Long ownerId) {
+        return ownerId == null || ownerId.equals(project.getUser().getId());
     }
-}
\ No newline at end of file
+}
@@ -1,16 +1,32 @@
 package com.timex.api.service.impl;
 
+import com.timex.api.cache.InvalidationBus;
+import com.timex.api.cache.InvalidationKey;
+import com.timex.api.cache.ReadCache;
 import com.timex.api.dto.UserDto;
 import com.timex.api.exception.ApiException;
 import com.timex.api.exception.ResourceNotFoundException;
+import com.timex.api.index.AccountAvailabilityIndex;
 import com.timex.api.mapper.UserMapper;
+import com.timex.api.model.Task;
 import com.timex.api.model.User;
+import com.timex.api.pagination.Cursor;
+import com.timex.api.pagination.CursorPage;
+import com.timex.api.pagination.CursorPagination;
+import com.timex.api.repository.ProjectRepository;
+import com.timex.api.repository.TaskRepository;
 import com.timex.api.repository.UserRepository;
 import com.timex.api.security.jwt.JwtUtils;
+import com.timex.api.security.service.CredentialHashingExecutor;
+import com.timex.api.security.service.TokenVersionRegistry;
 import com.timex.api.security.service.UserDetailsImpl;
 import com.timex.api.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -18,22 +34,39 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final ProjectRepository projectRepository;
+    private final TaskRepository taskRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final CredentialHashingExecutor credentialHashingExecutor;
+    private final AccountAvailabilityIndex accountAvailabilityIndex;
+    private final CursorPagination cursorPagination;
+    private final ChunkedDeleter chunkedDeleter;
+    private final ReadCache readCache;
+    private final InvalidationBus invalidationBus;
+
+    @Value("${app.users.summary.next-due-limit:5}")
+    private int summaryNextDueLimit;
 
     @Override
     public UserDto.Response registerUser(UserDto.Request request) {
+        // Checked against the database: the availability filters may not know yet of accounts taken elsewhere
         if (userRepository.existsByUsername(request.getUsername())) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Username is already taken");
         }
@@ -43,30 +76,30 @@ public class UserServiceImpl implements UserService {
         }
 
         User user = userMapper.toEntity(request);
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(credentialHashingExecutor.execute(() -> passwordEncoder.encode(request.getPassword())));
         user.setRoles(Collections.singleton(User.Role.ROLE_USER));
 
-        return userMapper.toDto(userRepository.save(user));
+        User savedUser = saveAccount(user);
+        invalidationBus.publish(List.of(InvalidationKey.of(InvalidationKey.Kind.ACCOUNT, savedUser.getId())));
+
+        return userMapper.toDto(savedUser);
     }
 
     @Override
     public UserDto.LoginResponse authenticateUser(UserDto.LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
+        Authentication authentication = credentialHashingExecutor.execute(() -> authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         loginRequest.getUsername(),
-                        loginRequest.getPassword()));
+                        loginRequest.getPassword())));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = jwtUtils.generateJwtToken(authentication);
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
-        User user = userRepository.findById(userDetails.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userDetails.getId()));
-
         return UserDto.LoginResponse.builder()
                 .token(jwt)
                 .tokenType("Bearer")
-                .user(userMapper.toDto(user))
+                .user(userMapper.toDto(userDetails))
                 .build();
     }
 
@@ -79,10 +112,17 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public List<UserDto.Response> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(userMapper::toDto)
-                .collect(Collectors.toList());
+    public CursorPage<UserDto.Response> getAllUsers(String cursor, Integer limit) {
+        String scope = "users";
+        int pageSize = cursorPagination.resolveLimit(limit);
+        Cursor after = cursorPagination.decode(scope, cursor);
+
+        List<User> users = after == null
+                ? userRepository.findAllByOrderByUsernameAscIdAsc(cursorPagination.fetchWindow(pageSize))
+                : userRepository.findAllAfter(after.getSortKey(), after.getId(), cursorPagination.fetchWindow(pageSize));
+
+        return cursorPagination.page(users, pageSize, scope, User::getUsername, User::getId)
+                .map(userMapper::toDto);
     }
 
     @Override
@@ -93,19 +133,61 @@ public class UserServiceImpl implements UserService {
         return userMapper.toDto(user);
     }
 
+    @Override
+    public UserDto.Summary getCurrentUserSummary() {
+        Long userId = currentUserId();
+        LocalDateTime now = LocalDateTime.now();
+
+        // Every count and total comes from one grouped query over the tasks joined to the projects, and the
+        // next due tasks from one bounded query, instead of a request per project
+        Map<Long, UserDto.ProjectSummary> projects = new LinkedHashMap<>();
+        for (ProjectRepository.SummaryView row
+                : projectRepository.summarizeByUserId(userId, now, Task.Status.COMPLETED)) {
+            UserDto.ProjectSummary project = projects.computeIfAbsent(row.getProjectId(),
+                    id -> emptyProjectSummary(row));
+            if (row.getStatus() == null) {
+                continue;
+            }
+            project.getCountsByStatus().put(row.getStatus(), row.getTaskCount());
+            project.setTaskCount(project.getTaskCount() + row.getTaskCount());
+            project.setOverdueCount(project.getOverdueCount() + row.getOverdueCount());
+            project.setEstimatedHours(project.getEstimatedHours() + nullToZero(row.getEstimatedHours()));
+            project.setActualHours(project.getActualHours() + nullToZero(row.getActualHours()));
+            if (row.getNextDueDate() != null
+                    && (project.getNextDueDate() == null || row.getNextDueDate().isBefore(project.getNextDueDate()))) {
+                project.setNextDueDate(row.getNextDueDate());
+            }
+        }
+
+        UserDto.Summary summary = UserDto.Summary.builder()
+                .projects(new ArrayList<>(projects.values()))
+                .nextDue(taskRepository.findResponsesNextDueByOwner(userId, now, Task.Status.COMPLETED,
+                        PageRequest.of(0, summaryNextDueLimit)))
+                .build();
+        for (UserDto.ProjectSummary project : summary.getProjects()) {
+            summary.setTaskCount(summary.getTaskCount() + project.getTaskCount());
+            summary.setOverdueCount(summary.getOverdueCount() + project.getOverdueCount());
+            summary.setEstimatedHours(summary.getEstimatedHours() + project.getEstimatedHours());
+            summary.setActualHours(summary.getActualHours() + project.getActualHours());
+        }
+
+        return summary;
+    }
+
     @Override
     public UserDto.Response updateUser(Long id, UserDto.Request request) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
 
         // Check if username is being changed and if it's already taken
-        if (!user.getUsername().equals(request.getUsername())
-                && userRepository.existsByUsername(request.getUsername())) {
+        boolean usernameChanged = !user.getUsername().equals(request.getUsername());
+        if (usernameChanged && userRepository.existsByUsername(request.getUsername())) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Username is already taken");
         }
 
         // Check if email is being changed and if it's already in use
-        if (!user.getEmail().equals(request.getEmail()) && userRepository.existsByEmail(request.getEmail())) {
+        boolean emailChanged = !user.getEmail().equals(request.getEmail());
+        if (emailChanged && userRepository.existsByEmail(request.getEmail())) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Email is already in use");
         }
 
@@ -115,10 +197,25 @@ public class UserServiceImpl implements UserService {
 
         // Only update password if it's provided and not empty
         if (request.getPassword() != null && !request.getPassword().isEmpty()) {
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
+            user.setPassword(credentialHashingExecutor.execute(() -> passwordEncoder.encode(request.getPassword())));
+        }
+
+        // Tokens issued before this change must no longer be trusted on their claims alone
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        User savedUser = saveAccount(user);
+        tokenVersionRegistry.update(savedUser.getId(), savedUser.getTokenVersion());
+        invalidationBus.publish(List.of(InvalidationKey.of(InvalidationKey.Kind.USER, savedUser.getId())));
+
+        if (usernameChanged || emailChanged) {
+            invalidationBus.publish(List.of(InvalidationKey.of(InvalidationKey.Kind.ACCOUNT, savedUser.getId())));
+            accountAvailabilityIndex.accountRemoved();
+        }
+        if (usernameChanged) {
+            // Project responses show the owner's username
+            readCache.ownerChanged(savedUser.getId());
         }
 
-        return userMapper.toDto(userRepository.save(user));
+        return userMapper.toDto(savedUser);
     }
 
     @Override
@@ -127,16 +224,62 @@ public class UserServiceImpl implements UserService {
             throw new ResourceNotFoundException("User", "id", id);
         }
 
+        // Tasks and projects go first in chunks, so removing the user no longer cascades over them in memory
+        chunkedDeleter.deleteProjectsOfUser(id);
         userRepository.deleteById(id);
+        tokenVersionRegistry.revoke(id);
+        invalidationBus.publish(List.of(InvalidationKey.of(InvalidationKey.Kind.USER, id)));
+        accountAvailabilityIndex.accountRemoved();
     }
 
     @Override
     public boolean existsByUsername(String username) {
-        return userRepository.existsByUsername(username);
+        return accountAvailabilityIndex.isUsernameTaken(username);
     }
 
     @Override
     public boolean existsByEmail(String email) {
-        return userRepository.existsByEmail(email);
+        return accountAvailabilityIndex.isEmailTaken(email);
+    }
+
+    @Override
+    public void rebuildAvailabilityIndex() {
+        accountAvailabilityIndex.rebuild();
+    }
+
+    private User saveAccount(User user) {
+        try {
+            return userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // Taken concurrently, here or on another instance, after the checks above
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Username or email is already taken");
+        }
+    }
+
+    private static UserDto.ProjectSummary emptyProjectSummary(ProjectRepository.SummaryView row) {
+        Map<Task.Status, Long> countsByStatus = new EnumMap<>(Task.Status.class);
+        for (Task.Status status : Task.Status.values()) {
+            countsByStatus.put(status, 0L);
+        }
+
+        return UserDto.ProjectSummary.builder()
+                .projectId(row.getProjectId())
+                .projectName(row.getProjectName())
+                .countsByStatus(countsByStatus)
+                .build();
+    }
+
+    private static double nullToZero(Double value) {
+        return value != null ? value : 0;
+    }
+
+    private Long currentUserId() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+        if (!(principal instanceof UserDetailsImpl)) {
+            throw new AccessDeniedException("You don't have permission to access this summary");
+        }
+
+        return ((UserDetailsImpl) principal).getId();
     }
-}
\ No newline at end of file
+}
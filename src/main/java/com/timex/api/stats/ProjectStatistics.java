@@ -0,0 +1,163 @@
+package com.timex.api.stats;
+
+import com.timex.api.dto.ProjectDto;
+import com.timex.api.model.ProjectStats;
+import com.timex.api.model.Task;
+import com.timex.api.repository.ArchivedTaskRepository;
+import com.timex.api.repository.ProjectRepository;
+import com.timex.api.repository.ProjectStatsRepository;
+import com.timex.api.repository.TaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps one {@link ProjectStats} row per project and status. Task writes apply a {@link StatsDelta}
+ * in their own transaction with relative updates, so reading the statistics of a project costs the
+ * same whatever its size. Set-based writes and the nightly repair job recompute from the tasks instead.
+ */
+@Component
+@Slf4j
+public class ProjectStatistics {
+
+    private static final int REPAIR_CHUNK_SIZE = 500;
+
+    private final ProjectStatsRepository projectStatsRepository;
+    private final ProjectRepository projectRepository;
+    private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public ProjectStatistics(ProjectStatsRepository projectStatsRepository, ProjectRepository projectRepository,
+            TaskRepository taskRepository, ArchivedTaskRepository archivedTaskRepository,
+            PlatformTransactionManager transactionManager) {
+        this.projectStatsRepository = projectStatsRepository;
+        this.projectRepository = projectRepository;
+        this.taskRepository = taskRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Creates the zero rows of a new project, so later deltas only ever update existing rows.
+     */
+    public void initialize(Long projectId) {
+        for (Task.Status status : Task.Status.values()) {
+            projectStatsRepository.insert(projectId, status.name(), 0, 0, 0);
+        }
+    }
+
+    /**
+     * Must run inside the transaction of the write that caused the delta. A status change touches two
+     * rows of one project and is applied in a single statement.
+     */
+    public void apply(StatsDelta delta) {
+        delta.forEachProject((projectId, changes) -> {
+            int updated = 0;
+            if (changes.size() == 2) {
+                Iterator<Map.Entry<Task.Status, double[]>> entries = changes.entrySet().iterator();
+                Map.Entry<Task.Status, double[]> first = entries.next();
+                Map.Entry<Task.Status, double[]> second = entries.next();
+                updated = projectStatsRepository.incrementPair(projectId,
+                        first.getKey(), (long) first.getValue()[0], first.getValue()[1], first.getValue()[2],
+                        second.getKey(), (long) second.getValue()[0], second.getValue()[1], second.getValue()[2]);
+            } else {
+                for (Map.Entry<Task.Status, double[]> change : changes.entrySet()) {
+                    double[] totals = change.getValue();
+                    updated += projectStatsRepository.increment(projectId, change.getKey(), (long) totals[0],
+                            totals[1], totals[2]);
+                }
+            }
+            if (updated < changes.size()) {
+                // Rows missing, e.g. for a project saved outside the service layer: a delta cannot stand in
+                // for an absolute value, so recompute the project from its tasks, which include this write
+                rebuild(projectId);
+            }
+        });
+    }
+
+    /**
+     * Recomputes the rows of one project from its hot and archived tasks.
+     */
+    public void rebuild(Long projectId) {
+        Map<Task.Status, double[]> rows = new EnumMap<>(Task.Status.class);
+        for (Task.Status status : Task.Status.values()) {
+            rows.put(status, new double[3]);
+        }
+
+        List<ProjectStatsRepository.StatusTotalsView> totals = new ArrayList<>(taskRepository.sumByStatus(projectId));
+        totals.addAll(archivedTaskRepository.sumByStatus(projectId));
+        for (ProjectStatsRepository.StatusTotalsView view : totals) {
+            double[] row = rows.get(view.getStatus());
+            row[0] += view.getTaskCount();
+            row[1] += nullToZero(view.getEstimatedHours());
+            row[2] += nullToZero(view.getActualHours());
+        }
+
+        rows.forEach((status, row) -> {
+            if (projectStatsRepository.overwrite(projectId, status, (long) row[0], row[1], row[2]) == 0) {
+                projectStatsRepository.insert(projectId, status.name(), (long) row[0], row[1], row[2]);
+            }
+        });
+    }
+
+    public ProjectDto.Stats read(Long projectId) {
+        Map<Task.Status, ProjectDto.StatusStats> byStatus = new EnumMap<>(Task.Status.class);
+        for (Task.Status status : Task.Status.values()) {
+            byStatus.put(status, new ProjectDto.StatusStats(0, 0, 0));
+        }
+
+        long taskCount = 0;
+        double estimatedHours = 0;
+        double actualHours = 0;
+        for (ProjectStats row : projectStatsRepository.findByProjectId(projectId)) {
+            byStatus.put(row.getStatus(),
+                    new ProjectDto.StatusStats(row.getTaskCount(), row.getEstimatedHours(), row.getActualHours()));
+            taskCount += row.getTaskCount();
+            estimatedHours += row.getEstimatedHours();
+            actualHours += row.getActualHours();
+        }
+
+        return ProjectDto.Stats.builder()
+                .projectId(projectId)
+                .taskCount(taskCount)
+                .estimatedHours(estimatedHours)
+                .actualHours(actualHours)
+                .byStatus(byStatus)
+                .build();
+    }
+
+    /**
+     * Repairs any drift, e.g. from writes made outside the service layer, one project per transaction.
+     */
+    @Scheduled(cron = "${app.stats.repair-cron:0 30 3 * * *}")
+    public int rebuildAll() {
+        int rebuilt = 0;
+        Long afterId = 0L;
+        List<Long> projectIds;
+        do {
+            projectIds = projectRepository.findIdsAfter(afterId, PageRequest.of(0, REPAIR_CHUNK_SIZE));
+            for (Long projectId : projectIds) {
+                transactionTemplate.executeWithoutResult(status -> rebuild(projectId));
+                rebuilt++;
+                afterId = projectId;
+            }
+        } while (!projectIds.isEmpty());
+
+        log.info("Rebuilt statistics of {} projects", rebuilt);
+        return rebuilt;
+    }
+
+    private static double nullToZero(Double value) {
+        return value != null ? value : 0;
+    }
+}
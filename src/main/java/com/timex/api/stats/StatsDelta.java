@@ -0,0 +1,83 @@
+package com.timex.api.stats;
+
+import com.timex.api.model.Task;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Net change to the project statistics caused by one write. Removing the state of a task before it
+ * changes and adding it back afterwards leaves only the columns that actually moved.
+ */
+public class StatsDelta {
+
+    private final Map<Key, double[]> changes = new HashMap<>();
+
+    public StatsDelta add(Task task) {
+        return add(task.getProject().getId(), task.getStatus(), task.getEstimatedHours(), task.getActualHours());
+    }
+
+    public StatsDelta remove(Task task) {
+        return remove(task.getProject().getId(), task.getStatus(), task.getEstimatedHours(),
+                task.getActualHours());
+    }
+
+    public StatsDelta add(Long projectId, Task.Status status, Double estimatedHours, Double actualHours) {
+        return change(projectId, status, 1, estimatedHours, actualHours);
+    }
+
+    public StatsDelta remove(Long projectId, Task.Status status, Double estimatedHours, Double actualHours) {
+        return change(projectId, status, -1, estimatedHours, actualHours);
+    }
+
+    /**
+     * Hands the non-zero changes of each project to {@code consumer}, keyed by status and given as
+     * {count, estimatedHours, actualHours}.
+     */
+    void forEachProject(BiConsumer<Long, Map<Task.Status, double[]>> consumer) {
+        Map<Long, Map<Task.Status, double[]>> byProject = new HashMap<>();
+        changes.forEach((key, totals) -> {
+            if (totals[0] != 0 || totals[1] != 0 || totals[2] != 0) {
+                byProject.computeIfAbsent(key.projectId, id -> new EnumMap<>(Task.Status.class))
+                        .put(key.status, totals);
+            }
+        });
+        byProject.forEach(consumer);
+    }
+
+    private StatsDelta change(Long projectId, Task.Status status, int sign, Double estimatedHours,
+            Double actualHours) {
+        double[] totals = changes.computeIfAbsent(new Key(projectId, status), key -> new double[3]);
+        totals[0] += sign;
+        totals[1] += sign * (estimatedHours != null ? estimatedHours : 0);
+        totals[2] += sign * (actualHours != null ? actualHours : 0);
+        return this;
+    }
+
+    static final class Key {
+        final Long projectId;
+        final Task.Status status;
+
+        Key(Long projectId, Task.Status status) {
+            this.projectId = projectId;
+            this.status = status;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return projectId.equals(other.projectId) && status == other.status;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(projectId, status);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Creates the sequence task ids are allocated from. Hibernate's pooled optimizer treats each value as
+ * the top of a block of ids, so the sequence starts one block above the highest existing id. The block
+ * size is the {@code Task.ID_ALLOCATION_SIZE} of when this migration was written; it is kept here as a
+ * literal so the migration does the same on every database, whatever the constant becomes later. The
+ * start value depends on the data, which plain SQL cannot express on both H2 and PostgreSQL, hence a
+ * Java migration.
+ */
+public class V3__Create_task_id_sequence extends BaseJavaMigration {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            long maxId;
+            try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM tasks")) {
+                rs.next();
+                maxId = rs.getLong(1);
+            }
+
+            statement.execute("CREATE SEQUENCE tasks_seq START WITH " + (maxId + ALLOCATION_SIZE)
+                    + " INCREMENT BY " + ALLOCATION_SIZE);
+        }
+    }
+}
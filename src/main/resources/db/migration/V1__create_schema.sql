@@ -0,0 +1,45 @@
+-- Base schema as previously generated by hibernate ddl-auto=update.
+-- Written in the subset of SQL shared by H2 (2.x) and PostgreSQL.
+
+CREATE TABLE users (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username      VARCHAR(255) NOT NULL,
+    password      VARCHAR(255) NOT NULL,
+    full_name     VARCHAR(255) NOT NULL,
+    email         VARCHAR(255) NOT NULL,
+    token_version BIGINT       NOT NULL DEFAULT 0,
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT       NOT NULL,
+    role    VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_user_roles PRIMARY KEY (user_id, role),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE projects (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(255)  NOT NULL,
+    description VARCHAR(1000),
+    created_at  TIMESTAMP     NOT NULL,
+    updated_at  TIMESTAMP,
+    user_id     BIGINT        NOT NULL,
+    CONSTRAINT fk_projects_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE tasks (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title           VARCHAR(255)     NOT NULL,
+    description     VARCHAR(1000),
+    status          VARCHAR(255)     NOT NULL,
+    priority        INTEGER          NOT NULL,
+    estimated_hours DOUBLE PRECISION,
+    actual_hours    DOUBLE PRECISION,
+    due_date        TIMESTAMP,
+    created_at      TIMESTAMP        NOT NULL,
+    updated_at      TIMESTAMP,
+    project_id      BIGINT           NOT NULL,
+    CONSTRAINT fk_tasks_project FOREIGN KEY (project_id) REFERENCES projects (id)
+);
@@ -0,0 +1,21 @@
+-- Secondary indexes matching the repository access paths. IF [NOT] EXISTS keeps this script
+-- safe on databases baselined from a schema that hibernate had already indexed.
+
+-- existsByNameAndUserId, and one name per project and owner
+CREATE UNIQUE INDEX IF NOT EXISTS uk_projects_user_id_name ON projects (user_id, name);
+
+-- Keyset pages of a user's projects (findResponsesByUserId*); also serves the owner join
+CREATE INDEX IF NOT EXISTS idx_projects_user_id_created_at ON projects (user_id, created_at, id);
+DROP INDEX IF EXISTS idx_projects_user_id;
+
+-- findByProjectId and keyset pages of a project's tasks (findResponsesByProjectId*)
+CREATE INDEX IF NOT EXISTS idx_tasks_project_id_created_at ON tasks (project_id, created_at, id);
+
+-- findByProjectIdAndStatus and its keyset pages (findResponsesByProjectIdAndStatus*)
+CREATE INDEX IF NOT EXISTS idx_tasks_project_id_status ON tasks (project_id, status, created_at, id);
+
+-- findByProjectIdAndDueDateBetween
+CREATE INDEX IF NOT EXISTS idx_tasks_project_id_due_date ON tasks (project_id, due_date);
+
+-- findByDueDateBefore and the due-before keyset pages
+CREATE INDEX IF NOT EXISTS idx_tasks_due_date ON tasks (due_date, id);
@@ -0,0 +1,24 @@
+-- Cold storage for completed tasks, filled by the task archiver. Same columns as tasks plus the
+-- time a row was archived; ids are kept, so they stay unique across both tables.
+
+CREATE TABLE tasks_archive (
+    id              BIGINT           PRIMARY KEY,
+    title           VARCHAR(255)     NOT NULL,
+    description     VARCHAR(1000),
+    status          VARCHAR(255)     NOT NULL,
+    priority        INTEGER          NOT NULL,
+    estimated_hours DOUBLE PRECISION,
+    actual_hours    DOUBLE PRECISION,
+    due_date        TIMESTAMP,
+    created_at      TIMESTAMP        NOT NULL,
+    updated_at      TIMESTAMP,
+    archived_at     TIMESTAMP        NOT NULL,
+    project_id      BIGINT           NOT NULL,
+    CONSTRAINT fk_tasks_archive_project FOREIGN KEY (project_id) REFERENCES projects (id)
+);
+
+-- Keyset pages of a project's archived tasks
+CREATE INDEX idx_tasks_archive_project_id_created_at ON tasks_archive (project_id, created_at, id);
+
+-- The archiver's scan for completed tasks past the cut-off
+CREATE INDEX idx_tasks_status_updated_at ON tasks (status, updated_at);
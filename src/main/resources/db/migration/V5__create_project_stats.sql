@@ -0,0 +1,35 @@
+-- Task count and hour totals per project and status, kept current by the task write paths and
+-- rebuilt by the statistics repair job. Archived tasks are included, so archiving leaves them unchanged.
+
+CREATE TABLE project_stats (
+    project_id      BIGINT           NOT NULL,
+    status          VARCHAR(255)     NOT NULL,
+    task_count      BIGINT           NOT NULL,
+    estimated_hours DOUBLE PRECISION NOT NULL,
+    actual_hours    DOUBLE PRECISION NOT NULL,
+    CONSTRAINT pk_project_stats PRIMARY KEY (project_id, status),
+    CONSTRAINT fk_project_stats_project FOREIGN KEY (project_id) REFERENCES projects (id) ON DELETE CASCADE
+);
+
+INSERT INTO project_stats (project_id, status, task_count, estimated_hours, actual_hours)
+SELECT id, 'TODO', 0, 0, 0 FROM projects;
+INSERT INTO project_stats (project_id, status, task_count, estimated_hours, actual_hours)
+SELECT id, 'IN_PROGRESS', 0, 0, 0 FROM projects;
+INSERT INTO project_stats (project_id, status, task_count, estimated_hours, actual_hours)
+SELECT id, 'COMPLETED', 0, 0, 0 FROM projects;
+INSERT INTO project_stats (project_id, status, task_count, estimated_hours, actual_hours)
+SELECT id, 'BLOCKED', 0, 0, 0 FROM projects;
+
+UPDATE project_stats SET
+    task_count = (SELECT COUNT(*) FROM (
+            SELECT project_id, status FROM tasks
+            UNION ALL SELECT project_id, status FROM tasks_archive) a
+        WHERE a.project_id = project_stats.project_id AND a.status = project_stats.status),
+    estimated_hours = (SELECT COALESCE(SUM(a.estimated_hours), 0) FROM (
+            SELECT project_id, status, estimated_hours FROM tasks
+            UNION ALL SELECT project_id, status, estimated_hours FROM tasks_archive) a
+        WHERE a.project_id = project_stats.project_id AND a.status = project_stats.status),
+    actual_hours = (SELECT COALESCE(SUM(a.actual_hours), 0) FROM (
+            SELECT project_id, status, actual_hours FROM tasks
+            UNION ALL SELECT project_id, status, actual_hours FROM tasks_archive) a
+        WHERE a.project_id = project_stats.project_id AND a.status = project_stats.status);
@@ -0,0 +1,12 @@
+-- Indexes behind the sort orders of the task query API (TaskSort). Each starts with the project and
+-- ends with the id, so a page is one range of a single project's entries, already in keyset order.
+
+-- Sort by due date; the id is added so ties are broken in index order
+DROP INDEX IF EXISTS idx_tasks_project_id_due_date;
+CREATE INDEX IF NOT EXISTS idx_tasks_project_id_due_date ON tasks (project_id, due_date, id);
+
+-- Sort by priority, then due date
+CREATE INDEX IF NOT EXISTS idx_tasks_project_id_priority ON tasks (project_id, priority, due_date, id);
+
+-- Sort by last update, and the updated-since filter
+CREATE INDEX IF NOT EXISTS idx_tasks_project_id_updated_at ON tasks (project_id, updated_at, id);
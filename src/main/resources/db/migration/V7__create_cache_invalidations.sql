@@ -0,0 +1,13 @@
+-- Cache invalidations published by one application instance for the others, which poll for rows
+-- past the last id they have seen. Rows are only needed until every instance has polled them and
+-- are purged after a while.
+
+CREATE TABLE cache_invalidations (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    sender            VARCHAR(64)   NOT NULL,
+    invalidation_keys VARCHAR(8000) NOT NULL,
+    created_at        TIMESTAMP     NOT NULL
+);
+
+-- The purge of old rows
+CREATE INDEX idx_cache_invalidations_created_at ON cache_invalidations (created_at);
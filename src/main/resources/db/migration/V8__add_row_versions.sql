@@ -0,0 +1,5 @@
+-- Row versions for optimistic locking of task and project updates. Hibernate increments them on entity
+-- updates and the set-based task updates increment them in their statement.
+
+ALTER TABLE tasks ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE projects ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,5 @@
+-- Every task write sets updated_at, so only rows from before that have none. Filling them in with the
+-- creation time lets the task query API sort by last update without leaving tasks out.
+
+UPDATE tasks SET updated_at = created_at WHERE updated_at IS NULL;
+ALTER TABLE tasks ALTER COLUMN updated_at SET NOT NULL;
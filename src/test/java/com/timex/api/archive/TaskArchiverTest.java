@@ -0,0 +1,165 @@
+package com.timex.api.archive;
+
+import com.timex.api.cache.InvalidationBus;
+import com.timex.api.cache.ReadCache;
+import com.timex.api.dto.TaskDto;
+import com.timex.api.index.ProjectOwnershipIndex;
+import com.timex.api.index.TaskFilterIndex;
+import com.timex.api.index.TaskSearchIndex;
+import com.timex.api.mapper.TaskMapperImpl;
+import com.timex.api.model.Project;
+import com.timex.api.model.Task;
+import com.timex.api.model.User;
+import com.timex.api.pagination.CursorPage;
+import com.timex.api.pagination.CursorPagination;
+import com.timex.api.repository.ArchivedTaskRepository;
+import com.timex.api.repository.TaskRepository;
+import com.timex.api.security.service.AccessControl;
+import com.timex.api.security.service.UserDetailsImpl;
+import com.timex.api.service.TaskService;
+import com.timex.api.service.impl.TaskServiceImpl;
+import com.timex.api.stats.ProjectStatistics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "app.archive.chunk-size=2",
+        "app.archive.completed-age=P30D"
+})
+@Import({ TaskArchiver.class, SimpleMeterRegistry.class, TaskServiceImpl.class, TaskMapperImpl.class,
+        CursorPagination.class, ProjectStatistics.class, TaskSearchIndex.class, TaskFilterIndex.class,
+        ProjectOwnershipIndex.class, AccessControl.class, ReadCache.class, InvalidationBus.class })
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+public class TaskArchiverTest {
+
+    private static final int OLD_COMPLETED = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskArchiver taskArchiver;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Project project;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(User.builder()
+                .username("owner")
+                .password("encoded_password")
+                .email("owner@example.com")
+                .fullName("Project Owner")
+                .roles(Collections.singleton(User.Role.ROLE_USER))
+                .build());
+        project = entityManager.persist(Project.builder().name("Project").user(owner).build());
+
+        for (int i = 0; i < OLD_COMPLETED; i++) {
+            entityManager.persist(task("Old completed " + i, Task.Status.COMPLETED));
+        }
+        entityManager.persist(task("Old in progress", Task.Status.IN_PROGRESS));
+        entityManager.flush();
+
+        // Backdate everything so far, then add a task completed just now
+        entityManager.getEntityManager()
+                .createQuery("update Task t set t.updatedAt = :updatedAt")
+                .setParameter("updatedAt", LocalDateTime.now().minusDays(60))
+                .executeUpdate();
+        entityManager.persist(task("Recently completed", Task.Status.COMPLETED));
+        entityManager.flush();
+        entityManager.clear();
+
+        UserDetailsImpl principal = new UserDetailsImpl(owner.getId(), "owner", "owner@example.com",
+                "Owner", null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")), 0);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should move only old completed tasks to the archive")
+    void shouldMoveOnlyOldCompletedTasksToArchive() {
+        // When
+        int archived = taskArchiver.archiveCompletedTasks();
+
+        // Then
+        assertEquals(OLD_COMPLETED, archived);
+        assertEquals(OLD_COMPLETED, archivedTaskRepository.count());
+        assertEquals(2, taskRepository.count());
+        assertEquals(OLD_COMPLETED, meterRegistry.get("timex.archive.rows").counter().count());
+        // Three chunks of at most two rows and the empty one that ends the run
+        assertEquals(4, meterRegistry.get("timex.archive.chunk.duration").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should read archived tasks only when asked to")
+    void shouldReadArchivedTasksOnlyWhenAsked() {
+        // Given
+        taskArchiver.archiveCompletedTasks();
+
+        // When
+        List<TaskDto.Response> hot = taskService.getTasksByProjectId(project.getId(), false, null, 100).getItems();
+        List<TaskDto.Response> all = readAllPages(3);
+
+        // Then
+        assertEquals(2, hot.size());
+        assertEquals(OLD_COMPLETED + 2, all.size());
+        assertEquals(all.stream().map(TaskDto.Response::getId).sorted().collect(Collectors.toList()),
+                all.stream().map(TaskDto.Response::getId).collect(Collectors.toList()));
+    }
+
+    private List<TaskDto.Response> readAllPages(int limit) {
+        CursorPage<TaskDto.Response> page = taskService.getTasksByProjectId(project.getId(), true, null, limit);
+        List<TaskDto.Response> tasks = new ArrayList<>(page.getItems());
+        while (page.getNextCursor() != null) {
+            page = taskService.getTasksByProjectId(project.getId(), true, page.getNextCursor(), limit);
+            tasks.addAll(page.getItems());
+        }
+        return tasks;
+    }
+
+    private Task task(String title, Task.Status status) {
+        return Task.builder()
+                .title(title)
+                .status(status)
+                .priority(3)
+                .project(project)
+                .build();
+    }
+}
@@ -0,0 +1,188 @@
+package com.timex.api.cache;
+
+import com.timex.api.dto.ProjectDto;
+import com.timex.api.dto.TaskDto;
+import com.timex.api.index.ProjectOwnershipIndex;
+import com.timex.api.index.TaskFilterIndex;
+import com.timex.api.index.TaskSearchIndex;
+import com.timex.api.mapper.ProjectMapperImpl;
+import com.timex.api.mapper.TaskMapperImpl;
+import com.timex.api.model.Project;
+import com.timex.api.model.User;
+import com.timex.api.pagination.CursorPagination;
+import com.timex.api.repository.ProjectRepository;
+import com.timex.api.repository.TaskRepository;
+import com.timex.api.repository.UserRepository;
+import com.timex.api.security.service.AccessControl;
+import com.timex.api.security.service.UserDetailsImpl;
+import com.timex.api.service.ProjectService;
+import com.timex.api.service.TaskService;
+import com.timex.api.service.impl.ChunkedDeleter;
+import com.timex.api.service.impl.ProjectServiceImpl;
+import com.timex.api.service.impl.TaskServiceImpl;
+import com.timex.api.stats.ProjectStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The application context is one instance; a second one is made of its own bus and indexes over the same
+ * database, connected through the in-JVM transport. Runs without the test transaction, so keys are
+ * published on commit as they are in the application.
+ */
+@DataJpaTest(properties = { "spring.jpa.show-sql=false", "app.cache.bus.transport=in-jvm" })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ ProjectServiceImpl.class, ProjectMapperImpl.class, TaskServiceImpl.class, TaskMapperImpl.class,
+        CursorPagination.class, ProjectStatistics.class, ChunkedDeleter.class, TaskSearchIndex.class,
+        TaskFilterIndex.class, ProjectOwnershipIndex.class, AccessControl.class, ReadCache.class,
+        InvalidationBus.class, InJvmInvalidationTransport.class, SimpleMeterRegistry.class })
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+public class IndexInvalidationTest {
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private InJvmInvalidationTransport remoteTransport;
+    private TaskFilterIndex remoteFilter;
+    private TaskSearchIndex remoteSearch;
+    private ProjectOwnershipIndex remoteOwnership;
+    private User owner;
+    private User other;
+    private Project otherProject;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(user("owner"));
+        other = userRepository.save(user("other"));
+        otherProject = projectRepository.save(Project.builder().name("Other").user(other).build());
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        remoteTransport = new InJvmInvalidationTransport();
+        InvalidationBus remoteBus = new InvalidationBus(remoteTransport, 256, 10_000, meterRegistry);
+        remoteFilter = new TaskFilterIndex(taskRepository, meterRegistry, remoteBus);
+        remoteSearch = new TaskSearchIndex(taskRepository, meterRegistry, remoteBus);
+        remoteOwnership = new ProjectOwnershipIndex(projectRepository, taskRepository, meterRegistry, remoteBus);
+        remoteFilter.rebuild();
+        remoteSearch.rebuild();
+        remoteOwnership.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        remoteTransport.disconnect();
+        SecurityContextHolder.clearContext();
+        taskRepository.deleteAllInBatch();
+        projectRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should show projects and tasks written on one instance in the indexes of another")
+    void shouldIndexWritesOfOtherInstance() {
+        // Given
+        authenticate(owner, "ROLE_USER");
+        ProjectDto.Response project = projectService.createProject("owner",
+                ProjectDto.Request.builder().name("Reports").build());
+        TaskDto.Response task = taskService.createTask(TaskDto.Request.builder()
+                .title("Quarterly report")
+                .priority(2)
+                .projectId(project.getId())
+                .build());
+
+        // When
+        invalidationBus.flush();
+
+        // Then
+        assertEquals((long) owner.getId(), remoteOwnership.ownerOf(project.getId()));
+        assertEquals((long) project.getId(), remoteOwnership.projectOf(task.getId()));
+        assertEquals(List.of(task.getId()), remoteFilter.filter(owner.getId(), null, null, 2, null, null, 0L, 10));
+        assertEquals(List.of(task.getId()), remoteSearch.search(owner.getId(), "quarterly", 10));
+    }
+
+    @Test
+    @DisplayName("Should authorize a task moved to another owner on one instance by its new project on another")
+    void shouldFollowTasksMovedOnOtherInstance() {
+        // Given
+        authenticate(owner, "ROLE_USER");
+        ProjectDto.Response project = projectService.createProject("owner",
+                ProjectDto.Request.builder().name("Reports").build());
+        TaskDto.Response task = taskService.createTask(TaskDto.Request.builder()
+                .title("Quarterly report")
+                .priority(2)
+                .projectId(project.getId())
+                .build());
+        invalidationBus.flush();
+
+        // When
+        authenticate(owner, "ROLE_ADMIN");
+        taskService.moveTasks(project.getId(), null, null, null, otherProject.getId());
+        invalidationBus.flush();
+
+        // Then
+        assertEquals((long) otherProject.getId(), remoteOwnership.projectOf(task.getId()));
+        assertTrue(remoteFilter.filter(owner.getId(), null, null, null, null, null, 0L, 10).isEmpty());
+        assertEquals(List.of(task.getId()), remoteFilter.filter(other.getId(), null, null, null, null, null, 0L, 10));
+        assertTrue(remoteSearch.search(owner.getId(), "quarterly", 10).isEmpty());
+        assertEquals(List.of(task.getId()), remoteSearch.search(other.getId(), "quarterly", 10));
+
+        // When
+        taskService.deleteTask(task.getId());
+        projectService.deleteProject(project.getId());
+        invalidationBus.flush();
+
+        // Then
+        assertEquals(ProjectOwnershipIndex.UNKNOWN, remoteOwnership.projectOf(task.getId()));
+        assertEquals(ProjectOwnershipIndex.UNKNOWN, remoteOwnership.ownerOf(project.getId()));
+        assertTrue(remoteFilter.filter(other.getId(), null, null, null, null, null, 0L, 10).isEmpty());
+        assertTrue(remoteSearch.search(other.getId(), "quarterly", 10).isEmpty());
+    }
+
+    private static void authenticate(User user, String role) {
+        UserDetailsImpl principal = new UserDetailsImpl(user.getId(), user.getUsername(), user.getEmail(),
+                user.getFullName(), null, Collections.singletonList(new SimpleGrantedAuthority(role)), 0);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static User user(String username) {
+        return User.builder()
+                .username(username)
+                .password("encoded_password")
+                .email(username + "@example.com")
+                .fullName(username)
+                .roles(Collections.singleton(User.Role.ROLE_USER))
+                .build();
+    }
+}
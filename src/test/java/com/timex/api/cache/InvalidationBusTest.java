@@ -0,0 +1,105 @@
+package com.timex.api.cache;
+
+import com.timex.api.cache.InvalidationKey.Kind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two instances connected through the in-JVM transport.
+ */
+public class InvalidationBusTest {
+
+    private InJvmInvalidationTransport firstTransport;
+    private InJvmInvalidationTransport secondTransport;
+    private InvalidationBus first;
+    private InvalidationBus second;
+    private List<List<InvalidationKey>> firstReceived;
+    private List<List<InvalidationKey>> secondReceived;
+
+    @BeforeEach
+    void setUp() {
+        firstTransport = new InJvmInvalidationTransport();
+        secondTransport = new InJvmInvalidationTransport();
+        first = new InvalidationBus(firstTransport, 2, 4, new SimpleMeterRegistry());
+        second = new InvalidationBus(secondTransport, 2, 4, new SimpleMeterRegistry());
+        firstReceived = new ArrayList<>();
+        secondReceived = new ArrayList<>();
+        first.subscribe(firstReceived::add);
+        second.subscribe(secondReceived::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        firstTransport.disconnect();
+        secondTransport.disconnect();
+    }
+
+    @Test
+    @DisplayName("Should apply published keys locally at once and on the other instance after a flush")
+    void shouldApplyLocallyAndRemotelyAfterFlush() {
+        // When
+        first.publish(List.of(InvalidationKey.of(Kind.TASK, 1)));
+
+        // Then
+        assertEquals(List.of(List.of(InvalidationKey.of(Kind.TASK, 1))), firstReceived);
+        assertTrue(secondReceived.isEmpty());
+
+        // When
+        first.flush();
+
+        // Then: the sender does not get its own keys back
+        assertEquals(List.of(List.of(InvalidationKey.of(Kind.TASK, 1))), secondReceived);
+        assertEquals(1, firstReceived.size());
+    }
+
+    @Test
+    @DisplayName("Should send each key of a burst once, in batches")
+    void shouldCoalesceBurstIntoBatches() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            first.publish(List.of(InvalidationKey.of(Kind.TASK, 1), InvalidationKey.of(Kind.DETAILED_PROJECT, 7)));
+        }
+        first.publish(List.of(InvalidationKey.of(Kind.PROJECT_TASKS, 7)));
+
+        // When
+        int sent = first.flush();
+
+        // Then
+        assertEquals(3, sent);
+        assertEquals(List.of(
+                List.of(InvalidationKey.of(Kind.TASK, 1), InvalidationKey.of(Kind.DETAILED_PROJECT, 7)),
+                List.of(InvalidationKey.of(Kind.PROJECT_TASKS, 7))), secondReceived);
+        assertEquals(0, first.flush());
+    }
+
+    @Test
+    @DisplayName("Should drop keys beyond the queue limit instead of growing without bound")
+    void shouldDropKeysBeyondQueueLimit() {
+        // When
+        for (long id = 1; id <= 6; id++) {
+            first.publish(List.of(InvalidationKey.of(Kind.TASK, id)));
+        }
+
+        // Then: all were applied locally, only the first four are sent
+        assertEquals(6, firstReceived.size());
+        assertEquals(4, first.flush());
+    }
+
+    @Test
+    @DisplayName("Should round-trip keys through their encoded form")
+    void shouldRoundTripEncodedKeys() {
+        for (Kind kind : Kind.values()) {
+            InvalidationKey key = InvalidationKey.of(kind, Long.MAX_VALUE);
+            assertEquals(key, InvalidationKey.decode(key.encode()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> InvalidationKey.decode("x1"));
+    }
+}
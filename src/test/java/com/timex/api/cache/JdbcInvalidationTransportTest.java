@@ -0,0 +1,143 @@
+package com.timex.api.cache;
+
+import com.timex.api.cache.InvalidationKey.Kind;
+import com.timex.api.model.CacheInvalidation;
+import com.timex.api.repository.CacheInvalidationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two instances sharing the database. Runs without the test transaction, so each poll sees what
+ * the other instance committed.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class JdbcInvalidationTransportTest {
+
+    @Autowired
+    private CacheInvalidationRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcInvalidationTransport first;
+    private JdbcInvalidationTransport second;
+    private List<InvalidationKey> secondReceived;
+
+    @BeforeEach
+    void setUp() {
+        first = transport();
+        second = transport();
+        secondReceived = new ArrayList<>();
+        first.connect("first", keys -> fail("Received its own keys"));
+        second.connect("second", secondReceived::addAll);
+        // The first poll only finds where to start
+        first.poll();
+        second.poll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should deliver keys to the other instance only")
+    void shouldDeliverToOtherInstanceOnly() {
+        // Given
+        List<InvalidationKey> keys = List.of(InvalidationKey.of(Kind.TASK, 1), InvalidationKey.of(Kind.USER, 2));
+
+        // When
+        first.send("first", keys);
+
+        // Then
+        assertEquals(1, second.poll());
+        assertEquals(keys, secondReceived);
+        assertEquals(1, first.poll());
+        assertEquals(0, second.poll());
+    }
+
+    @Test
+    @DisplayName("Should split keys over several rows and deliver them all in order")
+    void shouldSplitLargeBatchesOverRows() {
+        // Given
+        List<InvalidationKey> keys = new ArrayList<>();
+        for (long id = 0; id < 1000; id++) {
+            keys.add(InvalidationKey.of(Kind.TASK, Long.MAX_VALUE - id));
+        }
+
+        // When
+        first.send("first", keys);
+
+        // Then
+        assertTrue(repository.count() > 1);
+        assertEquals(repository.count(), second.poll());
+        assertEquals(keys, secondReceived);
+    }
+
+    @Test
+    @DisplayName("Should wait at a gap in the ids until the row behind it is old enough")
+    void shouldWaitAtRecentGap() {
+        // Given: after a delivered row, the next one is not visible yet, as if it had not committed
+        repository.save(row(LocalDateTime.now()));
+        assertEquals(1, second.poll());
+        secondReceived.clear();
+        CacheInvalidation missing = repository.save(row(LocalDateTime.now()));
+        CacheInvalidation behind = repository.save(row(LocalDateTime.now()));
+        repository.delete(missing);
+
+        // When & Then
+        assertEquals(0, second.poll());
+        assertTrue(secondReceived.isEmpty());
+
+        // When: the missing row never commits
+        behind.setCreatedAt(LocalDateTime.now().minusMinutes(1));
+        repository.save(behind);
+
+        // Then
+        assertEquals(1, second.poll());
+        assertEquals(List.of(InvalidationKey.of(Kind.PROJECT, 3)), secondReceived);
+    }
+
+    @Test
+    @DisplayName("Should purge rows older than the retention")
+    void shouldPurgeOldRows() {
+        // Given
+        repository.save(row(LocalDateTime.now().minusHours(1)));
+        repository.save(row(LocalDateTime.now()));
+
+        // When
+        int purged = first.purge();
+
+        // Then
+        assertEquals(1, purged);
+        assertEquals(1, repository.count());
+    }
+
+    private JdbcInvalidationTransport transport() {
+        return new JdbcInvalidationTransport(repository, transactionManager, Duration.ofSeconds(5),
+                Duration.ofMinutes(10), 2);
+    }
+
+    private static CacheInvalidation row(LocalDateTime createdAt) {
+        return CacheInvalidation.builder()
+                .sender("first")
+                .keys(InvalidationKey.of(Kind.PROJECT, 3).encode())
+                .createdAt(createdAt)
+                .build();
+    }
+}
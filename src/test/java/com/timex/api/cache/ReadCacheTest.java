@@ -0,0 +1,210 @@
+package com.timex.api.cache;
+
+import com.timex.api.dto.ProjectDto;
+import com.timex.api.dto.TaskDto;
+import com.timex.api.index.ProjectOwnershipIndex;
+import com.timex.api.index.TaskFilterIndex;
+import com.timex.api.index.TaskSearchIndex;
+import com.timex.api.mapper.ProjectMapperImpl;
+import com.timex.api.mapper.TaskMapperImpl;
+import com.timex.api.model.Project;
+import com.timex.api.model.Task;
+import com.timex.api.model.User;
+import com.timex.api.pagination.CursorPagination;
+import com.timex.api.repository.ProjectRepository;
+import com.timex.api.repository.TaskRepository;
+import com.timex.api.repository.UserRepository;
+import com.timex.api.security.service.AccessControl;
+import com.timex.api.security.service.UserDetailsImpl;
+import com.timex.api.service.ProjectService;
+import com.timex.api.service.TaskService;
+import com.timex.api.service.impl.ChunkedDeleter;
+import com.timex.api.service.impl.ProjectServiceImpl;
+import com.timex.api.service.impl.TaskServiceImpl;
+import com.timex.api.stats.ProjectStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs without the test transaction, so invalidations happen on commit as they do in the application.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ ProjectServiceImpl.class, ProjectMapperImpl.class, TaskServiceImpl.class, TaskMapperImpl.class,
+        CursorPagination.class, ProjectStatistics.class, ChunkedDeleter.class, TaskSearchIndex.class,
+        TaskFilterIndex.class, ProjectOwnershipIndex.class, AccessControl.class, ReadCache.class,
+        InvalidationBus.class, SimpleMeterRegistry.class })
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+public class ReadCacheTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectStatistics projectStatistics;
+
+    @Autowired
+    private ProjectOwnershipIndex ownershipIndex;
+
+    private UserDetailsImpl owner;
+    private UserDetailsImpl stranger;
+    private Project source;
+    private Project target;
+    private Task task;
+
+    @BeforeEach
+    void setUp() {
+        User ownerUser = userRepository.save(user("owner"));
+        User strangerUser = userRepository.save(user("stranger"));
+        source = projectRepository.save(Project.builder().name("Source").user(ownerUser).build());
+        target = projectRepository.save(Project.builder().name("Target").user(ownerUser).build());
+        task = taskRepository.save(Task.builder().title("Card").priority(3).project(source).build());
+        projectStatistics.rebuildAll();
+        ownershipIndex.rebuild();
+
+        owner = principal(ownerUser);
+        stranger = principal(strangerUser);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        taskRepository.deleteAllInBatch();
+        projectRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should serve a repeated task read from the cache without statements")
+    void shouldServeRepeatedReadFromCache() {
+        // Given
+        authenticate(owner);
+        TaskDto.Response first = taskService.getTaskById(task.getId());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        TaskDto.Response second = taskService.getTaskById(task.getId());
+
+        // Then
+        assertEquals(first, second);
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should still authorize reads of cached responses")
+    void shouldAuthorizeCachedReads() {
+        // Given
+        authenticate(owner);
+        projectService.getProjectById(source.getId());
+
+        // When & Then
+        authenticate(stranger);
+        assertThrows(AccessDeniedException.class, () -> projectService.getProjectById(source.getId()));
+        assertThrows(AccessDeniedException.class, () -> taskService.getTaskById(task.getId()));
+    }
+
+    @Test
+    @DisplayName("Should refresh the task and both detailed projects when a task moves between projects")
+    void shouldRefreshBothProjectsWhenTaskMoves() {
+        // Given
+        authenticate(owner);
+        taskService.getTaskById(task.getId());
+        assertEquals(Set.of(task.getId()), taskIds(projectService.getProjectWithTasks(source.getId())));
+        assertEquals(Collections.emptySet(), taskIds(projectService.getProjectWithTasks(target.getId())));
+
+        // When
+        taskService.updateTask(task.getId(), TaskDto.Request.builder()
+                .title("Card")
+                .status(Task.Status.TODO)
+                .priority(3)
+                .projectId(target.getId())
+                .build(), null);
+
+        // Then
+        assertEquals("Target", taskService.getTaskById(task.getId()).getProjectName());
+        assertEquals(Collections.emptySet(), taskIds(projectService.getProjectWithTasks(source.getId())));
+        assertEquals(Set.of(task.getId()), taskIds(projectService.getProjectWithTasks(target.getId())));
+    }
+
+    @Test
+    @DisplayName("Should refresh the task responses of a renamed project")
+    void shouldRefreshTasksOfRenamedProject() {
+        // Given
+        authenticate(owner);
+        assertEquals("Source", taskService.getTaskById(task.getId()).getProjectName());
+        projectService.getProjectById(source.getId());
+
+        // When
+        projectService.updateProject(source.getId(), ProjectDto.Request.builder().name("Renamed").build(), null);
+
+        // Then
+        assertEquals("Renamed", projectService.getProjectById(source.getId()).getName());
+        assertEquals("Renamed", taskService.getTaskById(task.getId()).getProjectName());
+    }
+
+    private static Set<Long> taskIds(ProjectDto.DetailedResponse project) {
+        return project.getTasks().stream().map(TaskDto.Response::getId).collect(Collectors.toSet());
+    }
+
+    private static void authenticate(UserDetailsImpl principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static UserDetailsImpl principal(User user) {
+        return new UserDetailsImpl(user.getId(), user.getUsername(), user.getEmail(), user.getFullName(), null,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")), 0);
+    }
+
+    private static User user(String username) {
+        return User.builder()
+                .username(username)
+                .password("encoded_password")
+                .email(username + "@example.com")
+                .fullName(username)
+                .roles(Collections.singleton(User.Role.ROLE_USER))
+                .build();
+    }
+}
@@ -0,0 +1,162 @@
+package com.timex.api.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.timex.api.dto.TaskDto;
+import com.timex.api.model.Task;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseCacheTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private ResponseCache<TaskDto.Response> cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock();
+        cache = new ResponseCache<>("tasks", TaskDto.Response.class, objectMapper, 3, 4096, Duration.ofMinutes(5),
+                clock, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should hand out a fresh copy of the cached response on every hit")
+    void shouldHandOutFreshCopies() {
+        // Given
+        cache.put(1L, 10L, task(1L, 10L), cache.version());
+
+        // When
+        TaskDto.Response first = cache.get(1L);
+        first.setTitle("Changed by the caller");
+        TaskDto.Response second = cache.get(1L);
+
+        // Then
+        assertEquals(task(1L, 10L), second);
+        assertNotSame(first, second);
+        assertEquals(2.0, meterRegistry.get("timex.cache.requests").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently read entry once full")
+    void shouldEvictLeastRecentlyReadEntry() {
+        // Given
+        cache.put(1L, 10L, task(1L, 10L), cache.version());
+        cache.put(2L, 10L, task(2L, 10L), cache.version());
+        cache.put(3L, 10L, task(3L, 10L), cache.version());
+        cache.get(1L);
+
+        // When
+        cache.put(4L, 10L, task(4L, 10L), cache.version());
+
+        // Then
+        assertEquals(3, cache.size());
+        assertNull(cache.get(2L));
+        assertNotNull(cache.get(1L));
+        assertEquals(1.0, meterRegistry.get("timex.cache.evictions").tag("cause", "size").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should expire entries after the TTL")
+    void shouldExpireEntriesAfterTtl() {
+        // Given
+        cache.put(1L, 10L, task(1L, 10L), cache.version());
+
+        // When
+        clock.advance(Duration.ofMinutes(5));
+
+        // Then
+        assertNull(cache.get(1L));
+        assertEquals(0, cache.size());
+        assertEquals(1.0, meterRegistry.get("timex.cache.evictions").tag("cause", "expired").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should not store a value read before an invalidation")
+    void shouldNotStoreValueReadBeforeInvalidation() {
+        // Given: a reader takes the version, then a writer commits and invalidates
+        long version = cache.version();
+        cache.invalidate(1L);
+
+        // When
+        cache.put(1L, 10L, task(1L, 10L), version);
+
+        // Then
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    @DisplayName("Should invalidate every entry of a group and nothing else")
+    void shouldInvalidateGroup() {
+        // Given
+        cache.put(1L, 10L, task(1L, 10L), cache.version());
+        cache.put(2L, 20L, task(2L, 20L), cache.version());
+        cache.put(3L, 10L, task(3L, 10L), cache.version());
+
+        // When
+        cache.invalidateGroup(10L);
+
+        // Then
+        assertNull(cache.get(1L));
+        assertNull(cache.get(3L));
+        assertNotNull(cache.get(2L));
+        assertEquals(2.0, meterRegistry.get("timex.cache.invalidations").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should not cache responses above the value size limit")
+    void shouldNotCacheOversizedValues() {
+        // Given
+        TaskDto.Response large = task(1L, 10L);
+        large.setDescription("x".repeat(5000));
+
+        // When
+        cache.put(1L, 10L, large, cache.version());
+
+        // Then
+        assertNull(cache.get(1L));
+    }
+
+    private static TaskDto.Response task(Long id, Long projectId) {
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 12, 0);
+        return new TaskDto.Response(id, "Task " + id, "Description", Task.Status.TODO, 3, 2.5, null,
+                created.plusDays(7), created, created, projectId, "Project " + projectId);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T12:00:00Z");
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.timex.api.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.timex.api.dto.UserDto;
 import com.timex.api.model.User;
+import com.timex.api.pagination.CursorPage;
 import com.timex.api.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -85,7 +86,7 @@ public class UserControllerTest {
     @WithMockUser(roles = "ADMIN")
     void shouldGetAllUsersWhenAdmin() throws Exception {
         // Given
-        when(userService.getAllUsers()).thenReturn(allUsers);
+        when(userService.getAllUsers(null, null)).thenReturn(new CursorPage<>(allUsers, null));
 
         // When & Then
         mockMvc.perform(get("/users"))
@@ -95,9 +96,26 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$[0].id", is(1)))
                 .andExpect(jsonPath("$[0].username", is("testuser")))
                 .andExpect(jsonPath("$[1].id", is(2)))
-                .andExpect(jsonPath("$[1].username", is("admin")));
+                .andExpect(jsonPath("$[1].username", is("admin")))
+                .andExpect(header().doesNotExist(CursorPage.NEXT_CURSOR_HEADER));
 
-        verify(userService).getAllUsers();
+        verify(userService).getAllUsers(null, null);
+    }
+
+    @Test
+    @DisplayName("Should return next cursor header when more users exist")
+    @WithMockUser(roles = "ADMIN")
+    void shouldReturnNextCursorHeaderWhenMoreUsersExist() throws Exception {
+        // Given
+        when(userService.getAllUsers(null, 1)).thenReturn(new CursorPage<>(List.of(userResponse), "next-page"));
+
+        // When & Then
+        mockMvc.perform(get("/users").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER, "next-page"));
+
+        verify(userService).getAllUsers(null, 1);
     }
 
     @Test
@@ -108,7 +126,7 @@ public class UserControllerTest {
         mockMvc.perform(get("/users"))
                 .andExpect(status().isForbidden());
 
-        verify(userService, never()).getAllUsers();
+        verify(userService, never()).getAllUsers(any(), any());
     }
 
     @Test
@@ -0,0 +1,47 @@
+package com.timex.api.index;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BloomFilterTest {
+
+    @Test
+    @DisplayName("Should never report an added value as absent")
+    void shouldNeverReportAddedValueAsAbsent() {
+        // Given
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i);
+        }
+
+        // Then
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep false positive rate close to the configured rate")
+    void shouldKeepFalsePositiveRateCloseToConfiguredRate() {
+        // Given
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i + "@timex.com");
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other" + i + "@timex.com")) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertTrue(falsePositives / 100_000.0 < 0.02, "False positive rate was " + falsePositives / 100_000.0);
+    }
+}
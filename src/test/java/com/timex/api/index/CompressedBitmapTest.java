@@ -0,0 +1,101 @@
+package com.timex.api.index;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressedBitmapTest {
+
+    @Test
+    @DisplayName("Should hold the same values as a BitSet through adds and removes")
+    void shouldMatchBitSetThroughAddsAndRemoves() {
+        // Given: dense values cross the array-to-bitmap threshold, sparse ones span many chunks
+        Random random = new Random(7);
+        CompressedBitmap bitmap = new CompressedBitmap();
+        BitSet expected = new BitSet();
+
+        // When
+        for (int i = 0; i < 200_000; i++) {
+            int value = i % 2 == 0 ? random.nextInt(20_000) : random.nextInt(2_000_000);
+            if (random.nextInt(4) == 0) {
+                bitmap.remove(value);
+                expected.clear(value);
+            } else {
+                bitmap.add(value);
+                expected.set(value);
+            }
+        }
+
+        // Then
+        assertEquals(expected.cardinality(), bitmap.cardinality());
+        assertSameValues(expected, bitmap);
+    }
+
+    @Test
+    @DisplayName("Should intersect and unite like a BitSet without changing the inputs")
+    void shouldIntersectAndUniteLikeBitSet() {
+        // Given
+        Random random = new Random(11);
+        CompressedBitmap dense = new CompressedBitmap();
+        CompressedBitmap sparse = new CompressedBitmap();
+        BitSet expectedDense = new BitSet();
+        BitSet expectedSparse = new BitSet();
+        for (int i = 0; i < 100_000; i++) {
+            int value = random.nextInt(300_000);
+            dense.add(value);
+            expectedDense.set(value);
+        }
+        for (int i = 0; i < 3_000; i++) {
+            int value = random.nextInt(300_000);
+            sparse.add(value);
+            expectedSparse.set(value);
+        }
+
+        // When
+        CompressedBitmap intersection = dense.and(sparse);
+        CompressedBitmap union = sparse.or(dense);
+
+        // Then
+        BitSet expectedIntersection = (BitSet) expectedDense.clone();
+        expectedIntersection.and(expectedSparse);
+        BitSet expectedUnion = (BitSet) expectedDense.clone();
+        expectedUnion.or(expectedSparse);
+        assertSameValues(expectedIntersection, intersection);
+        assertSameValues(expectedUnion, union);
+        assertSameValues(expectedDense, dense);
+        assertSameValues(expectedSparse, sparse);
+    }
+
+    @Test
+    @DisplayName("Should report an empty bitmap once every value is removed")
+    void shouldBecomeEmptyAfterRemovingEveryValue() {
+        // Given
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = 0; i < 10_000; i++) {
+            bitmap.add(i * 3);
+        }
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            bitmap.remove(i * 3);
+        }
+
+        // Then
+        assertTrue(bitmap.isEmpty());
+        assertEquals(-1, bitmap.nextSetBit(0));
+    }
+
+    private static void assertSameValues(BitSet expected, CompressedBitmap actual) {
+        int value = actual.nextSetBit(0);
+        for (int bit = expected.nextSetBit(0); bit >= 0; bit = expected.nextSetBit(bit + 1)) {
+            assertEquals(bit, value);
+            assertTrue(actual.contains(bit));
+            value = actual.nextSetBit(value + 1);
+        }
+        assertEquals(-1, value);
+    }
+}
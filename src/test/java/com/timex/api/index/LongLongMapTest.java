@@ -0,0 +1,72 @@
+package com.timex.api.index;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongLongMapTest {
+
+    @Test
+    @DisplayName("Should hold the same entries as a HashMap through puts, overwrites and removes")
+    void shouldMatchHashMapThroughPutsAndRemoves() {
+        // Given: a narrow key range forces overwrites, long probe runs and removals inside them
+        Random random = new Random(5);
+        LongLongMap map = new LongLongMap();
+        Map<Long, Long> expected = new HashMap<>();
+
+        // When
+        for (int i = 0; i < 300_000; i++) {
+            long key = 1 + random.nextInt(50_000);
+            if (random.nextInt(3) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            } else {
+                long value = 1 + random.nextInt(1_000);
+                map.put(key, value);
+                expected.put(key, value);
+            }
+        }
+
+        // Then
+        assertEquals(expected.size(), map.size());
+        for (long key = 1; key <= 50_000; key++) {
+            assertEquals(expected.getOrDefault(key, LongLongMap.MISSING), map.get(key), "key " + key);
+        }
+    }
+
+    @Test
+    @DisplayName("Should find keys that differ only in their high bits")
+    void shouldSpreadKeysDifferingInHighBits() {
+        // Given
+        LongLongMap map = new LongLongMap();
+
+        // When
+        for (long i = 1; i <= 10_000; i++) {
+            map.put(i << 32, i);
+        }
+        map.remove(5_000L << 32);
+
+        // Then
+        assertEquals(9_999, map.size());
+        assertEquals(1, map.get(1L << 32));
+        assertEquals(LongLongMap.MISSING, map.get(5_000L << 32));
+        assertEquals(10_000, map.get(10_000L << 32));
+        assertEquals(LongLongMap.MISSING, map.get(1));
+    }
+
+    @Test
+    @DisplayName("Should reject the zero key that marks empty slots")
+    void shouldRejectZeroKey() {
+        // Given
+        LongLongMap map = new LongLongMap();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> map.put(0L, 1L));
+        assertEquals(LongLongMap.MISSING, map.get(0L));
+    }
+}
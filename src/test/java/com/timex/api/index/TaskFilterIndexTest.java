@@ -0,0 +1,167 @@
+package com.timex.api.index;
+
+import com.timex.api.cache.InvalidationBus;
+import com.timex.api.model.Project;
+import com.timex.api.model.Task;
+import com.timex.api.model.User;
+import com.timex.api.repository.TaskRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TaskFilterIndexTest {
+
+    private static final long OWNER = 1L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private TaskFilterIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // The mocked repository has no tasks, so the rebuild leaves an empty, ready index
+        index = new TaskFilterIndex(mock(TaskRepository.class), new SimpleMeterRegistry(),
+                mock(InvalidationBus.class));
+        index.rebuild();
+    }
+
+    @Test
+    @DisplayName("Should match every given attribute and the exact due window")
+    void shouldMatchEveryAttribute() {
+        // Given
+        index.taskSaved(task(1L, 10L, Task.Status.TODO, 3, NOW));
+        index.taskSaved(task(2L, 10L, Task.Status.TODO, 3, NOW.plusHours(30)));
+        index.taskSaved(task(3L, 10L, Task.Status.BLOCKED, 3, NOW));
+        index.taskSaved(task(4L, 20L, Task.Status.TODO, 3, NOW));
+        index.taskSaved(task(5L, 10L, Task.Status.TODO, 1, NOW.minusMinutes(1)));
+
+        // When & Then
+        assertEquals(List.of(1L, 2L, 4L), index.filter(OWNER, null, Task.Status.TODO, 3, null, null, 0L, 10));
+        assertEquals(List.of(1L), index.filter(OWNER, 10L, Task.Status.TODO, null, NOW, NOW.plusDays(1), 0L, 10));
+        assertEquals(List.of(2L, 4L), index.filter(null, null, Task.Status.TODO, 3, null, null, 1L, 10));
+        assertTrue(index.filter(2L, null, null, null, null, null, 0L, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep id order for tasks committed out of id order")
+    void shouldKeepIdOrderForLateCommits() {
+        // Given
+        index.taskSaved(task(1L, 10L, Task.Status.TODO, 3, null));
+        index.taskSaved(task(4L, 10L, Task.Status.TODO, 3, null));
+        index.taskSaved(task(2L, 10L, Task.Status.TODO, 3, null));
+        index.taskSaved(task(3L, 10L, Task.Status.BLOCKED, 3, null));
+
+        // When & Then
+        assertEquals(List.of(1L, 2L, 4L), index.filter(OWNER, null, Task.Status.TODO, null, null, null, 0L, 10));
+        assertEquals(List.of(1L, 2L), index.filter(OWNER, null, Task.Status.TODO, null, null, null, 0L, 2));
+        assertEquals(List.of(4L), index.filter(OWNER, null, Task.Status.TODO, null, null, null, 2L, 10));
+    }
+
+    @Test
+    @DisplayName("Should reflect status changes, updates and removals")
+    void shouldReflectWrites() {
+        // Given
+        index.taskSaved(task(1L, 10L, Task.Status.TODO, 3, NOW));
+        index.taskSaved(task(2L, 10L, Task.Status.TODO, 3, NOW));
+
+        // When
+        index.statusChanged(1L, Task.Status.COMPLETED);
+        index.taskSaved(task(2L, 20L, Task.Status.TODO, 5, NOW.plusDays(3)));
+        index.tasksRemoved(List.of(1L));
+
+        // Then
+        assertTrue(index.filter(OWNER, null, Task.Status.COMPLETED, null, null, null, 0L, 10).isEmpty());
+        assertTrue(index.filter(OWNER, 10L, null, null, null, null, 0L, 10).isEmpty());
+        assertEquals(List.of(2L), index.filter(OWNER, 20L, null, 5, NOW.plusDays(2), null, 0L, 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Should keep writes committed while the rebuild reads older rows")
+    void shouldKeepWritesDuringRebuild() {
+        // Given: the rows are read before task 1 changes, task 2 is deleted and task 3 changes status
+        TaskRepository taskRepository = mock(TaskRepository.class);
+        TaskFilterIndex rebuilding = new TaskFilterIndex(taskRepository, new SimpleMeterRegistry(),
+                mock(InvalidationBus.class));
+        when(taskRepository.findFilterRowsAfter(eq(0L), any())).thenAnswer(invocation -> {
+            rebuilding.taskSaved(task(1L, 10L, Task.Status.COMPLETED, 3, null));
+            rebuilding.tasksRemoved(List.of(2L));
+            rebuilding.statusChanged(3L, Task.Status.COMPLETED);
+            return List.of(row(1L, Task.Status.TODO), row(2L, Task.Status.TODO), row(3L, Task.Status.TODO));
+        });
+        when(taskRepository.findFilterRowsByIdIn(List.of(3L)))
+                .thenReturn(List.of(row(3L, Task.Status.COMPLETED)));
+
+        // When
+        rebuilding.rebuild();
+
+        // Then
+        assertEquals(List.of(1L, 3L), rebuilding.filter(OWNER, null, Task.Status.COMPLETED, null, null, null, 0L, 10));
+        assertTrue(rebuilding.filter(OWNER, null, Task.Status.TODO, null, null, null, 0L, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not answer before the first rebuild")
+    void shouldNotAnswerBeforeRebuild() {
+        // Given
+        TaskFilterIndex loading = new TaskFilterIndex(mock(TaskRepository.class), new SimpleMeterRegistry(),
+                mock(InvalidationBus.class));
+
+        // When & Then
+        assertFalse(loading.isReady());
+        assertNull(loading.filter(OWNER, null, null, null, null, null, 0L, 10));
+    }
+
+    private static Task task(Long id, Long projectId, Task.Status status, Integer priority, LocalDateTime dueDate) {
+        return Task.builder()
+                .id(id)
+                .status(status)
+                .priority(priority)
+                .dueDate(dueDate)
+                .project(Project.builder().id(projectId).user(User.builder().id(OWNER).build()).build())
+                .build();
+    }
+
+    private static TaskRepository.FilterRowView row(Long id, Task.Status status) {
+        return new TaskRepository.FilterRowView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getProjectId() {
+                return 10L;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return OWNER;
+            }
+
+            @Override
+            public Task.Status getStatus() {
+                return status;
+            }
+
+            @Override
+            public Integer getPriority() {
+                return 3;
+            }
+
+            @Override
+            public LocalDateTime getDueDate() {
+                return null;
+            }
+        };
+    }
+}
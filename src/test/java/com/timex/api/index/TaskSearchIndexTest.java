@@ -0,0 +1,227 @@
+package com.timex.api.index;
+
+import com.timex.api.cache.InvalidationBus;
+import com.timex.api.model.Project;
+import com.timex.api.model.Task;
+import com.timex.api.model.User;
+import com.timex.api.repository.TaskRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TaskSearchIndexTest {
+
+    private static final long OWNER = 1L;
+    private static final long OTHER_OWNER = 2L;
+
+    private TaskSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // The mocked repository has no tasks, so the rebuild leaves an empty, ready index
+        index = new TaskSearchIndex(mock(TaskRepository.class), new SimpleMeterRegistry(),
+                mock(InvalidationBus.class));
+        index.rebuild();
+    }
+
+    @Test
+    @DisplayName("Should rank title matches above description matches")
+    void shouldRankTitleMatchesFirst() {
+        // Given
+        index.taskSaved(task(1L, OWNER, "Write release notes", "Mention the login fix"));
+        index.taskSaved(task(2L, OWNER, "Fix login redirect", "Users land on a blank page"));
+        index.taskSaved(task(3L, OWNER, "Plan sprint", null));
+
+        // When
+        List<Long> hits = index.search(OWNER, "Login", 10);
+
+        // Then
+        assertEquals(List.of(2L, 1L), hits);
+    }
+
+    @Test
+    @DisplayName("Should match words by prefix and require every query word")
+    void shouldMatchByPrefixAndRequireEveryWord() {
+        // Given
+        index.taskSaved(task(1L, OWNER, "Deploy billing service", null));
+        index.taskSaved(task(2L, OWNER, "Deployment checklist", "billing and invoices"));
+        index.taskSaved(task(3L, OWNER, "Deploy search", null));
+
+        // When & Then
+        assertEquals(3, index.search(OWNER, "depl", 10).size());
+        assertEquals(List.of(1L, 2L), index.search(OWNER, "deploy bill", 10));
+        assertTrue(index.search(OWNER, "deploy payroll", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should only return tasks of the searching owner")
+    void shouldScopeResultsToOwner() {
+        // Given
+        index.taskSaved(task(1L, OWNER, "Quarterly report", null));
+        index.taskSaved(task(2L, OTHER_OWNER, "Quarterly report", null));
+
+        // When & Then
+        assertEquals(List.of(1L), index.search(OWNER, "quarterly", 10));
+        assertEquals(List.of(2L), index.search(OTHER_OWNER, "quarterly", 10));
+    }
+
+    @Test
+    @DisplayName("Should reflect updated and removed tasks")
+    void shouldReflectUpdatesAndRemovals() {
+        // Given
+        index.taskSaved(task(1L, OWNER, "Old title", null));
+        index.taskSaved(task(2L, OWNER, "Other title", null));
+
+        // When
+        index.taskSaved(task(1L, OTHER_OWNER, "New heading", null));
+        index.tasksRemoved(List.of(2L));
+
+        // Then
+        assertTrue(index.search(OWNER, "title", 10).isEmpty());
+        assertEquals(List.of(1L), index.search(OTHER_OWNER, "heading", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Should remove tasks saved out of id order from shared postings")
+    void shouldRemoveTasksSavedOutOfOrder() {
+        // Given
+        for (long id : new long[] { 5, 1, 4, 2, 3 }) {
+            index.taskSaved(task(id, OWNER, "Weekly sync", null));
+        }
+
+        // When
+        index.tasksRemoved(List.of(4L, 1L, 6L));
+
+        // Then
+        assertEquals(List.of(2L, 3L, 5L), index.search(OWNER, "weekly", 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    @DisplayName("Should keep writes committed while the rebuild reads older documents")
+    void shouldKeepWritesDuringRebuild() {
+        // Given: the documents are read before task 1 is renamed and task 2 is deleted
+        TaskRepository taskRepository = mock(TaskRepository.class);
+        TaskSearchIndex rebuilding = new TaskSearchIndex(taskRepository, new SimpleMeterRegistry(),
+                mock(InvalidationBus.class));
+        when(taskRepository.findSearchDocumentsAfter(eq(0L), any())).thenAnswer(invocation -> {
+            rebuilding.taskSaved(task(1L, OWNER, "New heading", null));
+            rebuilding.tasksRemoved(List.of(2L));
+            return List.of(document(1L, "Old title"), document(2L, "Other title"));
+        });
+
+        // When
+        rebuilding.rebuild();
+
+        // Then
+        assertTrue(rebuilding.search(OWNER, "title", 10).isEmpty());
+        assertEquals(List.of(1L), rebuilding.search(OWNER, "heading", 10));
+        assertEquals(1, rebuilding.size());
+    }
+
+    @Test
+    @DisplayName("Should not answer before the first rebuild")
+    void shouldNotAnswerBeforeRebuild() {
+        // Given
+        TaskSearchIndex loading = new TaskSearchIndex(mock(TaskRepository.class), new SimpleMeterRegistry(),
+                mock(InvalidationBus.class));
+
+        // When & Then
+        assertFalse(loading.isReady());
+        assertNull(loading.search(OWNER, "anything", 10));
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Should answer top-K prefix queries on 200k tasks of one owner within 10 ms at p99")
+    void shouldAnswerQueriesQuicklyOnLargeShard() {
+        // Given: one owner holding every task is the worst case, as searches only read the caller's shard
+        Random random = new Random(42);
+        String[] vocabulary = new String[20_000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = word(random);
+        }
+        for (long id = 1; id <= 200_000; id++) {
+            index.taskSaved(task(id, OWNER, sentence(random, vocabulary, 4), sentence(random, vocabulary, 12)));
+        }
+
+        // When
+        long[] nanos = new long[2_000];
+        for (int i = -500; i < nanos.length; i++) {
+            String query = vocabulary[random.nextInt(vocabulary.length)] + " "
+                    + vocabulary[random.nextInt(vocabulary.length)].substring(0, 3);
+            long start = System.nanoTime();
+            index.search(OWNER, query, 20);
+            if (i >= 0) {
+                nanos[i] = System.nanoTime() - start;
+            }
+        }
+
+        // Then
+        Arrays.sort(nanos);
+        double p99Millis = nanos[(int) (nanos.length * 0.99)] / 1e6;
+        assertTrue(p99Millis < 10, "p99 was " + p99Millis + " ms");
+    }
+
+    private static Task task(Long id, Long ownerId, String title, String description) {
+        return Task.builder()
+                .id(id)
+                .title(title)
+                .description(description)
+                .project(Project.builder().user(User.builder().id(ownerId).build()).build())
+                .build();
+    }
+
+    private static TaskRepository.SearchDocumentView document(Long id, String title) {
+        return new TaskRepository.SearchDocumentView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return OWNER;
+            }
+
+            @Override
+            public String getTitle() {
+                return title;
+            }
+
+            @Override
+            public String getDescription() {
+                return null;
+            }
+        };
+    }
+
+    private static String sentence(Random random, String[] vocabulary, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            sentence.append(vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+        }
+        return sentence.toString();
+    }
+
+    private static String word(Random random) {
+        char[] letters = new char[4 + random.nextInt(6)];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(letters);
+    }
+}
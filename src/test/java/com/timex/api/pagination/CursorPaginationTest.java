@@ -0,0 +1,90 @@
+package com.timex.api.pagination;
+
+import com.timex.api.exception.ApiException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CursorPaginationTest {
+
+    private static final String SCOPE = "projects:owner:1";
+
+    private final CursorPagination cursorPagination = new CursorPagination("test_cursor_secret", 50, 500);
+
+    @Test
+    @DisplayName("Should decode the sort key and id of a cursor it issued")
+    void shouldRoundTripCursor() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+        // When
+        Cursor cursor = cursorPagination.decode(SCOPE, cursorPagination.encode(SCOPE, createdAt, 42L));
+
+        // Then
+        assertEquals(createdAt, cursor.getSortKeyAsDateTime());
+        assertEquals(42L, cursor.getId());
+        assertNull(cursorPagination.decode(SCOPE, null));
+    }
+
+    @Test
+    @DisplayName("Should reject a cursor whose payload or signature was changed")
+    void shouldRejectTamperedCursor() {
+        // Given
+        String cursor = cursorPagination.encode(SCOPE, "alice", 7L);
+        String payload = cursor.substring(0, cursor.indexOf('.'));
+        String signature = cursor.substring(cursor.indexOf('.') + 1);
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString("alice|8".getBytes());
+
+        // When & Then
+        assertBadRequest(forgedPayload + "." + signature);
+        assertBadRequest(payload + "." + (signature.charAt(0) == 'A' ? 'B' : 'A') + signature.substring(1));
+    }
+
+    @Test
+    @DisplayName("Should reject a cursor issued for another list")
+    void shouldRejectCursorOfOtherScope() {
+        // Given
+        String cursor = cursorPagination.encode("projects:owner:2", "alice", 7L);
+
+        // When & Then
+        assertBadRequest(cursor);
+    }
+
+    @Test
+    @DisplayName("Should reject malformed cursors")
+    void shouldRejectMalformedCursor() {
+        for (String cursor : List.of("no-separator", ".", "!!!.???", "YWxpY2U.c2ln", "YWxpY2V8eA.")) {
+            assertBadRequest(cursor);
+        }
+        // Signed, but the id does not parse
+        assertBadRequest(cursorPagination.encode(SCOPE, "alice", null));
+    }
+
+    @Test
+    @DisplayName("Should page one row short of the fetch window and point the cursor at the last row kept")
+    void shouldPageFetchWindow() {
+        // Given
+        List<Long> rows = List.of(1L, 2L, 3L);
+
+        // When
+        CursorPage<Long> page = cursorPagination.page(rows, 2, SCOPE, id -> "key", id -> id);
+        CursorPage<Long> last = cursorPagination.page(rows.subList(2, 3), 2, SCOPE, id -> "key", id -> id);
+
+        // Then
+        assertEquals(List.of(1L, 2L), page.getItems());
+        assertEquals(2L, cursorPagination.decode(SCOPE, page.getNextCursor()).getId());
+        assertNull(last.getNextCursor());
+    }
+
+    private void assertBadRequest(String cursor) {
+        ApiException exception = assertThrows(ApiException.class, () -> cursorPagination.decode(SCOPE, cursor),
+                cursor);
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+}
@@ -0,0 +1,126 @@
+package com.timex.api.repository;
+
+import com.timex.api.dto.ProjectDto;
+import com.timex.api.mapper.ProjectMapper;
+import com.timex.api.mapper.ProjectMapperImpl;
+import com.timex.api.mapper.TaskMapperImpl;
+import com.timex.api.model.Project;
+import com.timex.api.model.Task;
+import com.timex.api.model.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ ProjectMapperImpl.class, TaskMapperImpl.class })
+public class ProjectRepositoryTest {
+
+    private static final int TASK_COUNT = 1000;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectMapper projectMapper;
+
+    private Long userId;
+    private Long projectId;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(User.builder()
+                .username("owner")
+                .password("encoded_password")
+                .email("owner@example.com")
+                .fullName("Project Owner")
+                .roles(Collections.singleton(User.Role.ROLE_USER))
+                .build());
+
+        Project project = entityManager.persist(Project.builder()
+                .name("Large Project")
+                .user(user)
+                .build());
+
+        for (int i = 0; i < TASK_COUNT; i++) {
+            entityManager.persist(Task.builder()
+                    .title("Task " + i)
+                    .priority(1 + i % 5)
+                    .dueDate(LocalDateTime.now().plusDays(i))
+                    .project(project)
+                    .build());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        userId = user.getId();
+        projectId = project.getId();
+    }
+
+    @Test
+    @DisplayName("Should load project detail with a fixed number of statements")
+    void shouldLoadProjectDetailWithFixedNumberOfStatements() {
+        // Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        Project project = projectRepository.findDetailedById(projectId).orElseThrow();
+        ProjectDto.DetailedResponse response = projectMapper.toDetailedDto(project);
+
+        // Then
+        assertEquals(TASK_COUNT, response.getTasks().size());
+        assertEquals("owner", response.getUserName());
+        assertTrue(response.getTasks().stream().allMatch(task -> "Large Project".equals(task.getProjectName())));
+        // Project, owner and all tasks come from a single joined select
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should summarize every project of a user in one grouped statement")
+    void shouldSummarizeProjectsOfUserInOneStatement() {
+        // Given
+        Long emptyProjectId = entityManager.persist(Project.builder()
+                .name("Empty Project")
+                .user(entityManager.find(User.class, userId))
+                .build()).getId();
+        entityManager.flush();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        List<ProjectRepository.SummaryView> rows = projectRepository.summarizeByUserId(userId,
+                LocalDateTime.now().plusHours(12), Task.Status.COMPLETED);
+
+        // Then
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(2, rows.size());
+        assertEquals(projectId, rows.get(0).getProjectId());
+        assertEquals(Task.Status.TODO, rows.get(0).getStatus());
+        assertEquals(TASK_COUNT, rows.get(0).getTaskCount());
+        // Only the first task, due when the data was created, is before the summary time
+        assertEquals(1, rows.get(0).getOverdueCount());
+        assertNotNull(rows.get(0).getNextDueDate());
+        assertEquals(emptyProjectId, rows.get(1).getProjectId());
+        assertNull(rows.get(1).getStatus());
+        assertEquals(0, rows.get(1).getTaskCount());
+    }
+}
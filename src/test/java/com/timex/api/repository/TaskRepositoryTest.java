@@ -0,0 +1,247 @@
+package com.timex.api.repository;
+
+import com.timex.api.dto.TaskDto;
+import com.timex.api.exception.ApiException;
+import com.timex.api.mapper.TaskMapper;
+import com.timex.api.mapper.TaskMapperImpl;
+import com.timex.api.model.Project;
+import com.timex.api.model.Task;
+import com.timex.api.model.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManagerFactory;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(TaskMapperImpl.class)
+public class TaskRepositoryTest {
+
+    private static final int TASK_COUNT = 10_000;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    private Long projectId;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(User.builder()
+                .username("owner")
+                .password("encoded_password")
+                .email("owner@example.com")
+                .fullName("Project Owner")
+                .roles(Collections.singleton(User.Role.ROLE_USER))
+                .build());
+
+        Project project = entityManager.persist(Project.builder()
+                .name("Large Project")
+                .user(user)
+                .build());
+
+        for (int i = 0; i < TASK_COUNT; i++) {
+            entityManager.persist(Task.builder()
+                    .title("Task " + i)
+                    .description("Description of task " + i)
+                    .priority(1 + i % 5)
+                    .dueDate(LocalDateTime.now().plusDays(i))
+                    .project(project)
+                    .build());
+            if (i % 500 == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        projectId = project.getId();
+    }
+
+    @Test
+    @DisplayName("Should project task rows into the same responses as the entity mapper")
+    void shouldProjectTaskRowsIntoSameResponsesAsEntityMapper() {
+        // When
+        List<TaskDto.Response> projected = projectedPath().get();
+        entityManager.clear();
+        List<TaskDto.Response> mapped = entityPath().get();
+
+        // Then
+        assertEquals(TASK_COUNT, projected.size());
+        assertEquals(mapped, projected);
+        assertEquals("Large Project", projected.get(0).getProjectName());
+    }
+
+    @Test
+    @DisplayName("Should read 10k task responses with one statement and without loading entities")
+    void shouldReadResponsesWithoutLoadingEntities() {
+        // Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        List<TaskDto.Response> projected = projectedPath().get();
+
+        // Then: neither the tasks nor their projects become managed entities
+        assertEquals(TASK_COUNT, projected.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Should allocate less heap per 10k rows than the entity and mapper path")
+    void shouldAllocateLessHeapThanEntityPath() {
+        // Given: run both paths once so query plans and class loading are not measured
+        measureAllocatedBytes(projectedPath());
+        measureAllocatedBytes(entityPath());
+
+        // When
+        long projectedBytes = measureAllocatedBytes(projectedPath());
+        long entityBytes = measureAllocatedBytes(entityPath());
+
+        // Then
+        assertTrue(projectedBytes < entityBytes,
+                "projection allocated " + projectedBytes + " bytes, entity path " + entityBytes + " bytes");
+    }
+
+    @Test
+    @DisplayName("Should count the tasks of a page of projects in one grouped statement")
+    void shouldCountTasksOfProjectsInOneStatement() {
+        // When
+        List<TaskRepository.ProjectCountsView> counts = taskRepository.countByProjectIdIn(
+                List.of(projectId, Long.MAX_VALUE), LocalDateTime.now().plusHours(12), Task.Status.COMPLETED);
+
+        // Then: a project without tasks has no row
+        assertEquals(1, counts.size());
+        assertEquals(projectId, counts.get(0).getProjectId());
+        assertEquals(TASK_COUNT, counts.get(0).getTaskCount());
+        assertEquals(TASK_COUNT, counts.get(0).getOpenCount());
+        // Only the first task, due when the data was created, is before the given time
+        assertEquals(1, counts.get(0).getOverdueCount());
+    }
+
+    @Test
+    @DisplayName("Should page a filtered multi-key sort by keyset in the same order as sorting all rows")
+    void shouldPageFilteredQueryByKeyset() {
+        // Given
+        TaskSort sort = TaskSort.parse("-priority,dueDate");
+        Specification<Task> filter = Specification.where(TaskSpecifications.inProject(projectId))
+                .and(TaskSpecifications.priorityBetween(2, 4))
+                .and(TaskSpecifications.textContains("TASK 1"))
+                .and(sort.hasKeys());
+        List<Long> expected = taskRepository.findResponsesByProjectId(projectId, PageRequest.of(0, TASK_COUNT))
+                .stream()
+                .filter(task -> task.getPriority() >= 2 && task.getPriority() <= 4)
+                .filter(task -> task.getTitle().startsWith("Task 1"))
+                .sorted(Comparator.comparing(TaskDto.Response::getPriority).reversed()
+                        .thenComparing(TaskDto.Response::getDueDate, Comparator.reverseOrder())
+                        .thenComparing(TaskDto.Response::getId, Comparator.reverseOrder()))
+                .map(TaskDto.Response::getId)
+                .collect(Collectors.toList());
+
+        // When
+        List<Long> walked = new ArrayList<>();
+        List<TaskDto.Response> page = taskRepository.findResponses(filter, sort, 100);
+        while (!page.isEmpty()) {
+            page.forEach(task -> walked.add(task.getId()));
+            TaskDto.Response last = page.get(page.size() - 1);
+            page = taskRepository.findResponses(filter.and(sort.after(sort.cursorKey(last), last.getId())), sort,
+                    100);
+        }
+
+        // Then
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, walked);
+    }
+
+    @Test
+    @DisplayName("Should only accept sorts served by an existing index")
+    void shouldOnlyAcceptIndexedSorts() {
+        // When & Then
+        for (String index : TaskSort.INDEXES.values()) {
+            Number found = (Number) entityManager.getEntityManager()
+                    .createNativeQuery("select count(*) from information_schema.indexes where lower(index_name) = ?1")
+                    .setParameter(1, index)
+                    .getSingleResult();
+            assertTrue(found.intValue() > 0, index + " is missing");
+        }
+        assertEquals("idx_tasks_project_id_priority", TaskSort.parse("-priority,dueDate").getIndex());
+        assertThrows(ApiException.class, () -> TaskSort.parse("priority"));
+        assertThrows(ApiException.class, () -> TaskSort.parse("dueDate,priority"));
+        assertThrows(ApiException.class, () -> TaskSort.parse("title"));
+    }
+
+    @Test
+    @DisplayName("Should reject text filters and nullable sort keys without a range to bound them")
+    void shouldRejectUnboundedFilters() {
+        // Given
+        TaskDto.Query text = TaskDto.Query.builder().projectId(projectId).text("task").build();
+        TaskDto.Query textAndPriority = TaskDto.Query.builder().projectId(projectId).text("task").priorityMin(2)
+                .dueFrom(LocalDateTime.now()).build();
+        TaskDto.Query noRange = TaskDto.Query.builder().projectId(projectId).build();
+
+        // When & Then
+        assertThrows(ApiException.class, () -> TaskSort.parse("createdAt").checkFilters(text));
+        assertThrows(ApiException.class, () -> TaskSort.parse("dueDate").checkFilters(text));
+        assertDoesNotThrow(() -> TaskSort.parse("-priority,dueDate").checkFilters(textAndPriority));
+        assertThrows(ApiException.class, () -> TaskSort.parse("dueDate").checkFilters(noRange));
+        assertThrows(ApiException.class, () -> TaskSort.parse("priority,dueDate").checkFilters(noRange));
+        assertDoesNotThrow(() -> TaskSort.parse("-updatedAt").checkFilters(noRange));
+    }
+
+    private Supplier<List<TaskDto.Response>> projectedPath() {
+        return () -> taskRepository.findResponsesByProjectId(projectId, PageRequest.of(0, TASK_COUNT));
+    }
+
+    private Supplier<List<TaskDto.Response>> entityPath() {
+        return () -> taskRepository.findByProjectId(projectId).stream()
+                .sorted((a, b) -> a.getId().compareTo(b.getId()))
+                .map(taskMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    private long measureAllocatedBytes(Supplier<List<TaskDto.Response>> path) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        entityManager.clear();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        assertEquals(TASK_COUNT, path.get().size());
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        entityManager.clear();
+        return allocated;
+    }
+}
@@ -0,0 +1,105 @@
+package com.timex.api.security.jwt;
+
+import com.timex.api.model.User;
+import com.timex.api.repository.UserRepository;
+import com.timex.api.security.service.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The principal is built from the token claims only while the registry knows them to be current. The
+ * users are changed straight in the database, as by an instance whose invalidation this one never got.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AuthTokenFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        created.forEach(id -> userRepository.findById(id).ifPresent(userRepository::delete));
+    }
+
+    @Test
+    @DisplayName("Should accept a token of an unchanged user")
+    void shouldAcceptTokenOfUnchangedUser() throws Exception {
+        // Given
+        User user = save("filter_current", User.Role.ROLE_ADMIN);
+        String token = token(user);
+
+        // When & Then
+        mockMvc.perform(get("/users").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Should reject a token of a deleted user")
+    void shouldRejectTokenOfDeletedUser() throws Exception {
+        // Given
+        User user = save("filter_deleted", User.Role.ROLE_USER);
+        String token = token(user);
+        userRepository.delete(user);
+
+        // When & Then
+        mockMvc.perform(get("/users/profile").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Should use the stored roles once the token version was bumped")
+    void shouldReloadUserWithBumpedTokenVersion() throws Exception {
+        // Given
+        User user = save("filter_demoted", User.Role.ROLE_ADMIN);
+        String token = token(user);
+        User demoted = userRepository.findById(user.getId()).orElseThrow();
+        demoted.setRoles(new HashSet<>(Set.of(User.Role.ROLE_USER)));
+        demoted.setTokenVersion(demoted.getTokenVersion() + 1);
+        userRepository.save(demoted);
+
+        // When & Then
+        mockMvc.perform(get("/users").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    private User save(String username, User.Role role) {
+        User user = userRepository.save(User.builder()
+                .username(username)
+                .password("encoded_password")
+                .email(username + "@example.com")
+                .fullName(username)
+                .roles(new HashSet<>(Set.of(role)))
+                .build());
+        created.add(user.getId());
+        return user;
+    }
+
+    private String token(User user) {
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        return jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,155 @@
+package com.timex.api.security.jwt;
+
+import com.timex.api.security.service.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A verification served from the cache must reject whatever a full verification rejects.
+ */
+public class JwtUtilsTest {
+
+    private static final String SECRET = "test_secret_key_long_enough_for_hmac_sha_256_signatures";
+    private static final String ROTATED_SECRET = "rotated_secret_key_long_enough_for_hmac_sha_256_signatures";
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = jwtUtils(SECRET, 60_000, 100);
+    }
+
+    @Test
+    @DisplayName("Should verify a token and serve it from the cache afterwards")
+    void shouldServeVerifiedTokenFromCache() {
+        // Given
+        String token = token(jwtUtils);
+
+        // When
+        JwtVerification first = jwtUtils.verifyJwtToken(token);
+        JwtVerification second = jwtUtils.verifyJwtToken(token);
+
+        // Then
+        assertTrue(first.isValid());
+        assertTrue(second.isValid());
+        assertSame(first.getClaims(), second.getClaims());
+        assertEquals("owner", jwtUtils.getUserDetailsFromJwtClaims(second.getClaims()).getUsername());
+    }
+
+    @Test
+    @DisplayName("Should reject a tampered payload or signature of a cached token")
+    void shouldRejectTamperedCachedToken() {
+        // Given
+        String token = token(jwtUtils);
+        assertTrue(jwtUtils.verifyJwtToken(token).isValid());
+        String[] parts = token.split("\\.");
+        String otherPayload = token(jwtUtils(SECRET, 120_000, 100)).split("\\.")[1];
+
+        // When
+        JwtVerification tamperedPayload = jwtUtils.verifyJwtToken(parts[0] + "." + otherPayload + "." + parts[2]);
+        JwtVerification tamperedSignature = jwtUtils.verifyJwtToken(parts[0] + "." + parts[1] + "."
+                + flipFirstChar(parts[2]));
+
+        // Then
+        assertEquals(JwtVerification.Failure.INVALID_SIGNATURE, tamperedPayload.getFailure());
+        assertFalse(tamperedSignature.isValid());
+    }
+
+    @Test
+    @DisplayName("Should reject a token signed with another key")
+    void shouldRejectTokenOfRotatedKey() {
+        // Given
+        JwtUtils rotated = jwtUtils(ROTATED_SECRET, 60_000, 100);
+        String oldToken = token(jwtUtils);
+        assertTrue(jwtUtils.verifyJwtToken(oldToken).isValid());
+
+        // When
+        JwtVerification verification = rotated.verifyJwtToken(oldToken);
+
+        // Then
+        assertEquals(JwtVerification.Failure.INVALID_SIGNATURE, verification.getFailure());
+    }
+
+    @Test
+    @DisplayName("Should reject an expired token")
+    void shouldRejectExpiredToken() {
+        // Given
+        String token = Jwts.builder()
+                .setSubject("owner")
+                .setExpiration(new Date(System.currentTimeMillis() - 1_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        // When & Then
+        assertEquals(JwtVerification.Failure.EXPIRED, jwtUtils.verifyJwtToken(token).getFailure());
+    }
+
+    @Test
+    @DisplayName("Should stop serving a cached token once it expires")
+    void shouldDropCachedTokenAtExpiry() {
+        // Given
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        cache.put("header.payload.signature", claims(1_000));
+
+        // When & Then
+        assertNotNull(cache.get("header.payload.signature", 999));
+        assertNull(cache.get("header.payload.signature", 1_000));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should stay bounded by evicting the least recently used token")
+    void shouldStayBounded() {
+        // Given
+        VerifiedTokenCache cache = new VerifiedTokenCache(2);
+        cache.put("h.p.first", claims(5_000));
+        cache.put("h.p.second", claims(5_000));
+        assertNotNull(cache.get("h.p.first", 0));
+
+        // When: full and nothing has expired
+        cache.put("h.p.third", claims(5_000));
+
+        // Then
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("h.p.third", 0));
+        assertNotNull(cache.get("h.p.first", 0));
+        assertNull(cache.get("h.p.second", 0));
+    }
+
+    private static JwtUtils jwtUtils(String secret, int expirationMs, int cacheSize) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", secret);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", expirationMs);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheSize", cacheSize);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    private static String token(JwtUtils jwtUtils) {
+        UserDetailsImpl principal = new UserDetailsImpl(1L, "owner", "owner@example.com", "Owner", null,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")), 0);
+        return jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static Claims claims(long expiresAt) {
+        return Jwts.claims().setExpiration(new Date(expiresAt));
+    }
+
+    private static String flipFirstChar(String value) {
+        return (value.charAt(0) == 'A' ? 'B' : 'A') + value.substring(1);
+    }
+}
@@ -0,0 +1,100 @@
+package com.timex.api.security.service;
+
+import com.timex.api.exception.ErrorDetails;
+import com.timex.api.exception.GlobalExceptionHandler;
+import com.timex.api.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * One hashing thread and a queue of one, held busy by work that waits on a latch.
+ */
+public class CredentialHashingExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CredentialHashingExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should reject work with a 503 and Retry-After when the queue is full")
+    void shouldRejectWhenQueueIsFull() throws Exception {
+        // Given
+        executor = new CredentialHashingExecutor(1, 1, 7, Duration.ofSeconds(10), meterRegistry);
+        Future<String> running = callers.submit(() -> executor.execute(this::blocked));
+        Future<String> queued = callers.submit(() -> executor.execute(this::blocked));
+        awaitQueued();
+
+        // When
+        ServiceUnavailableException rejected = assertThrows(ServiceUnavailableException.class,
+                () -> executor.execute(() -> "hash"));
+        ResponseEntity<ErrorDetails> response = new GlobalExceptionHandler()
+                .handleServiceUnavailableException(rejected, new ServletWebRequest(new MockHttpServletRequest()));
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("7", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        release.countDown();
+        assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should stop waiting with a 503 once the timeout runs out")
+    void shouldFailWhenWaitTimesOut() {
+        // Given
+        executor = new CredentialHashingExecutor(1, 1, 1, Duration.ofMillis(50), meterRegistry);
+
+        // When
+        ServiceUnavailableException timedOut = assertThrows(ServiceUnavailableException.class,
+                () -> executor.execute(this::blocked));
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, timedOut.getStatus());
+        assertEquals(1, timedOut.getRetryAfterSeconds());
+    }
+
+    private String blocked() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "hash";
+    }
+
+    private void awaitQueued() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queueDepth() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, queueDepth());
+    }
+
+    private double queueDepth() {
+        return meterRegistry.get("timex.auth.hashing.queue.depth").gauge().value();
+    }
+}
@@ -0,0 +1,110 @@
+package com.timex.api.service;
+
+import com.timex.api.cache.InvalidationBus;
+import com.timex.api.cache.ReadCache;
+import com.timex.api.index.ProjectOwnershipIndex;
+import com.timex.api.index.TaskFilterIndex;
+import com.timex.api.index.TaskSearchIndex;
+import com.timex.api.model.Project;
+import com.timex.api.model.Task;
+import com.timex.api.model.User;
+import com.timex.api.repository.ProjectRepository;
+import com.timex.api.repository.TaskRepository;
+import com.timex.api.service.impl.ChunkedDeleter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.deletion.chunk-size=100"
+})
+@Import({ ChunkedDeleter.class, TaskSearchIndex.class, TaskFilterIndex.class, ProjectOwnershipIndex.class,
+        SimpleMeterRegistry.class, ReadCache.class, InvalidationBus.class })
+public class ChunkedDeleterTest {
+
+    private static final int TASKS_PER_PROJECT = 250;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ChunkedDeleter chunkedDeleter;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    private User owner;
+    private Project first;
+    private Project second;
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(User.builder()
+                .username("owner")
+                .password("encoded_password")
+                .email("owner@example.com")
+                .fullName("Project Owner")
+                .roles(Collections.singleton(User.Role.ROLE_USER))
+                .build());
+        first = entityManager.persist(Project.builder().name("First").user(owner).build());
+        second = entityManager.persist(Project.builder().name("Second").user(owner).build());
+
+        for (int i = 0; i < TASKS_PER_PROJECT; i++) {
+            entityManager.persist(Task.builder().title("First " + i).priority(3).project(first).build());
+            entityManager.persist(Task.builder().title("Second " + i).priority(3).project(second).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should delete the tasks of a project in chunks without loading them")
+    void shouldDeleteTasksOfProjectInChunks() {
+        // Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        int deleted = chunkedDeleter.deleteTasksOfProject(first.getId());
+
+        // Then
+        assertEquals(TASKS_PER_PROJECT, deleted);
+        assertEquals(0, statistics.getEntityLoadCount());
+        // An empty archive select, then three chunks of an id select and a delete and the empty select ending the loop
+        assertEquals(1 + 3 * 2 + 1, statistics.getPrepareStatementCount());
+        assertTrue(taskRepository.findByProjectId(first.getId()).isEmpty());
+        assertEquals(TASKS_PER_PROJECT, taskRepository.findByProjectId(second.getId()).size());
+    }
+
+    @Test
+    @DisplayName("Should delete every task and project of a user")
+    void shouldDeleteProjectsOfUser() {
+        // When
+        int deleted = chunkedDeleter.deleteProjectsOfUser(owner.getId());
+
+        // Then
+        assertEquals(2, deleted);
+        assertEquals(0, taskRepository.count());
+        assertTrue(projectRepository.findByUserId(owner.getId()).isEmpty());
+    }
+}
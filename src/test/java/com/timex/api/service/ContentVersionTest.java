@@ -0,0 +1,190 @@
+package com.timex.api.service;
+
+import com.timex.api.cache.InvalidationBus;
+import com.timex.api.cache.ReadCache;
+import com.timex.api.index.ProjectOwnershipIndex;
+import com.timex.api.index.TaskFilterIndex;
+import com.timex.api.index.TaskSearchIndex;
+import com.timex.api.mapper.ProjectMapperImpl;
+import com.timex.api.mapper.TaskMapperImpl;
+import com.timex.api.model.Project;
+import com.timex.api.model.Task;
+import com.timex.api.model.User;
+import com.timex.api.pagination.CursorPagination;
+import com.timex.api.security.service.AccessControl;
+import com.timex.api.security.service.UserDetailsImpl;
+import com.timex.api.service.impl.ChunkedDeleter;
+import com.timex.api.service.impl.ProjectServiceImpl;
+import com.timex.api.service.impl.TaskServiceImpl;
+import com.timex.api.stats.ProjectStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The versions behind the ETags of polled GETs change with every write that changes the response.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ ProjectServiceImpl.class, ProjectMapperImpl.class, TaskServiceImpl.class, TaskMapperImpl.class,
+        CursorPagination.class, ProjectStatistics.class, ChunkedDeleter.class, TaskSearchIndex.class,
+        TaskFilterIndex.class, ProjectOwnershipIndex.class, AccessControl.class, ReadCache.class,
+        InvalidationBus.class, SimpleMeterRegistry.class })
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+public class ContentVersionTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ProjectOwnershipIndex ownershipIndex;
+
+    private User owner;
+    private Project source;
+    private Project target;
+    private Project foreign;
+    private Task task;
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(user("owner"));
+        User stranger = entityManager.persist(user("stranger"));
+        source = entityManager.persist(Project.builder().name("Source").user(owner).build());
+        target = entityManager.persist(Project.builder().name("Target").user(owner).build());
+        foreign = entityManager.persist(Project.builder().name("Foreign").user(stranger).build());
+        task = entityManager.persist(Task.builder().title("Card").status(Task.Status.TODO).priority(3)
+                .project(source).build());
+        entityManager.flush();
+        entityManager.clear();
+        ownershipIndex.rebuild();
+
+        UserDetailsImpl principal = new UserDetailsImpl(owner.getId(), "owner", "owner@example.com",
+                "Owner", null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")), 0);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should read a version with one statement and keep it while nothing changes")
+    void shouldReadStableVersionWithOneStatement() {
+        // Given
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        String before = projectService.getProjectWithTasksVersion(source.getId());
+        statistics.clear();
+
+        // When
+        String after = projectService.getProjectWithTasksVersion(source.getId());
+
+        // Then
+        assertEquals(before, after);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should change the versions of both projects when a task moves")
+    void shouldChangeBothProjectsWhenTaskMoves() {
+        // Given
+        String sourceTasks = taskService.getTasksByProjectIdVersion(source.getId(), false);
+        String targetTasks = taskService.getTasksByProjectIdVersion(target.getId(), false);
+        String targetDetailed = projectService.getProjectWithTasksVersion(target.getId());
+
+        // When
+        taskService.moveTasks(source.getId(), null, null, null, target.getId());
+
+        // Then
+        assertNotEquals(sourceTasks, taskService.getTasksByProjectIdVersion(source.getId(), false));
+        assertNotEquals(targetTasks, taskService.getTasksByProjectIdVersion(target.getId(), false));
+        assertNotEquals(targetDetailed, projectService.getProjectWithTasksVersion(target.getId()));
+    }
+
+    @Test
+    @DisplayName("Should change the task list version when a task changes or the project is renamed")
+    void shouldChangeTaskListVersionOnTaskChangeAndRename() {
+        // Given
+        String initial = taskService.getTasksByProjectIdVersion(source.getId(), true);
+
+        // When
+        taskService.updateTaskStatus(task.getId(), Task.Status.IN_PROGRESS, null);
+        String updated = taskService.getTasksByProjectIdVersion(source.getId(), true);
+        entityManager.find(Project.class, source.getId()).setName("Renamed");
+        entityManager.flush();
+        String renamed = taskService.getTasksByProjectIdVersion(source.getId(), true);
+
+        // Then
+        assertNotEquals(initial, updated);
+        assertNotEquals(updated, renamed);
+    }
+
+    @Test
+    @DisplayName("Should change the project list version when a project is added or the owner changes")
+    void shouldChangeProjectListVersion() {
+        // Given
+        String initial = projectService.getAllProjectsVersion("owner");
+
+        // When
+        entityManager.persist(Project.builder().name("Added").user(entityManager.find(User.class, owner.getId()))
+                .build());
+        entityManager.flush();
+        String added = projectService.getAllProjectsVersion("owner");
+        User changed = entityManager.find(User.class, owner.getId());
+        changed.setTokenVersion(changed.getTokenVersion() + 1);
+        entityManager.flush();
+        String ownerChanged = projectService.getAllProjectsVersion("owner");
+
+        // Then
+        assertNotEquals(initial, added);
+        assertNotEquals(added, ownerChanged);
+        assertEquals(ownerChanged, projectService.getAllProjectsVersion("owner"));
+    }
+
+    @Test
+    @DisplayName("Should authorize before reading a version")
+    void shouldAuthorizeVersionReads() {
+        // When & Then
+        assertThrows(AccessDeniedException.class, () -> projectService.getProjectWithTasksVersion(foreign.getId()));
+        assertThrows(AccessDeniedException.class,
+                () -> taskService.getTasksByProjectIdVersion(foreign.getId(), false));
+    }
+
+    private static User user(String username) {
+        return User.builder()
+                .username(username)
+                .password("encoded_password")
+                .email(username + "@example.com")
+                .fullName(username)
+                .roles(Collections.singleton(User.Role.ROLE_USER))
+                .build();
+    }
+}
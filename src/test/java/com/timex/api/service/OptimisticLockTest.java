@@ -0,0 +1,179 @@
+package com.timex.api.service;
+
+import com.timex.api.cache.InvalidationBus;
+import com.timex.api.cache.ReadCache;
+import com.timex.api.dto.ProjectDto;
+import com.timex.api.dto.TaskDto;
+import com.timex.api.exception.PreconditionFailedException;
+import com.timex.api.index.ProjectOwnershipIndex;
+import com.timex.api.index.TaskFilterIndex;
+import com.timex.api.index.TaskSearchIndex;
+import com.timex.api.mapper.ProjectMapperImpl;
+import com.timex.api.mapper.TaskMapperImpl;
+import com.timex.api.model.Project;
+import com.timex.api.model.Task;
+import com.timex.api.model.User;
+import com.timex.api.pagination.CursorPagination;
+import com.timex.api.repository.ProjectRepository;
+import com.timex.api.repository.TaskRepository;
+import com.timex.api.repository.UserRepository;
+import com.timex.api.security.service.AccessControl;
+import com.timex.api.security.service.UserDetailsImpl;
+import com.timex.api.service.impl.ChunkedDeleter;
+import com.timex.api.service.impl.ProjectServiceImpl;
+import com.timex.api.service.impl.TaskServiceImpl;
+import com.timex.api.stats.ProjectStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Updates of a single task or project only apply at the version the client last read. Runs without the
+ * test transaction, so every call commits and reads what the previous one wrote.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ ProjectServiceImpl.class, ProjectMapperImpl.class, TaskServiceImpl.class, TaskMapperImpl.class,
+        CursorPagination.class, ProjectStatistics.class, ChunkedDeleter.class, TaskSearchIndex.class,
+        TaskFilterIndex.class, ProjectOwnershipIndex.class, AccessControl.class, ReadCache.class,
+        InvalidationBus.class, SimpleMeterRegistry.class })
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+public class OptimisticLockTest {
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectStatistics projectStatistics;
+
+    private Project project;
+    private Task task;
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.save(User.builder()
+                .username("owner")
+                .password("encoded_password")
+                .email("owner@example.com")
+                .fullName("Owner")
+                .roles(Collections.singleton(User.Role.ROLE_USER))
+                .build());
+        project = projectRepository.save(Project.builder().name("Board").user(owner).build());
+        task = taskRepository.save(Task.builder().title("Card").status(Task.Status.TODO).priority(3)
+                .project(project).build());
+        projectStatistics.rebuildAll();
+
+        UserDetailsImpl principal = new UserDetailsImpl(owner.getId(), "owner", "owner@example.com",
+                "Owner", null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")), 0);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        taskRepository.deleteAllInBatch();
+        projectRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should update a task at the expected version and return the next one")
+    void shouldUpdateTaskAtExpectedVersion() {
+        // Given
+        long version = taskService.getTaskById(task.getId()).getVersion();
+
+        // When
+        TaskDto.Response updated = taskService.updateTask(task.getId(), request("Renamed"), version);
+
+        // Then
+        assertEquals(version + 1, updated.getVersion());
+        assertEquals(updated.getVersion(), taskService.getTaskById(task.getId()).getVersion());
+    }
+
+    @Test
+    @DisplayName("Should reject a task update at a stale version without changing the task")
+    void shouldRejectStaleTaskUpdate() {
+        // Given
+        long stale = taskService.getTaskById(task.getId()).getVersion();
+        taskService.updateTaskStatus(task.getId(), Task.Status.IN_PROGRESS, null);
+
+        // When & Then
+        assertThrows(PreconditionFailedException.class,
+                () -> taskService.updateTask(task.getId(), request("Lost update"), stale));
+        assertThrows(PreconditionFailedException.class,
+                () -> taskService.updateTaskStatus(task.getId(), Task.Status.COMPLETED, stale));
+        TaskDto.Response current = taskService.getTaskById(task.getId());
+        assertEquals("Card", current.getTitle());
+        assertEquals(Task.Status.IN_PROGRESS, current.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should increment the version on status changes, one by one and in bulk")
+    void shouldIncrementVersionOnStatusChanges() {
+        // Given
+        long version = taskService.getTaskById(task.getId()).getVersion();
+
+        // When
+        TaskDto.Response changed = taskService.updateTaskStatus(task.getId(), Task.Status.IN_PROGRESS, version);
+        taskService.updateTasksStatus(project.getId(), null, null, null, Task.Status.COMPLETED);
+
+        // Then
+        assertEquals(version + 1, changed.getVersion());
+        assertEquals(version + 2, taskRepository.findById(task.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("Should update a project only at the expected version")
+    void shouldUpdateProjectOnlyAtExpectedVersion() {
+        // Given
+        long version = projectService.getProjectById(project.getId()).getVersion();
+
+        // When
+        ProjectDto.Response updated = projectService.updateProject(project.getId(),
+                ProjectDto.Request.builder().name("Renamed").build(), version);
+
+        // Then
+        assertEquals(version + 1, updated.getVersion());
+        assertThrows(PreconditionFailedException.class, () -> projectService.updateProject(project.getId(),
+                ProjectDto.Request.builder().name("Lost update").build(), version));
+        assertEquals("Renamed", projectService.getProjectById(project.getId()).getName());
+    }
+
+    private TaskDto.Request request(String title) {
+        return TaskDto.Request.builder()
+                .title(title)
+                .status(Task.Status.TODO)
+                .priority(3)
+                .projectId(project.getId())
+                .build();
+    }
+}
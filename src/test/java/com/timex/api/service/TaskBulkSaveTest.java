@@ -0,0 +1,163 @@
+package com.timex.api.service;
+
+import com.timex.api.cache.InvalidationBus;
+import com.timex.api.cache.ReadCache;
+import com.timex.api.dto.TaskDto;
+import com.timex.api.index.ProjectOwnershipIndex;
+import com.timex.api.index.TaskFilterIndex;
+import com.timex.api.index.TaskSearchIndex;
+import com.timex.api.mapper.TaskMapperImpl;
+import com.timex.api.model.Project;
+import com.timex.api.model.Task;
+import com.timex.api.model.User;
+import com.timex.api.pagination.CursorPagination;
+import com.timex.api.repository.TaskRepository;
+import com.timex.api.security.service.AccessControl;
+import com.timex.api.security.service.UserDetailsImpl;
+import com.timex.api.service.impl.TaskServiceImpl;
+import com.timex.api.stats.ProjectStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ TaskServiceImpl.class, TaskMapperImpl.class, CursorPagination.class, ProjectStatistics.class,
+        TaskSearchIndex.class, TaskFilterIndex.class, SimpleMeterRegistry.class, ProjectOwnershipIndex.class,
+        AccessControl.class, ReadCache.class, InvalidationBus.class })
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+public class TaskBulkSaveTest {
+
+    private static final int TASK_COUNT = 10_000;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private Project ownProject;
+    private Project otherProject;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(user("owner"));
+        User other = entityManager.persist(user("other"));
+        ownProject = entityManager.persist(Project.builder().name("Own Project").user(owner).build());
+        otherProject = entityManager.persist(Project.builder().name("Other Project").user(other).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        UserDetailsImpl principal = new UserDetailsImpl(owner.getId(), "owner", "owner@example.com",
+                "Owner", null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")), 0);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should insert 10k tasks in JDBC batches")
+    void shouldInsertTasksInJdbcBatches() {
+        // Given
+        List<TaskDto.BulkItem> items = new ArrayList<>();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            items.add(new TaskDto.BulkItem(null, request("Task " + i, ownProject.getId())));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        List<TaskDto.BulkResult> results = taskService.saveTasks(items);
+
+        // Then
+        assertEquals(TASK_COUNT, results.size());
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == 201 && result.getId() != null));
+        assertEquals(TASK_COUNT, statistics.getEntityInsertCount());
+        // One project lookup, one sequence call and one batched insert per 50 tasks, then the statistics row
+        // (an update and, as the project was persisted without its rows, an insert)
+        assertTrue(statistics.getPrepareStatementCount() <= 1 + 2 * (TASK_COUNT / Task.ID_ALLOCATION_SIZE + 1) + 2,
+                "prepared " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    @Test
+    @DisplayName("Should report a result per item and save only the valid ones")
+    void shouldReportResultPerItem() {
+        // Given
+        Task existing = entityManager.persistFlushFind(Task.builder()
+                .title("Existing").status(Task.Status.IN_PROGRESS).priority(1).project(ownProject).build());
+        List<TaskDto.BulkItem> items = Arrays.asList(
+                new TaskDto.BulkItem(null, request("New task", ownProject.getId())),
+                new TaskDto.BulkItem(existing.getId(), request("Renamed task", ownProject.getId())),
+                new TaskDto.BulkItem(null, request("x", ownProject.getId())),
+                new TaskDto.BulkItem(null, request("Foreign task", otherProject.getId())),
+                new TaskDto.BulkItem(null, request("Orphan task", 999_999L)),
+                new TaskDto.BulkItem(999_999L, request("Missing task", ownProject.getId())),
+                new TaskDto.BulkItem(null, TaskDto.Request.builder().title("No priority")
+                        .projectId(ownProject.getId()).build()));
+
+        // When
+        List<TaskDto.BulkResult> results = taskService.saveTasks(items);
+
+        // Then
+        assertEquals(Arrays.asList(201, 200, 400, 403, 404, 404, 400),
+                results.stream().map(TaskDto.BulkResult::getStatus).collect(Collectors.toList()));
+        assertEquals("Renamed task", results.get(1).getTask().getTitle());
+        // The request has no status, so the stored one is kept
+        assertEquals(Task.Status.IN_PROGRESS, results.get(1).getTask().getStatus());
+        assertTrue(results.get(2).getError().startsWith("title:"));
+        assertEquals(2, taskRepository.findByProjectId(ownProject.getId()).size());
+        assertTrue(taskRepository.findByProjectId(otherProject.getId()).isEmpty());
+    }
+
+    private static User user(String username) {
+        return User.builder()
+                .username(username)
+                .password("encoded_password")
+                .email(username + "@example.com")
+                .fullName(username)
+                .roles(Collections.singleton(User.Role.ROLE_USER))
+                .build();
+    }
+
+    private static TaskDto.Request request(String title, Long projectId) {
+        return TaskDto.Request.builder()
+                .title(title)
+                .priority(3)
+                .projectId(projectId)
+                .build();
+    }
+}
@@ -0,0 +1,155 @@
+package com.timex.api.service;
+
+import com.timex.api.cache.InvalidationBus;
+import com.timex.api.cache.ReadCache;
+import com.timex.api.dto.TaskDto;
+import com.timex.api.index.ProjectOwnershipIndex;
+import com.timex.api.index.TaskFilterIndex;
+import com.timex.api.index.TaskSearchIndex;
+import com.timex.api.mapper.TaskMapperImpl;
+import com.timex.api.model.Project;
+import com.timex.api.model.Task;
+import com.timex.api.model.User;
+import com.timex.api.pagination.CursorPage;
+import com.timex.api.pagination.CursorPagination;
+import com.timex.api.security.service.AccessControl;
+import com.timex.api.security.service.UserDetailsImpl;
+import com.timex.api.service.impl.TaskServiceImpl;
+import com.timex.api.stats.ProjectStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tasks due before a date, paged by due date and id. Every task is due at the same time, so each page
+ * boundary falls between rows with equal sort keys.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Import({ TaskServiceImpl.class, TaskMapperImpl.class, CursorPagination.class, ProjectStatistics.class,
+        TaskSearchIndex.class, TaskFilterIndex.class, SimpleMeterRegistry.class, ProjectOwnershipIndex.class,
+        AccessControl.class, ReadCache.class, InvalidationBus.class })
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+public class TaskDueBeforeTest {
+
+    private static final LocalDateTime DUE = LocalDateTime.of(2024, 1, 1, 12, 0);
+    private static final LocalDateTime BEFORE = DUE.plusDays(1);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskService taskService;
+
+    private List<Long> ownTaskIds;
+    private List<Long> allTaskIds;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(user("owner"));
+        User other = entityManager.persist(user("other"));
+        Project own = entityManager.persist(Project.builder().name("Own").user(owner).build());
+        Project foreign = entityManager.persist(Project.builder().name("Foreign").user(other).build());
+
+        ownTaskIds = new ArrayList<>();
+        allTaskIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Task task = entityManager.persist(Task.builder().title("Task " + i).priority(3).dueDate(DUE)
+                    .project(i % 3 == 0 ? foreign : own).build());
+            allTaskIds.add(task.getId());
+            if (i % 3 != 0) {
+                ownTaskIds.add(task.getId());
+            }
+        }
+        // Not due before the date
+        entityManager.persist(Task.builder().title("Later").priority(3).dueDate(BEFORE).project(own).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        authenticate(owner.getId(), "owner", "ROLE_USER");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should neither skip nor repeat rows at page boundaries between equal sort keys")
+    void shouldPageAcrossEqualSortKeys() {
+        // When
+        List<Long> walked = walk(3);
+
+        // Then
+        assertEquals(ownTaskIds, walked);
+    }
+
+    @Test
+    @DisplayName("Should only return the tasks of the current user's projects")
+    void shouldReturnOwnTasksOnly() {
+        // When
+        List<Long> found = walk(100);
+
+        // Then
+        assertEquals(ownTaskIds, found);
+    }
+
+    @Test
+    @DisplayName("Should return the tasks of every owner to an admin")
+    void shouldReturnAllTasksToAdmin() {
+        // Given
+        authenticate(Long.MAX_VALUE, "admin", "ROLE_ADMIN");
+
+        // When
+        List<Long> found = walk(4);
+
+        // Then
+        assertEquals(allTaskIds, found);
+    }
+
+    private List<Long> walk(int limit) {
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<TaskDto.Response> page = taskService.getTasksDueBeforeDate(BEFORE, cursor, limit);
+            assertTrue(page.getItems().size() <= limit);
+            page.getItems().forEach(task -> walked.add(task.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return walked;
+    }
+
+    private static void authenticate(Long id, String username, String role) {
+        UserDetailsImpl principal = new UserDetailsImpl(id, username, username + "@example.com", username, null,
+                Collections.singletonList(new SimpleGrantedAuthority(role)), 0);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static User user(String username) {
+        return User.builder()
+                .username(username)
+                .password("encoded_password")
+                .email(username + "@example.com")
+                .fullName(username)
+                .roles(Collections.singleton(User.Role.ROLE_USER))
+                .build();
+    }
+}
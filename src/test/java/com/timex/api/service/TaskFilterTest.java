@@ -0,0 +1,347 @@
+package com.timex.api.service;
+
+import com.timex.api.cache.InvalidationBus;
+import com.timex.api.cache.ReadCache;
+import com.timex.api.dto.TaskDto;
+import com.timex.api.index.ProjectOwnershipIndex;
+import com.timex.api.index.TaskFilterIndex;
+import com.timex.api.index.TaskSearchIndex;
+import com.timex.api.mapper.TaskMapperImpl;
+import com.timex.api.model.Project;
+import com.timex.api.model.Task;
+import com.timex.api.model.User;
+import com.timex.api.pagination.CursorPage;
+import com.timex.api.pagination.CursorPagination;
+import com.timex.api.repository.ProjectRepository;
+import com.timex.api.repository.TaskRepository;
+import com.timex.api.repository.UserRepository;
+import com.timex.api.security.service.AccessControl;
+import com.timex.api.security.service.UserDetailsImpl;
+import com.timex.api.service.impl.TaskServiceImpl;
+import com.timex.api.stats.ProjectStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs without the test transaction so writes commit and reach the filter index; data is removed after each test.
+ * SQL and bind logging are off, so the benchmark times the queries rather than their log lines.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ TaskServiceImpl.class, TaskMapperImpl.class, CursorPagination.class, ProjectStatistics.class,
+        TaskSearchIndex.class, TaskFilterIndex.class, SimpleMeterRegistry.class, ProjectOwnershipIndex.class,
+        AccessControl.class, ReadCache.class, InvalidationBus.class })
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+public class TaskFilterTest {
+
+    private static final int TASK_COUNT = 10_000;
+    private static final int QUERIES = 500;
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectStatistics projectStatistics;
+
+    @Autowired
+    private TaskFilterIndex taskFilterIndex;
+
+    private final Random random = new Random(3);
+    private Long ownerId;
+    private List<Project> projects;
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.save(user("owner"));
+        User other = userRepository.save(user("other"));
+        ownerId = owner.getId();
+        projects = List.of(
+                projectRepository.save(Project.builder().name("First").user(owner).build()),
+                projectRepository.save(Project.builder().name("Second").user(owner).build()),
+                projectRepository.save(Project.builder().name("Foreign").user(other).build()));
+
+        Task.Status[] statuses = Task.Status.values();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            tasks.add(Task.builder()
+                    .title("Task " + i)
+                    .status(statuses[random.nextInt(statuses.length)])
+                    .priority(1 + random.nextInt(5))
+                    .dueDate(random.nextInt(10) == 0 ? null : NOW.plusHours(random.nextInt(24 * 60) - 24 * 30))
+                    .project(projects.get(random.nextInt(projects.size())))
+                    .build());
+        }
+        taskRepository.saveAll(tasks);
+        projectStatistics.rebuildAll();
+        taskFilterIndex.rebuild();
+
+        UserDetailsImpl principal = new UserDetailsImpl(owner.getId(), "owner", "owner@example.com", "owner",
+                null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")), 0);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        taskRepository.deleteAllInBatch();
+        projectRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should return the same pages as the SQL filter")
+    void shouldMatchSqlFilter() {
+        // Given
+        List<Filter> filters = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            filters.add(randomFilter());
+        }
+
+        // When
+        List<List<Long>> fromIndex = new ArrayList<>();
+        for (Filter filter : filters) {
+            fromIndex.add(ids(taskService.filterTasks(filter.projectId, filter.status, filter.priority,
+                    filter.dueFrom, filter.dueTo, null, 50).getItems()));
+        }
+
+        List<List<Long>> fromSql = new ArrayList<>();
+        for (Filter filter : filters) {
+            fromSql.add(ids(taskRepository.findResponsesMatching(ownerId, filter.projectId, filter.status,
+                    filter.priority, filter.dueFrom, filter.dueTo, 0L, PageRequest.of(0, 50))));
+        }
+
+        // Then
+        assertEquals(fromSql, fromIndex);
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Should pick filter pages from the index faster than the SQL filter")
+    void shouldPickPagesFasterThanSql() {
+        // Given: both paths run the same filters once before they are timed
+        List<Filter> filters = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            filters.add(randomFilter());
+        }
+        filterThroughIndex(filters);
+        filterThroughSql(filters);
+
+        // When
+        long indexStart = System.nanoTime();
+        filterThroughIndex(filters);
+        double indexMillis = (System.nanoTime() - indexStart) / 1e6 / QUERIES;
+
+        long sqlStart = System.nanoTime();
+        filterThroughSql(filters);
+        double sqlMillis = (System.nanoTime() - sqlStart) / 1e6 / QUERIES;
+
+        // Then
+        assertTrue(indexMillis < sqlMillis, "index " + indexMillis + " ms, SQL " + sqlMillis + " ms per page");
+    }
+
+    @Test
+    @DisplayName("Should walk every match page by page")
+    void shouldWalkEveryMatchByCursor() {
+        // Given
+        Long projectId = projects.get(0).getId();
+        List<Long> expected = ids(taskRepository.findResponsesMatching(ownerId, projectId, Task.Status.TODO, null,
+                NOW, null, 0L, PageRequest.of(0, TASK_COUNT)));
+
+        // When
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<TaskDto.Response> page = taskService.filterTasks(projectId, Task.Status.TODO, null, NOW, null,
+                    cursor, 100);
+            walked.addAll(ids(page.getItems()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Then
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, walked);
+    }
+
+    @Test
+    @DisplayName("Should keep walking past an index entry older than its row")
+    void shouldWalkPastStaleEntries() {
+        // Given
+        Long projectId = projects.get(0).getId();
+        List<Long> matching = ids(taskRepository.findResponsesMatching(ownerId, projectId, Task.Status.TODO, null,
+                null, null, 0L, PageRequest.of(0, TASK_COUNT)));
+        Task changed = taskRepository.findById(matching.get(50)).orElseThrow();
+        changed.setStatus(Task.Status.COMPLETED);
+        taskRepository.save(changed);
+
+        // When
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<TaskDto.Response> page = taskService.filterTasks(projectId, Task.Status.TODO, null, null, null,
+                    cursor, 100);
+            walked.addAll(ids(page.getItems()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Then
+        assertTrue(matching.size() > 101);
+        assertEquals(ids(taskRepository.findResponsesMatching(ownerId, projectId, Task.Status.TODO, null, null,
+                null, 0L, PageRequest.of(0, TASK_COUNT))), walked);
+    }
+
+    @Test
+    @DisplayName("Should reflect created, changed and deleted tasks")
+    void shouldReflectTaskWrites() {
+        // Given
+        Long projectId = projects.get(1).getId();
+        LocalDateTime dueDate = NOW.plusYears(1);
+        TaskDto.Response created = taskService.createTask(TaskDto.Request.builder()
+                .title("Far ahead")
+                .status(Task.Status.TODO)
+                .priority(5)
+                .dueDate(dueDate)
+                .projectId(projectId)
+                .build());
+
+        // When
+        List<Long> afterCreate = ids(taskService.filterTasks(null, Task.Status.TODO, 5, dueDate.minusDays(1),
+                null, null, 50).getItems());
+        taskService.updateTaskStatus(created.getId(), Task.Status.COMPLETED, null);
+        List<Long> afterStatusChange = ids(taskService.filterTasks(null, Task.Status.COMPLETED, 5,
+                dueDate.minusDays(1), null, null, 50).getItems());
+        taskService.deleteTask(created.getId());
+        List<Long> afterDelete = ids(taskService.filterTasks(projectId, null, null, dueDate.minusDays(1), null,
+                null, 50).getItems());
+
+        // Then
+        assertEquals(List.of(created.getId()), afterCreate);
+        assertEquals(List.of(created.getId()), afterStatusChange);
+        assertTrue(afterDelete.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reflect set-based status updates and moves")
+    void shouldReflectSetBasedWrites() {
+        // Given
+        Long projectId = projects.get(0).getId();
+        Long targetId = projects.get(1).getId();
+        List<Long> blocked = ids(taskRepository.findResponsesMatching(ownerId, projectId, Task.Status.BLOCKED, null,
+                null, null, 0L, PageRequest.of(0, TASK_COUNT)));
+
+        // When
+        taskService.updateTasksStatus(projectId, Task.Status.BLOCKED, null, null, Task.Status.COMPLETED);
+        taskService.moveTasks(projectId, Task.Status.COMPLETED, null, null, targetId);
+
+        // Then
+        assertFalse(blocked.isEmpty());
+        assertTrue(walk(projectId, null).stream().noneMatch(blocked::contains));
+        assertTrue(walk(targetId, Task.Status.COMPLETED).containsAll(blocked));
+        assertEquals(ids(taskRepository.findResponsesMatching(ownerId, targetId, null, null, null, null, 0L,
+                PageRequest.of(0, TASK_COUNT))), walk(targetId, null));
+    }
+
+    private void filterThroughIndex(List<Filter> filters) {
+        for (Filter filter : filters) {
+            taskFilterIndex.filter(ownerId, filter.projectId, filter.status, filter.priority, filter.dueFrom,
+                    filter.dueTo, 0L, 51);
+        }
+    }
+
+    private void filterThroughSql(List<Filter> filters) {
+        for (Filter filter : filters) {
+            taskRepository.findResponsesMatching(ownerId, filter.projectId, filter.status, filter.priority,
+                    filter.dueFrom, filter.dueTo, 0L, PageRequest.of(0, 50));
+        }
+    }
+
+    private List<Long> walk(Long projectId, Task.Status status) {
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<TaskDto.Response> page = taskService.filterTasks(projectId, status, null, null, null, cursor,
+                    500);
+            walked.addAll(ids(page.getItems()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return walked;
+    }
+
+    private Filter randomFilter() {
+        Filter filter = new Filter();
+        if (random.nextBoolean()) {
+            filter.projectId = projects.get(random.nextInt(2)).getId();
+        }
+        if (random.nextBoolean()) {
+            filter.status = Task.Status.values()[random.nextInt(Task.Status.values().length)];
+        }
+        if (random.nextBoolean()) {
+            filter.priority = 1 + random.nextInt(5);
+        }
+        if (random.nextBoolean()) {
+            filter.dueFrom = NOW.plusMinutes(random.nextInt(60 * 24 * 60) - 60 * 24 * 30);
+            filter.dueTo = random.nextBoolean() ? filter.dueFrom.plusHours(random.nextInt(24 * 10)) : null;
+        }
+        return filter;
+    }
+
+    private static List<Long> ids(List<TaskDto.Response> tasks) {
+        return tasks.stream().map(TaskDto.Response::getId).collect(Collectors.toList());
+    }
+
+    private static User user(String username) {
+        return User.builder()
+                .username(username)
+                .password("encoded_password")
+                .email(username + "@example.com")
+                .fullName(username)
+                .roles(Collections.singleton(User.Role.ROLE_USER))
+                .build();
+    }
+
+    private static class Filter {
+        private Long projectId;
+        private Task.Status status;
+        private Integer priority;
+        private LocalDateTime dueFrom;
+        private LocalDateTime dueTo;
+    }
+}
@@ -0,0 +1,150 @@
+package com.timex.api.service;
+
+import com.timex.api.cache.InvalidationBus;
+import com.timex.api.cache.ReadCache;
+import com.timex.api.index.ProjectOwnershipIndex;
+import com.timex.api.index.TaskFilterIndex;
+import com.timex.api.index.TaskSearchIndex;
+import com.timex.api.mapper.TaskMapperImpl;
+import com.timex.api.model.Project;
+import com.timex.api.model.Task;
+import com.timex.api.model.User;
+import com.timex.api.pagination.CursorPagination;
+import com.timex.api.repository.TaskRepository;
+import com.timex.api.security.service.AccessControl;
+import com.timex.api.security.service.UserDetailsImpl;
+import com.timex.api.service.impl.TaskServiceImpl;
+import com.timex.api.stats.ProjectStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({ TaskServiceImpl.class, TaskMapperImpl.class, CursorPagination.class, ProjectStatistics.class,
+        TaskSearchIndex.class, TaskFilterIndex.class, SimpleMeterRegistry.class, ProjectOwnershipIndex.class,
+        AccessControl.class, ReadCache.class, InvalidationBus.class })
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+public class TaskSetUpdateTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ProjectStatistics projectStatistics;
+
+    private Project source;
+    private Project target;
+    private Project foreign;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(user("owner"));
+        User other = entityManager.persist(user("other"));
+        source = entityManager.persist(Project.builder().name("Source").user(owner).build());
+        target = entityManager.persist(Project.builder().name("Target").user(owner).build());
+        foreign = entityManager.persist(Project.builder().name("Foreign").user(other).build());
+
+        entityManager.persist(task("Blocked early", Task.Status.BLOCKED, NOW.minusDays(2), source));
+        entityManager.persist(task("Blocked late", Task.Status.BLOCKED, NOW.plusDays(2), source));
+        entityManager.persist(task("In progress", Task.Status.IN_PROGRESS, NOW, source));
+        entityManager.persist(task("Elsewhere", Task.Status.BLOCKED, NOW, target));
+        entityManager.flush();
+        entityManager.clear();
+
+        UserDetailsImpl principal = new UserDetailsImpl(owner.getId(), "owner", "owner@example.com",
+                "Owner", null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")), 0);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should change status of the tasks matching the filter only")
+    void shouldChangeStatusOfMatchingTasksOnly() {
+        // When
+        int affected = taskService.updateTasksStatus(source.getId(), Task.Status.BLOCKED, null, NOW,
+                Task.Status.COMPLETED).getAffected();
+
+        // Then
+        assertEquals(1, affected);
+        entityManager.clear();
+        assertEquals(1, taskRepository.findByProjectIdAndStatus(source.getId(), Task.Status.COMPLETED).size());
+        assertEquals(1, taskRepository.findByProjectIdAndStatus(source.getId(), Task.Status.BLOCKED).size());
+        assertEquals(1, taskRepository.findByProjectIdAndStatus(target.getId(), Task.Status.BLOCKED).size());
+    }
+
+    @Test
+    @DisplayName("Should move every task with a status to the target project")
+    void shouldMoveTasksWithStatusToTargetProject() {
+        // When
+        int affected = taskService.moveTasks(source.getId(), Task.Status.BLOCKED, null, null, target.getId())
+                .getAffected();
+
+        // Then
+        assertEquals(2, affected);
+        entityManager.clear();
+        assertEquals(1, taskRepository.findByProjectId(source.getId()).size());
+        assertEquals(3, taskRepository.findByProjectIdAndStatus(target.getId(), Task.Status.BLOCKED).size());
+        assertEquals(1, projectStatistics.read(source.getId()).getTaskCount());
+        assertEquals(3, projectStatistics.read(target.getId()).getByStatus().get(Task.Status.BLOCKED).getTaskCount());
+    }
+
+    @Test
+    @DisplayName("Should refuse to move tasks into a project of another user")
+    void shouldRefuseMoveIntoForeignProject() {
+        // When & Then
+        assertThrows(AccessDeniedException.class,
+                () -> taskService.moveTasks(source.getId(), null, null, null, foreign.getId()));
+        entityManager.clear();
+        assertEquals(3, taskRepository.findByProjectId(source.getId()).size());
+    }
+
+    private static Task task(String title, Task.Status status, LocalDateTime dueDate, Project project) {
+        return Task.builder()
+                .title(title)
+                .status(status)
+                .priority(3)
+                .dueDate(dueDate)
+                .project(project)
+                .build();
+    }
+
+    private static User user(String username) {
+        return User.builder()
+                .username(username)
+                .password("encoded_password")
+                .email(username + "@example.com")
+                .fullName(username)
+                .roles(Collections.singleton(User.Role.ROLE_USER))
+                .build();
+    }
+}
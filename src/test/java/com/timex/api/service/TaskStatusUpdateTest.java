@@ -0,0 +1,254 @@
+package com.timex.api.service;
+
+import com.timex.api.cache.InvalidationBus;
+import com.timex.api.cache.ReadCache;
+import com.timex.api.dto.ProjectDto;
+import com.timex.api.dto.TaskDto;
+import com.timex.api.exception.ResourceNotFoundException;
+import com.timex.api.index.ProjectOwnershipIndex;
+import com.timex.api.index.TaskFilterIndex;
+import com.timex.api.index.TaskSearchIndex;
+import com.timex.api.mapper.TaskMapperImpl;
+import com.timex.api.model.Project;
+import com.timex.api.model.Task;
+import com.timex.api.model.User;
+import com.timex.api.pagination.CursorPagination;
+import com.timex.api.repository.ProjectRepository;
+import com.timex.api.repository.TaskRepository;
+import com.timex.api.repository.UserRepository;
+import com.timex.api.security.service.AccessControl;
+import com.timex.api.security.service.UserDetailsImpl;
+import com.timex.api.service.impl.TaskServiceImpl;
+import com.timex.api.stats.ProjectStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs without the test transaction so concurrent clients see committed rows; data is removed after each test.
+ * SQL and bind logging are off, so the benchmark times the updates rather than their log lines.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ TaskServiceImpl.class, TaskMapperImpl.class, CursorPagination.class, ProjectStatistics.class,
+        TaskSearchIndex.class, TaskFilterIndex.class, SimpleMeterRegistry.class, ProjectOwnershipIndex.class,
+        AccessControl.class, ReadCache.class, InvalidationBus.class })
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+public class TaskStatusUpdateTest {
+
+    private static final int TASK_COUNT = 200;
+    private static final int CLIENTS = 8;
+    private static final int UPDATES_PER_CLIENT = 200;
+    private static final int BENCHMARK_UPDATES_PER_CLIENT = 2_000;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectStatistics projectStatistics;
+
+    private UserDetailsImpl owner;
+    private UserDetailsImpl stranger;
+    private Project project;
+    private List<Long> taskIds;
+
+    @BeforeEach
+    void setUp() {
+        User ownerUser = userRepository.save(user("owner"));
+        User strangerUser = userRepository.save(user("stranger"));
+        project = projectRepository.save(Project.builder().name("Board").user(ownerUser).build());
+
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            tasks.add(Task.builder().title("Card " + i).priority(3).project(project).build());
+        }
+        taskIds = new ArrayList<>();
+        taskRepository.saveAll(tasks).forEach(task -> taskIds.add(task.getId()));
+        projectStatistics.rebuildAll();
+
+        owner = principal(ownerUser);
+        stranger = principal(strangerUser);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        taskRepository.deleteAllInBatch();
+        projectRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should change status with one read, one update and one statistics update")
+    void shouldChangeStatusWithOneReadAndTwoUpdates() {
+        // Given
+        authenticate(owner);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        TaskDto.Response response = taskService.updateTaskStatus(taskIds.get(0), Task.Status.IN_PROGRESS, null);
+
+        // Then
+        assertEquals(Task.Status.IN_PROGRESS, response.getStatus());
+        assertEquals("Board", response.getProjectName());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(Task.Status.IN_PROGRESS, taskRepository.findById(taskIds.get(0)).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Should reject status change on a task of another user's project")
+    void shouldRejectStatusChangeOfForeignTask() {
+        // Given
+        authenticate(stranger);
+
+        // When & Then
+        assertThrows(AccessDeniedException.class,
+                () -> taskService.updateTaskStatus(taskIds.get(0), Task.Status.COMPLETED, null));
+        assertEquals(Task.Status.TODO, taskRepository.findById(taskIds.get(0)).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Should report a missing task as not found")
+    void shouldReportMissingTaskAsNotFound() {
+        // Given
+        authenticate(owner);
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class,
+                () -> taskService.updateTaskStatus(Long.MAX_VALUE, Task.Status.COMPLETED, null));
+    }
+
+    @Test
+    @DisplayName("Should keep tasks and statistics consistent under concurrent clients")
+    void shouldStayConsistentUnderConcurrentClients() throws Exception {
+        // When
+        changeStatusConcurrently(UPDATES_PER_CLIENT);
+
+        // Then: each task is changed by one client only, so it ends in the last status that client set
+        Task.Status[] statuses = Task.Status.values();
+        int tasksPerClient = TASK_COUNT / CLIENTS;
+        for (Task task : taskRepository.findAllById(taskIds)) {
+            int slot = taskIds.indexOf(task.getId()) / CLIENTS;
+            int lastUpdate = UPDATES_PER_CLIENT - 1 - (UPDATES_PER_CLIENT - 1 - slot) % tasksPerClient;
+            assertEquals(statuses[lastUpdate % statuses.length], task.getStatus());
+        }
+        Map<Task.Status, ProjectDto.StatusStats> maintained = projectStatistics.read(project.getId()).getByStatus();
+        projectStatistics.rebuildAll();
+        assertEquals(projectStatistics.read(project.getId()).getByStatus(), maintained);
+        assertEquals(TASK_COUNT, projectStatistics.read(project.getId()).getTaskCount());
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Should sustain 200 status changes per second from concurrent clients")
+    void shouldSustainStatusChangesFromConcurrentClients() throws Exception {
+        // Given: one round to warm up
+        changeStatusConcurrently(BENCHMARK_UPDATES_PER_CLIENT / 10);
+
+        // When
+        long elapsedNanos = changeStatusConcurrently(BENCHMARK_UPDATES_PER_CLIENT);
+
+        // Then
+        double perSecond = CLIENTS * BENCHMARK_UPDATES_PER_CLIENT / (elapsedNanos / 1e9);
+        assertTrue(perSecond > 200, perSecond + " status changes per second");
+    }
+
+    /**
+     * Every client changes its own share of the tasks, cycling through the statuses; fails with the first
+     * exception a client ran into. Returns the time all clients took.
+     */
+    private long changeStatusConcurrently(int updatesPerClient) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        Task.Status[] statuses = Task.Status.values();
+        List<Future<?>> results = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int c = 0; c < CLIENTS; c++) {
+            int client = c;
+            results.add(clients.submit(() -> {
+                authenticate(owner);
+                try {
+                    for (int i = 0; i < updatesPerClient; i++) {
+                        Long taskId = taskIds.get((i * CLIENTS + client) % TASK_COUNT);
+                        taskService.updateTaskStatus(taskId, statuses[i % statuses.length], null);
+                    }
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            }));
+        }
+        try {
+            for (Future<?> result : results) {
+                result.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    private static void authenticate(UserDetailsImpl principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static UserDetailsImpl principal(User user) {
+        return new UserDetailsImpl(user.getId(), user.getUsername(), user.getEmail(), user.getFullName(), null,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")), 0);
+    }
+
+    private static User user(String username) {
+        return User.builder()
+                .username(username)
+                .password("encoded_password")
+                .email(username + "@example.com")
+                .fullName(username)
+                .roles(Collections.singleton(User.Role.ROLE_USER))
+                .build();
+    }
+}
@@ -1,26 +1,38 @@
 package com.timex.api.service;
 
+import com.timex.api.cache.InvalidationBus;
+import com.timex.api.cache.InvalidationKey;
+import com.timex.api.cache.ReadCache;
 import com.timex.api.dto.UserDto;
 import com.timex.api.exception.ApiException;
 import com.timex.api.exception.ResourceNotFoundException;
+import com.timex.api.index.AccountAvailabilityIndex;
 import com.timex.api.mapper.UserMapper;
 import com.timex.api.model.User;
 import com.timex.api.repository.UserRepository;
 import com.timex.api.security.jwt.JwtUtils;
+import com.timex.api.security.service.CredentialHashingExecutor;
+import com.timex.api.security.service.TokenVersionRegistry;
+import com.timex.api.service.impl.ChunkedDeleter;
 import com.timex.api.service.impl.UserServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -47,6 +59,25 @@ public class UserServiceTest {
     @Mock
     private JwtUtils jwtUtils;
 
+    @Mock
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Mock
+    private AccountAvailabilityIndex accountAvailabilityIndex;
+
+    @Mock
+    private ChunkedDeleter chunkedDeleter;
+
+    @Mock
+    private ReadCache readCache;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    @Spy
+    private CredentialHashingExecutor credentialHashingExecutor =
+            new CredentialHashingExecutor(1, 1, 1, Duration.ofSeconds(10), new SimpleMeterRegistry());
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -104,6 +135,7 @@ public class UserServiceTest {
         assertEquals(user.getId(), result.getId());
         assertEquals(user.getUsername(), result.getUsername());
         verify(userRepository).save(any(User.class));
+        verify(invalidationBus).publish(List.of(InvalidationKey.of(InvalidationKey.Kind.ACCOUNT, 1L)));
     }
 
     @Test
@@ -137,6 +169,24 @@ public class UserServiceTest {
         verify(userRepository, never()).save(any(User.class));
     }
 
+    @Test
+    @DisplayName("Should report an account taken concurrently as a bad request")
+    void shouldReportConcurrentlyTakenAccountAsBadRequest() {
+        // Given
+        when(userRepository.existsByUsername(anyString())).thenReturn(false);
+        when(userRepository.existsByEmail(anyString())).thenReturn(false);
+        when(userMapper.toEntity(any(UserDto.Request.class))).thenReturn(user);
+        when(passwordEncoder.encode(anyString())).thenReturn("encoded_password");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("users_username"));
+
+        // When & Then
+        ApiException exception = assertThrows(ApiException.class,
+                () -> userService.registerUser(userRequest));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verify(invalidationBus, never()).publish(any());
+    }
+
     @Test
     @DisplayName("Should get user by ID successfully")
     void shouldGetUserByIdSuccessfully() {
@@ -175,6 +225,7 @@ public class UserServiceTest {
         userService.deleteUser(1L);
 
         // Then
+        verify(chunkedDeleter).deleteProjectsOfUser(1L);
         verify(userRepository).deleteById(1L);
     }
 
@@ -187,6 +238,7 @@ public class UserServiceTest {
         // When & Then
         assertThrows(ResourceNotFoundException.class,
                 () -> userService.deleteUser(1L));
+        verify(chunkedDeleter, never()).deleteProjectsOfUser(anyLong());
         verify(userRepository, never()).deleteById(anyLong());
     }
 }
\ No newline at end of file
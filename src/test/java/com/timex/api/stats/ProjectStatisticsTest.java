@@ -0,0 +1,147 @@
+package com.timex.api.stats;
+
+import com.timex.api.cache.InvalidationBus;
+import com.timex.api.cache.ReadCache;
+import com.timex.api.dto.ProjectDto;
+import com.timex.api.dto.TaskDto;
+import com.timex.api.index.ProjectOwnershipIndex;
+import com.timex.api.index.TaskFilterIndex;
+import com.timex.api.index.TaskSearchIndex;
+import com.timex.api.mapper.TaskMapperImpl;
+import com.timex.api.model.Project;
+import com.timex.api.model.Task;
+import com.timex.api.model.User;
+import com.timex.api.pagination.CursorPagination;
+import com.timex.api.security.service.AccessControl;
+import com.timex.api.security.service.UserDetailsImpl;
+import com.timex.api.service.TaskService;
+import com.timex.api.service.impl.TaskServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({ ProjectStatistics.class, TaskServiceImpl.class, TaskMapperImpl.class, CursorPagination.class,
+        TaskSearchIndex.class, TaskFilterIndex.class, SimpleMeterRegistry.class, ProjectOwnershipIndex.class,
+        AccessControl.class, ReadCache.class, InvalidationBus.class })
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+public class ProjectStatisticsTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProjectStatistics projectStatistics;
+
+    @Autowired
+    private TaskService taskService;
+
+    private Project first;
+    private Project second;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(User.builder()
+                .username("owner")
+                .password("encoded_password")
+                .email("owner@example.com")
+                .fullName("Project Owner")
+                .roles(Collections.singleton(User.Role.ROLE_USER))
+                .build());
+        first = entityManager.persist(Project.builder().name("First").user(owner).build());
+        second = entityManager.persist(Project.builder().name("Second").user(owner).build());
+        entityManager.flush();
+        projectStatistics.initialize(first.getId());
+        projectStatistics.initialize(second.getId());
+
+        UserDetailsImpl principal = new UserDetailsImpl(owner.getId(), "owner", "owner@example.com",
+                "Project Owner", null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")), 0);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should keep incremental statistics equal to a rebuild from the tasks")
+    void shouldMatchRebuildAfterTaskWrites() {
+        // Given
+        TaskDto.Response kept = taskService.createTask(request("Kept", Task.Status.TODO, 3.0, null, first));
+        TaskDto.Response moved = taskService.createTask(request("Moved", Task.Status.IN_PROGRESS, 5.0, 1.5, first));
+        TaskDto.Response deleted = taskService.createTask(request("Deleted", Task.Status.BLOCKED, 2.0, 2.0, first));
+        taskService.saveTasks(List.of(
+                new TaskDto.BulkItem(null, request("Bulk", Task.Status.TODO, 1.0, null, second)),
+                new TaskDto.BulkItem(kept.getId(), request("Kept", Task.Status.TODO, 4.0, 1.0, first))));
+
+        // When
+        taskService.updateTask(moved.getId(), request("Moved", Task.Status.COMPLETED, 5.0, 6.0, second), null);
+        taskService.updateTaskStatus(kept.getId(), Task.Status.IN_PROGRESS, null);
+        taskService.deleteTask(deleted.getId());
+        ProjectDto.Stats firstStats = projectStatistics.read(first.getId());
+        ProjectDto.Stats secondStats = projectStatistics.read(second.getId());
+
+        // Then
+        assertEquals(1, firstStats.getTaskCount());
+        assertEquals(4.0, firstStats.getEstimatedHours());
+        assertEquals(1, firstStats.getByStatus().get(Task.Status.IN_PROGRESS).getTaskCount());
+        assertEquals(0, firstStats.getByStatus().get(Task.Status.BLOCKED).getTaskCount());
+        assertEquals(2, secondStats.getTaskCount());
+        assertEquals(6.0, secondStats.getActualHours());
+
+        projectStatistics.rebuild(first.getId());
+        projectStatistics.rebuild(second.getId());
+        entityManager.clear();
+        assertEquals(firstStats, projectStatistics.read(first.getId()));
+        assertEquals(secondStats, projectStatistics.read(second.getId()));
+    }
+
+    @Test
+    @DisplayName("Should rebuild the statistics of a project without rows instead of storing the delta")
+    void shouldRebuildProjectWithoutStatistics() {
+        // Given
+        Project unseeded = entityManager.persist(Project.builder().name("Unseeded").user(first.getUser()).build());
+        TaskDto.Response task = taskService.createTask(request("First", Task.Status.TODO, 2.0, null, first));
+        entityManager.flush();
+
+        // When
+        taskService.updateTask(task.getId(), request("First", Task.Status.BLOCKED, 2.0, 1.0, unseeded), null);
+        ProjectDto.Stats stats = projectStatistics.read(unseeded.getId());
+
+        // Then
+        assertEquals(1, stats.getTaskCount());
+        assertEquals(1, stats.getByStatus().get(Task.Status.BLOCKED).getTaskCount());
+        assertEquals(0, stats.getByStatus().get(Task.Status.TODO).getTaskCount());
+        assertEquals(0, projectStatistics.read(first.getId()).getTaskCount());
+    }
+
+    private static TaskDto.Request request(String title, Task.Status status, Double estimatedHours,
+            Double actualHours, Project project) {
+        return TaskDto.Request.builder()
+                .title(title)
+                .status(status)
+                .priority(3)
+                .estimatedHours(estimatedHours)
+                .actualHours(actualHours)
+                .projectId(project.getId())
+                .build();
+    }
+}